@@ -0,0 +1,93 @@
+package hello.benchmark;
+
+import hello.exception.ExceptionApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * /api, /api2, /api3 의 members/{id} 에 동시 연결 10k 를 걸어서 동기(members.async.enabled=false)와 비동기 비교
+ * JMH 는 스레드 수 만큼만 동시 요청이라 이건 main 으로 직접 돌린다
+ *
+ * ./gradlew jmhClasses 후 jmh 런타임 클래스패스로
+ * java hello.benchmark.AsyncMembersLoadTest [sync|async] [동시 요청 수, 기본 10000] [반복, 기본 5]
+ *
+ * 출력: 반복마다 처리량(req/s), 상태 코드별 개수, JVM 피크 스레드 수
+ * 정상(/members/spring), 400(/members/bad), 500 계열(/members/ex) 을 섞어서 비동기에서도 상태 코드가 같은지 같이 본다
+ * 서버와 클라이언트가 같은 JVM 이라 피크 스레드 수에는 HttpClient 스레드도 들어있음 (둘 다 같은 조건)
+ * ulimit -n 이 동시 요청 수보다 커야 함
+ */
+public class AsyncMembersLoadTest {
+
+    private static final String[] PATHS = {
+            "/api/members/spring", "/api2/members/spring", "/api3/members/spring",
+            "/api2/members/bad", "/api2/members/user-ex", "/api2/members/ex"
+    };
+
+    public static void main(String[] args) throws Exception {
+        boolean async = args.length > 0 && "async".equals(args[0]);
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ExceptionApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "members.async.enabled=" + async,
+                        "server.tomcat.max-connections=" + (concurrency + 1000),
+                        "server.tomcat.accept-count=" + concurrency)
+                .run();
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        try {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+            for (int round = 1; round <= rounds; round++) {
+                threads.resetPeakThreadCount();
+                Map<Integer, Integer> statuses = new TreeMap<>();
+                List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+
+                long start = System.nanoTime();
+                for (int i = 0; i < concurrency; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(base + PATHS[i % PATHS.length]))
+                            .header("Accept", "application/json")
+                            .build();
+                    responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+                }
+                int failed = 0;
+                for (CompletableFuture<HttpResponse<Void>> response : responses) {
+                    try {
+                        statuses.merge(response.join().statusCode(), 1, Integer::sum);
+                    } catch (Exception e) {
+                        failed++;
+                    }
+                }
+                long elapsed = System.nanoTime() - start;
+
+                System.out.printf("[%s] round=%d requests=%d throughput=%.0f req/s peakThreads=%d statuses=%s failed=%d%n",
+                        async ? "async" : "sync", round, concurrency, concurrency / (elapsed / 1e9),
+                        threads.getPeakThreadCount(), statuses, failed);
+            }
+        } finally {
+            clientExecutor.shutdown();
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package hello.benchmark;
+
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.exhandler.advice.ExControllerAdvice;
+import hello.exception.problem.ProblemWriter;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * ExControllerAdvice 는 @RestControllerAdvice 가 주석 처리되어 있어서
+ * 전역 @ExceptionHandler 경로를 잴 때만 이걸 소스로 추가해서 켠다
+ * hello.exception 밖에 있어서 컴포넌트 스캔에는 안 걸림
+ */
+@RestControllerAdvice(basePackages = "hello.exception.api")
+public class BenchmarkControllerAdvice extends ExControllerAdvice {
+
+    public BenchmarkControllerAdvice(ProblemWriter problemWriter, ErrorLog errorLog) {
+        super(problemWriter, errorLog);
+    }
+}
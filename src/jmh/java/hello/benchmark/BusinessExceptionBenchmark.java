@@ -0,0 +1,70 @@
+package hello.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.exception.BusinessExceptions;
+import hello.exception.exception.UserException;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.problem.ProblemRegistry;
+import hello.exception.problem.ProblemWriter;
+import hello.exception.resolver.UserHandlerExceptionResolver;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserException 을 던지고 리졸버로 처리하는 비용, 스택 트레이스를 채울 때와 안 채울 때
+ * depth 는 예외가 나는 지점의 호출 깊이, 실제 스프링 MVC 안에서는 수십~백 프레임
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BusinessExceptionBenchmark {
+
+    @Param({"10", "100"})
+    public int depth;
+
+    private final BusinessExceptions fullTrace = new BusinessExceptions(false, false);
+    private final BusinessExceptions stackless = new BusinessExceptions(true, true);
+
+    private UserHandlerExceptionResolver resolver;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        resolver = new UserHandlerExceptionResolver(new ProblemWriter(new ObjectMapper(), new ProblemRegistry(new StaticMessageSource(), "/problems/")), new AcceptHeaderNegotiator());
+        request = new MockHttpServletRequest("GET", "/api/members/user-ex");
+        request.addHeader("Accept", "text/html");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public ModelAndView fullTrace() {
+        return throwAndResolve(fullTrace);
+    }
+
+    @Benchmark
+    public ModelAndView stackless() {
+        return throwAndResolve(stackless);
+    }
+
+    private ModelAndView throwAndResolve(BusinessExceptions exceptions) {
+        try {
+            throwAt(depth, exceptions);
+            return null;
+        } catch (UserException e) {
+            return resolver.resolveException(request, response, null, e);
+        }
+    }
+
+    private static void throwAt(int depth, BusinessExceptions exceptions) {
+        if (depth == 0) {
+            throw exceptions.user("사용자 오류");
+        }
+        throwAt(depth - 1, exceptions);
+    }
+}
@@ -0,0 +1,84 @@
+package hello.benchmark;
+
+import hello.exception.journal.ErrorJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * ErrorJournal 기록 속도(여러 스레드)와 다시 읽기 속도
+ *
+ * append: 세그먼트가 차서 다음 파일로 넘어가는 비용까지 포함 (세그먼트 4096 건)
+ * scan: 미리 100만 건 채워둔 저널을 처음부터 끝까지, 1회 시간
+ * 파일은 임시 디렉토리에 만들고 끝나면 지움
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ErrorJournalBenchmark {
+
+    private static final String[] ROUTES = {"/api/members/{id}", "/api2/members/{id}", "/api3/members/{id}", "UNMAPPED"};
+
+    private Path appendDirectory;
+    private Path scanDirectory;
+    private ErrorJournal appendJournal;
+    private ErrorJournal scanJournal;
+    private Exception[] exceptions;
+
+    @Setup
+    public void setUp() throws IOException {
+        exceptions = new Exception[]{
+                new IllegalArgumentException("잘못된 입력 값"),
+                new RuntimeException("잘못된 사용자"),
+                new IllegalStateException("상태 오류")};
+
+        appendDirectory = Files.createTempDirectory("error-journal-append");
+        appendJournal = new ErrorJournal(true, appendDirectory.toString(), 4096, 1 << 20, 4, 256, 1000);
+        appendJournal.start();
+
+        scanDirectory = Files.createTempDirectory("error-journal-scan");
+        scanJournal = new ErrorJournal(true, scanDirectory.toString(), 65536, 16 << 20, 32, 256, 1000);
+        scanJournal.start();
+        for (int i = 0; i < 1_000_000; i++) {
+            scanJournal.append("01HZX3K4T8Q9V2M7C5N6B1R0JW", ROUTES[i % ROUTES.length], exceptions[i % exceptions.length], 500);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        appendJournal.stop();
+        scanJournal.stop();
+        delete(appendDirectory);
+        delete(scanDirectory);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void append() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        appendJournal.append("01HZX3K4T8Q9V2M7C5N6B1R0JW", ROUTES[random.nextInt(ROUTES.length)],
+                exceptions[random.nextInt(exceptions.length)], 500);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long scanAll() {
+        AtomicLong count = new AtomicLong();
+        scanJournal.scan(0, event -> count.incrementAndGet());
+        return count.get();
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
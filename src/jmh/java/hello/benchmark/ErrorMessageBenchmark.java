@@ -0,0 +1,54 @@
+package hello.benchmark;
+
+import hello.exception.message.ErrorMessageCatalog;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 오류 메시지 코드(error.bad) 해석, 스프링 부트 기본 ResourceBundleMessageSource 와 ErrorMessageCatalog 비교
+ * 둘 다 같은 messages.properties, 오류마다 한번씩 하는 조회라 여러 스레드에서
+ * missing 은 키가 아닌 문구(예외 메시지, 그냥 문구인 reason)가 들어와서 기본값으로 끝나는 경우
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class ErrorMessageBenchmark {
+
+    private ResourceBundleMessageSource resourceBundle;
+    private ErrorMessageCatalog catalog;
+
+    @Setup
+    public void setUp() {
+        resourceBundle = new ResourceBundleMessageSource();
+        resourceBundle.setBasename("messages");
+        resourceBundle.setDefaultEncoding("UTF-8");
+
+        catalog = new ErrorMessageCatalog(event -> {
+        }, "messages", "UTF-8", "error.bad", "hello.exception", 0);
+        catalog.start();
+    }
+
+    @Benchmark
+    public String resourceBundle() {
+        return resourceBundle.getMessage("error.bad", null, "error.bad", Locale.KOREA);
+    }
+
+    @Benchmark
+    public String catalog() {
+        return catalog.getMessage("error.bad", null, "error.bad", Locale.KOREA);
+    }
+
+    @Benchmark
+    public String resourceBundleMissing() {
+        return resourceBundle.getMessage("잘못된 입력 값", null, "잘못된 입력 값", Locale.KOREA);
+    }
+
+    @Benchmark
+    public String catalogMissing() {
+        return catalog.getMessage("잘못된 입력 값", null, "잘못된 입력 값", Locale.KOREA);
+    }
+}
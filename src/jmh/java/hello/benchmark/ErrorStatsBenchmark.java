@@ -0,0 +1,66 @@
+package hello.benchmark;
+
+import hello.exception.errorstats.ErrorStats;
+import hello.exception.errorstats.Resolution;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ErrorStats 기록 속도(여러 스레드), top / series 조회 시간
+ *
+ * 예외는 미리 만들어 둔 것들을 돌려 씀, 예외 생성 비용이 아니라 집계 비용만 보려고
+ * routes 는 경로 종류 수, max-routes(256) 보다 크면 넘친 경로가 OTHER 로 모이는 것까지 같이 봄
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ErrorStatsBenchmark {
+
+    @Param({"16", "10000"})
+    private int routes;
+
+    private ErrorStats errorStats;
+    private Exception[] exceptions;
+    private String[] routeNames;
+
+    @Setup
+    public void setUp() {
+        errorStats = new ErrorStats(true, 2048, 256, 5);
+        exceptions = new Exception[]{
+                new IllegalArgumentException("잘못된 입력 값"),
+                new RuntimeException("잘못된 사용자"),
+                new IllegalStateException("상태 오류"),
+                new UnsupportedOperationException("지원 안함")};
+        routeNames = new String[routes];
+        for (int i = 0; i < routes; i++) {
+            routeNames[i] = "/api/route" + i + "/{id}";
+        }
+        //조회용으로 한번 채워둠
+        for (int i = 0; i < 100_000; i++) {
+            errorStats.record(exceptions[i % exceptions.length], routeNames[i % routes], 400 + i % 2 * 100);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void record() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        errorStats.record(exceptions[random.nextInt(exceptions.length)], routeNames[random.nextInt(routes)], 500);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public List<Map<String, Object>> topByRouteLastHour() {
+        return errorStats.top(Resolution.MINUTE, 60, ErrorStats.Dimension.ROUTE, 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public Map<String, Object> seriesLastMinute() {
+        return errorStats.timeSeries(Resolution.SECOND, 60, null, null, 500);
+    }
+}
@@ -0,0 +1,90 @@
+package hello.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.api.ApiExceptionV3Controller;
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.errorstats.ErrorStats;
+import hello.exception.exception.UserException;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.problem.ProblemRegistry;
+import hello.exception.problem.ProblemWriter;
+import hello.exception.resolver.DispatchTableHandlerExceptionResolver;
+import hello.exception.resolver.MyHandlerExceptionResolver;
+import hello.exception.resolver.UserHandlerExceptionResolver;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.HandlerExceptionResolverComposite;
+import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebConfig 와 같은 순서의 리졸버 체인을 앞에서부터 다 물어보는 것(HandlerExceptionResolverComposite)과
+ * DispatchTableHandlerExceptionResolver 로 처리할 리졸버로 바로 가는 것 비교
+ *
+ * runtimeException 은 아무도 처리 안 하는 예외라 체인을 끝까지 도는 최악의 경우
+ * 예외 객체는 미리 만들어두고 재사용, 여기서는 리졸버 선택 비용만 본다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExceptionResolverDispatchBenchmark {
+
+    @Param({"userException", "runtimeException"})
+    public String exception;
+
+    private HandlerExceptionResolver chain;
+    private DispatchTableHandlerExceptionResolver dispatchTable;
+    private HandlerMethod handler;
+    private Exception ex;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() throws Exception {
+        ExceptionHandlerExceptionResolver exceptionHandlerResolver = new ExceptionHandlerExceptionResolver();
+        exceptionHandlerResolver.afterPropertiesSet();
+
+        List<HandlerExceptionResolver> resolvers = List.of(
+                exceptionHandlerResolver,
+                new ResponseStatusExceptionResolver(),
+                new DefaultHandlerExceptionResolver(),
+                new MyHandlerExceptionResolver(new ErrorLog(true, 60, 10, 5, 10_000)),
+                new UserHandlerExceptionResolver(new ProblemWriter(new ObjectMapper(), new ProblemRegistry(new StaticMessageSource(), "/problems/")), new AcceptHeaderNegotiator()));
+
+        HandlerExceptionResolverComposite composite = new HandlerExceptionResolverComposite();
+        composite.setExceptionResolvers(resolvers);
+        chain = composite;
+        dispatchTable = new DispatchTableHandlerExceptionResolver(resolvers, new ErrorStats(false, 2048, 256, 5));
+        //애플리케이션처럼 뜰 때 컨트롤러별 후보 목록을 만들어 둠
+        dispatchTable.initialize(List.of(ApiExceptionV3Controller.class));
+
+        //getMember 를 실제로 호출하지는 않음, 핸들러 타입만 필요
+        ApiExceptionV3Controller controller = new ApiExceptionV3Controller(null, null);
+        handler = new HandlerMethod(controller, ApiExceptionV3Controller.class.getMethod("getMember", String.class));
+
+        ex = "userException".equals(exception) ? new UserException("사용자 오류") : new RuntimeException("잘못된 사용자");
+
+        request = new MockHttpServletRequest("GET", "/api3/members/bad");
+        request.addHeader("Accept", "text/html");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public ModelAndView chain() {
+        return chain.resolveException(request, response, handler, ex);
+    }
+
+    @Benchmark
+    public ModelAndView dispatchTable() {
+        return dispatchTable.resolveException(request, response, handler, ex);
+    }
+}
@@ -0,0 +1,123 @@
+package hello.benchmark;
+
+import hello.exception.ExceptionApplication;
+import hello.exception.WebServerCustomizer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 예외를 응답으로 바꾸는 방법별로 실제 서버(내장 톰캣)에 요청을 보내서 처리량, 지연 시간, 할당량 비교
+ * 서블릿 오류 페이지와 BasicErrorController 는 WAS 의 ERROR 디스패치가 필요해서 MockMvc 로는 잴 수 없음
+ *
+ * servletErrorPage          WebServerCustomizer + ErrorPageController  /error-ex
+ * servletErrorPage404       WebServerCustomizer + ErrorPageController  /error-404 (sendError)
+ * servletErrorPage500       WebServerCustomizer + ErrorPageController  /error-500 (sendError)
+ * inlineErrorPage           error.inline-rendering.enabled=true, 위 세 개와 같은 화면을 ERROR 디스패치 없이
+ * inlineErrorPage404          InlineErrorPageResolver(예외), InlineErrorPageFilter(sendError)
+ * inlineErrorPage500          servletErrorPage* 와 짝으로 보면 ERROR 디스패치 전후 비교
+ * basicErrorController      스프링 부트 기본 /error                       /error-ex
+ * handlerExceptionResolver  UserHandlerExceptionResolver                /api/members/user-ex
+ * responseStatus            @ResponseStatus(BadRequestException)       /api/response-status-ex1
+ * responseStatusException   ResponseStatusException                    /api/response-status-ex2
+ * localExceptionHandler     ApiExceptionV2Controller 의 @ExceptionHandler /api2/members/bad
+ * controllerAdvice          ExControllerAdvice                          /api3/members/bad
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class ExceptionStrategyBenchmark {
+
+    @Param({"servletErrorPage", "servletErrorPage404", "servletErrorPage500",
+            "inlineErrorPage", "inlineErrorPage404", "inlineErrorPage500", "basicErrorController", "handlerExceptionResolver", "responseStatus",
+            "responseStatusException", "localExceptionHandler", "controllerAdvice"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void start() {
+        Class<?>[] sources;
+        String path;
+        String accept = "application/json";
+        boolean inline = strategy.startsWith("inline");
+
+        switch (strategy) {
+            case "servletErrorPage":
+            case "inlineErrorPage":
+                sources = new Class<?>[]{ExceptionApplication.class, WebServerCustomizer.class};
+                path = "/error-ex";
+                accept = "text/html";
+                break;
+            case "servletErrorPage404":
+            case "inlineErrorPage404":
+                sources = new Class<?>[]{ExceptionApplication.class, WebServerCustomizer.class};
+                path = "/error-404";
+                accept = "text/html";
+                break;
+            case "servletErrorPage500":
+            case "inlineErrorPage500":
+                sources = new Class<?>[]{ExceptionApplication.class, WebServerCustomizer.class};
+                path = "/error-500";
+                accept = "text/html";
+                break;
+            case "basicErrorController":
+                sources = new Class<?>[]{ExceptionApplication.class};
+                path = "/error-ex";
+                accept = "text/html";
+                break;
+            case "handlerExceptionResolver":
+                sources = new Class<?>[]{ExceptionApplication.class};
+                path = "/api/members/user-ex";
+                break;
+            case "responseStatus":
+                sources = new Class<?>[]{ExceptionApplication.class};
+                path = "/api/response-status-ex1";
+                break;
+            case "responseStatusException":
+                sources = new Class<?>[]{ExceptionApplication.class};
+                path = "/api/response-status-ex2";
+                break;
+            case "localExceptionHandler":
+                sources = new Class<?>[]{ExceptionApplication.class};
+                path = "/api2/members/bad";
+                break;
+            case "controllerAdvice":
+                sources = new Class<?>[]{ExceptionApplication.class, BenchmarkControllerAdvice.class};
+                path = "/api3/members/bad";
+                break;
+            default:
+                throw new IllegalArgumentException(strategy);
+        }
+
+        context = new SpringApplicationBuilder(sources)
+                .properties("server.port=0", "spring.main.banner-mode=off", "error.inline-rendering.enabled=" + inline)
+                .run();
+        String port = context.getEnvironment().getProperty("local.server.port");
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept)
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int request() throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
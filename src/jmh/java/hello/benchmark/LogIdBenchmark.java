@@ -0,0 +1,30 @@
+package hello.benchmark;
+
+import hello.exception.logid.LogIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 만드는 로그 id, UUID.randomUUID() 와 LogIdGenerator 비교
+ * randomUUID 는 SecureRandom 을 같이 쓰기 때문에 스레드가 많을수록 차이가 벌어진다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class LogIdBenchmark {
+
+    private final LogIdGenerator logIdGenerator = new LogIdGenerator();
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String logIdGenerator() {
+        return logIdGenerator.nextId();
+    }
+}
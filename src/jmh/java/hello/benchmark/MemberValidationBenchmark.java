@@ -0,0 +1,103 @@
+package hello.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.member.MemberDto;
+import hello.exception.problem.ProblemRegistry;
+import hello.exception.problem.ProblemWriter;
+import hello.exception.validation.CompiledValidator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.core.MethodParameter;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Valid @RequestBody MemberDto 검증, 스프링 부트 기본(LocalValidatorFactoryBean)과 CompiledValidator 비교
+ * 요청마다 RequestResponseBodyMethodProcessor 처럼 BindingResult 를 새로 만들어서 검증
+ * invalid 는 세 필드 제약이 다 틀리는 바디, *Problem 은 errors 가 붙은 problem+json 바이트까지
+ * 할당량은 -prof gc 의 gc.alloc.rate.norm 으로 본다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class MemberValidationBenchmark {
+
+    @Param({"valid", "invalid"})
+    private String payload;
+
+    private MemberDto memberDto;
+    private LocalValidatorFactoryBean springValidator;
+    private CompiledValidator compiledValidator;
+    private ProblemWriter problemWriter;
+    private MethodParameter parameter;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        memberDto = new MemberDto();
+        if (payload.equals("valid")) {
+            memberDto.setMemberId("member-1");
+            memberDto.setName("회원1");
+        } else {
+            memberDto.setMemberId("Member 1!");
+            memberDto.setName("");
+        }
+
+        springValidator = new LocalValidatorFactoryBean();
+        springValidator.afterPropertiesSet();
+        compiledValidator = new CompiledValidator();
+
+        problemWriter = new ProblemWriter(new ObjectMapper(), new ProblemRegistry(new StaticMessageSource(), "/problems/"));
+        parameter = new MethodParameter(MemberValidationBenchmark.class.getDeclaredMethod("body", MemberDto.class), 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        springValidator.close();
+        compiledValidator.close();
+    }
+
+    @Benchmark
+    public BindingResult springValidator() {
+        return validate(springValidator);
+    }
+
+    @Benchmark
+    public BindingResult compiledValidator() {
+        return validate(compiledValidator);
+    }
+
+    @Benchmark
+    public byte[] springValidatorProblem() {
+        return problem(validate(springValidator));
+    }
+
+    @Benchmark
+    public byte[] compiledValidatorProblem() {
+        return problem(validate(compiledValidator));
+    }
+
+    private BindingResult validate(SmartValidator validator) {
+        BindingResult bindingResult = new BeanPropertyBindingResult(memberDto, "memberDto");
+        validator.validate(memberDto, bindingResult);
+        return bindingResult;
+    }
+
+    private byte[] problem(BindingResult bindingResult) {
+        if (!bindingResult.hasErrors()) {
+            return null;
+        }
+        return problemWriter.bytes(new MethodArgumentNotValidException(parameter, bindingResult), Locale.KOREA);
+    }
+
+    //MethodArgumentNotValidException 에 넣을 파라미터 자리
+    @SuppressWarnings("unused")
+    private void body(MemberDto memberDto) {
+    }
+}
@@ -0,0 +1,39 @@
+package hello.benchmark;
+
+import hello.exception.precheck.ParamFormat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.beans.TypeMismatchException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /api/default-handler-ex?data=abc 의 잘못된 숫자 파라미터 판단
+ * 바인딩 변환(TypeMismatchException 생성, 스택 트레이스 포함) 과 ParamFormat 검사 비교
+ * 리졸버 체인, /error 다시 디스패치 비용은 빠져 있어서 실제 차이는 이보다 큼
+ * 할당량은 -prof gc 의 gc.alloc.rate.norm 으로 본다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParamPrecheckBenchmark {
+
+    @Param({"abc", "12345"})
+    private String value;
+
+    private final SimpleTypeConverter typeConverter = new SimpleTypeConverter();
+
+    @Benchmark
+    public Object bindingConversion() {
+        try {
+            return typeConverter.convertIfNecessary(value, Integer.class);
+        } catch (TypeMismatchException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ParamFormat.Verdict precheck() {
+        return ParamFormat.INT.check(value);
+    }
+}
@@ -0,0 +1,79 @@
+package hello.benchmark;
+
+import hello.exception.ExceptionApplication;
+import hello.exception.reactive.ReactiveExceptionApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 API 를 서블릿(톰캣) 과 WebFlux(Netty) 로 띄워서 오류가 많은 트래픽에서 처리량, 지연 시간 비교
+ *
+ * errorPercent 는 요청 중 오류 응답 비율, 오류 요청은 400(bad, user-ex), 500(ex) 을 /api, /api2 에 골고루
+ * 나머지는 정상 조회
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class ServletVsReactiveBenchmark {
+
+    private static final String[] ERROR_PATHS = {
+            "/api/members/bad", "/api/members/user-ex", "/api2/members/bad",
+            "/api2/members/user-ex", "/api2/members/ex", "/api/response-status-ex1"
+    };
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    @Param({"10", "50", "90"})
+    public int errorPercent;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest[] requests;
+
+    @Setup(Level.Trial)
+    public void start() {
+        SpringApplicationBuilder builder = "reactive".equals(stack)
+                ? new SpringApplicationBuilder(ReactiveExceptionApplication.class).web(WebApplicationType.REACTIVE)
+                : new SpringApplicationBuilder(ExceptionApplication.class);
+        context = builder.properties("server.port=0", "spring.main.banner-mode=off").run();
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        //100개 중 errorPercent 개가 오류 요청
+        requests = new HttpRequest[100];
+        for (int i = 0; i < requests.length; i++) {
+            String path = i < errorPercent ? ERROR_PATHS[i % ERROR_PATHS.length] : "/api2/members/spring";
+            requests[i] = HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Benchmark
+    public int request(Cursor cursor) throws Exception {
+        HttpRequest request = requests[cursor.next++ % requests.length];
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,193 @@
+package hello.benchmark;
+
+import hello.exception.ExceptionApplication;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 뜨는 시간, 프로필별로 JVM 을 매번 새로 띄워서 (같은 JVM 에서 다시 띄우면 클래스 로딩, JIT 가 이미 돼 있어서 의미 없음)
+ * - first-request: 프로세스 시작 -> 첫 정상 응답 (/api2/members/spring, 200)
+ * - first-error:   프로세스 시작 -> 첫 오류 응답 (/api2/members/bad, 400 problem+json, @ExceptionHandler 길)
+ * 둘은 따로 띄운 프로세스에서 잼, 첫 요청 전에는 포트가 열렸는지만 소켓으로 보고 HTTP 요청은 안 보냄
+ *
+ * ./gradlew startupBenchmark -PfastStartup (-PstartupProfiles=default,fast-startup -PstartupRounds=5 -PstartupMaxFirstRequestMs=...)
+ * -PfastStartup 은 컴포넌트 스캔 색인을 넣고 빌드, 빠르게 뜨는 배포 빌드와 같게
+ * 또는 jmh 런타임 클래스패스로
+ * java hello.benchmark.StartupBenchmark [--profiles=default,fast-startup] [--rounds=5] [--check-profile=fast-startup]
+ *      [--max-first-request-ms=N] [--max-first-error-ms=N] [--results=<tsv 파일>]
+ *
+ * 출력: 프로필, 측정별 중앙값/최소/최대(ms), --results 에는 한 번 잴 때마다 한 줄
+ * --check-profile 의 중앙값이 목표를 넘으면 종료 코드 1 (CI 에서 실패)
+ * 기계마다 절대값이 달라서 목표는 CI 기계에서 default 와 같이 돌려 보고 정함
+ * 띄운 서버 로그는 --results 옆 startup-<프로필>.log
+ */
+public class StartupBenchmark {
+
+    private static final String FIRST_REQUEST = "first-request";
+    private static final String FIRST_ERROR = "first-error";
+
+    private static final Map<String, String> PATHS = Map.of(
+            FIRST_REQUEST, "/api2/members/spring",
+            FIRST_ERROR, "/api2/members/bad");
+    private static final Map<String, Integer> EXPECTED_STATUS = Map.of(
+            FIRST_REQUEST, 200,
+            FIRST_ERROR, 400);
+
+    private static final long START_TIMEOUT_MILLIS = 60_000;
+
+    public static void main(String[] args) throws Exception {
+        List<String> profiles = List.of("default", "fast-startup");
+        int rounds = 5;
+        String checkProfile = null;
+        long maxFirstRequestMillis = Long.MAX_VALUE;
+        long maxFirstErrorMillis = Long.MAX_VALUE;
+        Path results = Paths.get("build/results/startup/results.tsv");
+        for (String arg : args) {
+            if (arg.startsWith("--profiles=")) {
+                profiles = Arrays.asList(arg.substring("--profiles=".length()).split(","));
+            } else if (arg.startsWith("--rounds=")) {
+                rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+            } else if (arg.startsWith("--check-profile=")) {
+                checkProfile = arg.substring("--check-profile=".length());
+            } else if (arg.startsWith("--max-first-request-ms=")) {
+                maxFirstRequestMillis = Long.parseLong(arg.substring("--max-first-request-ms=".length()));
+            } else if (arg.startsWith("--max-first-error-ms=")) {
+                maxFirstErrorMillis = Long.parseLong(arg.substring("--max-first-error-ms=".length()));
+            } else if (arg.startsWith("--results=")) {
+                results = Paths.get(arg.substring("--results=".length()));
+            } else {
+                throw new IllegalArgumentException("모르는 옵션: " + arg);
+            }
+        }
+        Files.createDirectories(results.toAbsolutePath().getParent());
+
+        //프로필 -> 측정 -> 반복마다 ms
+        Map<String, Map<String, List<Long>>> measured = new LinkedHashMap<>();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(results))) {
+            out.println("profile\tmeasure\tround\tmillis");
+            //프로필을 번갈아 띄워서 기계 상태(디스크 캐시 등) 차이가 한쪽에만 몰리지 않게
+            for (int round = 1; round <= rounds; round++) {
+                for (String profile : profiles) {
+                    for (String measure : List.of(FIRST_REQUEST, FIRST_ERROR)) {
+                        Path serverLog = results.toAbsolutePath().getParent().resolve("startup-" + profile + ".log");
+                        long millis = measure(profile, measure, serverLog);
+                        measured.computeIfAbsent(profile, key -> new LinkedHashMap<>())
+                                .computeIfAbsent(measure, key -> new ArrayList<>())
+                                .add(millis);
+                        out.println(profile + "\t" + measure + "\t" + round + "\t" + millis);
+                        System.out.println("round " + round + " " + profile + " " + measure + " " + millis + "ms");
+                    }
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println("profile\tmeasure\tmedian\tmin\tmax (ms)");
+        boolean failed = false;
+        for (Map.Entry<String, Map<String, List<Long>>> byProfile : measured.entrySet()) {
+            for (Map.Entry<String, List<Long>> byMeasure : byProfile.getValue().entrySet()) {
+                List<Long> millis = new ArrayList<>(byMeasure.getValue());
+                Collections.sort(millis);
+                long median = millis.get(millis.size() / 2);
+                System.out.println(byProfile.getKey() + "\t" + byMeasure.getKey() + "\t" + median
+                        + "\t" + millis.get(0) + "\t" + millis.get(millis.size() - 1));
+
+                if (byProfile.getKey().equals(checkProfile)) {
+                    long max = byMeasure.getKey().equals(FIRST_REQUEST) ? maxFirstRequestMillis : maxFirstErrorMillis;
+                    if (median > max) {
+                        System.out.println("FAIL " + checkProfile + " " + byMeasure.getKey() + " median " + median + "ms > " + max + "ms");
+                        failed = true;
+                    }
+                }
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static long measure(String profile, String measure, Path serverLog) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                ExceptionApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.main.banner-mode=off"));
+        if (!profile.equals("default")) {
+            command.add("--spring.profiles.active=" + profile);
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + PATHS.get(measure)))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        long start = System.nanoTime();
+        Process server = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(serverLog.toFile()))
+                .start();
+        try {
+            awaitPort(server, port, start);
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            if (response.statusCode() != EXPECTED_STATUS.get(measure)) {
+                throw new IllegalStateException(profile + " " + measure + " 상태 코드 " + response.statusCode() + ", " + response.body());
+            }
+            return millis;
+        } finally {
+            server.destroy();
+            if (!server.waitFor(10, TimeUnit.SECONDS)) {
+                server.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    //HTTP 요청은 안 보내고 연결만, 첫 요청이 정말 첫 요청이 되게
+    private static void awaitPort(Process server, int port, long start) throws InterruptedException {
+        while (true) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("서버가 뜨다가 종료됨, exit=" + server.exitValue() + " (서버 로그 확인)");
+            }
+            if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) > START_TIMEOUT_MILLIS) {
+                throw new IllegalStateException("서버가 " + START_TIMEOUT_MILLIS + "ms 안에 안 뜸");
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 100);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
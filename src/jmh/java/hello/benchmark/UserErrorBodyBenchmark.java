@@ -0,0 +1,100 @@
+package hello.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.exception.UserException;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.problem.ProblemRegistry;
+import hello.exception.problem.ProblemWriter;
+import hello.exception.resolver.UserHandlerExceptionResolver;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserHandlerExceptionResolver 의 JSON 오류 응답 쓰기
+ * 지금의 ProblemWriter(Problem 전용 ObjectWriter -> 응답 출력 스트림에 바로) 와 예전 방식(HashMap -> writeValueAsString -> writer) 비교
+ * 할당량은 -prof gc 의 gc.alloc.rate.norm 으로 본다
+ *
+ * 응답은 BulkResponse, MockHttpServletResponse 의 getOutputStream 은 write(byte[]) 도 한 바이트씩 쓰고 flush 해서
+ * 바이트로 쓰는 ProblemWriter 만 수 us 손해를 봄 (톰캣 CoyoteOutputStream 은 배열째 씀), getWriter 는 원래 배열째
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserErrorBodyBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserException ex = new UserException("사용자 오류");
+
+    private UserHandlerExceptionResolver resolver;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        ProblemWriter problemWriter = new ProblemWriter(objectMapper, new ProblemRegistry(new StaticMessageSource(), "/problems/"));
+        resolver = new UserHandlerExceptionResolver(problemWriter, new AcceptHeaderNegotiator());
+        request = new MockHttpServletRequest("GET", "/api/members/user-ex");
+        request.addHeader("Accept", "application/json");
+    }
+
+    @Benchmark
+    public MockHttpServletResponse problemWriter() {
+        MockHttpServletResponse response = new BulkResponse();
+        resolver.resolveException(request, response, null, ex);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse mapToString() throws Exception {
+        MockHttpServletResponse response = new BulkResponse();
+        response.setStatus(400);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("utf-8");
+
+        Map<String, Object> errorResult = new HashMap<>();
+        errorResult.put("ex", ex.getClass());
+        errorResult.put("message", ex.getMessage());
+        String result = objectMapper.writeValueAsString(errorResult);
+        response.getWriter().write(result);
+        return response;
+    }
+
+    //출력 스트림을 배열째 쓰는 응답
+    static class BulkResponse extends MockHttpServletResponse {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                body.write(b, off, len);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+}
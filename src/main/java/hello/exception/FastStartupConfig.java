@@ -0,0 +1,31 @@
+package hello.exception;
+
+import hello.exception.journal.ErrorJournal;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.web.servlet.error.ErrorViewResolver;
+import org.springframework.boot.web.servlet.error.ErrorController;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * fast-startup 프로필 (application-fast-startup.properties), 오류가 몰릴 때 새로 뜨는 파드가 빨리 요청을 받게
+ *
+ * 프로필에서 spring.main.lazy-initialization=true 라 빈은 처음 쓰일 때 만들어짐
+ * 그런데 첫 오류 응답 길(/error 의 ProblemErrorController, 오류 화면 ErrorViewResolver)까지 미루면
+ * 첫 오류 요청이 그 비용을 다 냄, 그래서 이건 뜰 때 만든다
+ * ErrorJournal 은 디렉터리 만들기, 세그먼트 열기가 실패하면 뜰 때 바로 알아야 해서
+ *
+ * messageSource(ErrorMessageCatalog) 는 컨텍스트가 원래 뜰 때 꺼내서 지연 초기화와 상관없이 검증이 먼저 돎
+ *
+ * 컴포넌트 스캔 색인(spring-context-indexer)은 프로필로 못 켜서 빌드 옵션, ./gradlew bootJar -PfastStartup
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerErrorPath() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ErrorController.class, ErrorViewResolver.class, ErrorJournal.class);
+    }
+}
@@ -1,19 +1,63 @@
 package hello.exception;
 
+import hello.exception.accesslog.AccessLog;
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.errorstats.ErrorStats;
+import hello.exception.async.AsyncVariantHandlerMapping;
+import hello.exception.filter.CircuitBreakerFilter;
+import hello.exception.filter.InlineErrorPageFilter;
+import hello.exception.filter.InternalEndpointFilter;
 import hello.exception.filter.LogFilter;
+import hello.exception.filter.RouteCircuitBreakers;
 import hello.exception.interceptor.LogInterceptor;
+import hello.exception.interceptor.ParameterPrecheckInterceptor;
+import hello.exception.journal.ErrorJournal;
+import hello.exception.logid.LogIdGenerator;
+import hello.exception.metrics.RequestMetrics;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.precheck.ParameterPrecheck;
+import hello.exception.problem.ProblemWriter;
+import hello.exception.resolver.DispatchTableHandlerExceptionResolver;
+import hello.exception.resolver.ExceptionHandlerIndex;
+import hello.exception.resolver.IndexedExceptionHandlerExceptionResolver;
+import hello.exception.resolver.InlineErrorPageResolver;
 import hello.exception.resolver.MyHandlerExceptionResolver;
 import hello.exception.resolver.UserHandlerExceptionResolver;
+import hello.exception.servlet.ErrorPageRenderer;
+import hello.exception.servlet.ProblemErrorController;
+import hello.exception.validation.CompiledValidator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.servlet.error.ErrorViewResolver;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.validation.Validator;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.servlet.resource.TransformedResource;
 
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 ///hello 정상 요청
 //WAS(/hello, dispatchType=REQUEST) -> 필터 -> 서블릿 -> 인터셉터 -> 컨트롤러 -> View
@@ -30,23 +74,148 @@ import java.util.List;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    //오류 응답 바디(application/problem+json), 직접 만든 리졸버도 같이 쓰게
+    private final ProblemWriter problemWriter;
+    private final AcceptHeaderNegotiator acceptHeaderNegotiator;
+    private final ErrorPageRenderer errorPageRenderer;
+    private final LogIdGenerator logIdGenerator;
+    private final AccessLog accessLog;
+    private final RequestMetrics requestMetrics;
+    private final ErrorLog errorLog;
+    private final ErrorStats errorStats;
+    private final ErrorJournal errorJournal;
+    private final ParameterPrecheck parameterPrecheck;
+    private final CompiledValidator compiledValidator;
+
+    //true 면 오류 화면을 ERROR 디스패치 없이 원래 요청 안에서 바로 그림
+    private final boolean inlineErrorRendering;
+
+    //members.async.enabled 일 때 CompletableFuture 응답 대기 시간
+    private final long asyncTimeoutMillis;
+
+    //extendHandlerExceptionResolvers 에서 만든, 뜬 다음 고정 테이블을 채움
+    private DispatchTableHandlerExceptionResolver dispatchTableResolver;
+
+    public WebConfig(ProblemWriter problemWriter, AcceptHeaderNegotiator acceptHeaderNegotiator, ErrorPageRenderer errorPageRenderer,
+                     LogIdGenerator logIdGenerator, AccessLog accessLog, RequestMetrics requestMetrics, ErrorLog errorLog,
+                     ErrorStats errorStats, ErrorJournal errorJournal, ParameterPrecheck parameterPrecheck,
+                     CompiledValidator compiledValidator,
+                     @Value("${error.inline-rendering.enabled:false}") boolean inlineErrorRendering,
+                     @Value("${members.async.timeout-ms:30000}") long asyncTimeoutMillis) {
+        this.problemWriter = problemWriter;
+        this.acceptHeaderNegotiator = acceptHeaderNegotiator;
+        this.errorPageRenderer = errorPageRenderer;
+        this.logIdGenerator = logIdGenerator;
+        this.accessLog = accessLog;
+        this.requestMetrics = requestMetrics;
+        this.errorLog = errorLog;
+        this.errorStats = errorStats;
+        this.errorJournal = errorJournal;
+        this.parameterPrecheck = parameterPrecheck;
+        this.compiledValidator = compiledValidator;
+        this.inlineErrorRendering = inlineErrorRendering;
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+    }
+
+    //@Valid 검증을 스프링 부트 기본(LocalValidatorFactoryBean) 대신 메시지, 메시지 코드를 클래스별로 기억해두는 걸로
+    @Override
+    public Validator getValidator() {
+        return compiledValidator;
+    }
+
+    //CompletableFuture 반환 메서드가 이 시간 안에 안 끝나면 AsyncRequestTimeoutException -> 503
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMillis);
+    }
+
+    //스프링 부트 기본 RequestMappingHandlerMapping 대신, @AsyncVariant 메서드에 매핑 조건을 붙여주는
+    //설정이 꺼져 있으면 @AsyncVariant 메서드는 매칭이 안돼서 지금처럼 동기 메서드만
+    //exception-handler.index.enabled 면 ExceptionHandlerExceptionResolver 도 빌드할 때 만든 색인을 쓰는 걸로
+    //WebMvc 설정보다 먼저 필요해서 이 설정 클래스를 만들지 않게 static
+    @Bean
+    public static WebMvcRegistrations webMvcRegistrations(@Value("${members.async.enabled:false}") boolean asyncMembers,
+                                                          @Value("${exception-handler.index.enabled:false}") boolean exceptionHandlerIndex) {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return new AsyncVariantHandlerMapping(asyncMembers);
+            }
+
+            @Override
+            public ExceptionHandlerExceptionResolver getExceptionHandlerExceptionResolver() {
+                if (!exceptionHandlerIndex) {
+                    return null;
+                }
+                return new IndexedExceptionHandlerExceptionResolver(ExceptionHandlerIndex.load(WebConfig.class.getClassLoader()));
+            }
+        };
+    }
+
+    //static/404.html 은 jar 안의 클래스패스 리소스라 sendfile 같은 zero-copy 는 안됨
+    //대신 처음 한번 읽어서 메모리(TransformedResource)에 올려두고 리소스 체인 캐시에서 바로 꺼내 쓰게
+    //매 요청마다 jar 에서 리소스 찾고 다시 읽지 않는
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/404.html")
+                .addResourceLocations("classpath:/static/")
+                .resourceChain(true)
+                .addTransformer((request, resource, transformerChain) ->
+                        new TransformedResource(resource, FileCopyUtils.copyToByteArray(resource.getInputStream())));
+    }
+
     //인터셉터는 필터처럼 dispatchertype세팅할 수 없음, 대신 excludePathPatterns잇음
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new LogInterceptor())
+        registry.addInterceptor(new LogInterceptor(logIdGenerator, accessLog, requestMetrics, errorLog, errorJournal))
                 .order(1)
                 .addPathPatterns("/**")
                 //오류 페이지 다시 요청될 때 오류 페이지 경로를 제외 경로에 넣어줌으로써
                 //인터셉터에 적용되지 않게
                 .excludePathPatterns("/css/**", "*.ico", "/error", "/error-page/**");//오류 페이지 경로
+
+        //바인딩 전에 숫자 파라미터 형식 검사, 틀리면 예외 없이 바로 400
+        registry.addInterceptor(new ParameterPrecheckInterceptor(parameterPrecheck, problemWriter))
+                .order(2)
+                .addPathPatterns("/**")
+                .excludePathPatterns("/css/**", "*.ico", "/error", "/error-page/**");
     }
 
     //configureHandlerExceptionResolvers(..) 를 사용하면 스프링이 기본으로 등록하는
     //ExceptionResolver 가 제거되므로 주의, extendHandlerExceptionResolvers 를 사용
     @Override
     public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
-        resolvers.add(new MyHandlerExceptionResolver());
-        resolvers.add(new UserHandlerExceptionResolver());
+        resolvers.add(new MyHandlerExceptionResolver(errorLog));
+        resolvers.add(new UserHandlerExceptionResolver(problemWriter, acceptHeaderNegotiator));
+        //아무도 처리 못한 RuntimeException 은 WAS 로 보내지 않고 여기서 500 오류 화면
+        if (inlineErrorRendering) {
+            resolvers.add(new InlineErrorPageResolver(errorPageRenderer));
+        }
+
+        //스프링 기본 리졸버 + 직접 만든 리졸버를 하나로 묶어서
+        //예외 타입별로 어느 리졸버부터 물어볼지 기억해두고 바로 찾아가게
+        List<HandlerExceptionResolver> chain = new ArrayList<>(resolvers);
+        resolvers.clear();
+        dispatchTableResolver = new DispatchTableHandlerExceptionResolver(chain, errorStats);
+        resolvers.add(dispatchTableResolver);
+    }
+
+    //컨트롤러가 다 등록된 뒤에 (컨트롤러 타입 x 알려진 예외 타입) 디스패치 테이블을 한번에 만든다
+    @EventListener
+    public void buildDispatchTable(ContextRefreshedEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        //지연 초기화(fast-startup)여도 첫 오류 요청이 아니라 여기서 리졸버를 만들게
+        context.getBean("handlerExceptionResolver");
+        if (dispatchTableResolver == null) {
+            return;
+        }
+        Set<Class<?>> handlerTypes = new LinkedHashSet<>();
+        for (RequestMappingHandlerMapping mapping : context.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                handlerTypes.add(handlerMethod.getBeanType());
+            }
+        }
+        dispatchTableResolver.initialize(handlerTypes);
     }
 
     //인터셉터를 쓰면 필터는 적용되지 않게
@@ -54,7 +223,7 @@ public class WebConfig implements WebMvcConfigurer {
     public FilterRegistrationBean logFilter() {
         FilterRegistrationBean<Filter> filterRegistrationBean = new FilterRegistrationBean<>();
         //만든 LogFilter등록
-        filterRegistrationBean.setFilter(new LogFilter());
+        filterRegistrationBean.setFilter(new LogFilter(logIdGenerator, accessLog));
         filterRegistrationBean.setOrder(1);
         filterRegistrationBean.addUrlPatterns("/*");
 
@@ -65,4 +234,51 @@ public class WebConfig implements WebMvcConfigurer {
 
         return filterRegistrationBean;
     }
+
+    //sendError(404), sendError(500) 를 WAS 오류 페이지 대신 원래 요청 안에서 그리는 필터
+    //ERROR 디스패치는 그리기 실패했을 때만
+    @Bean
+    @ConditionalOnProperty(name = "error.inline-rendering.enabled", havingValue = "true")
+    public FilterRegistrationBean<Filter> inlineErrorPageFilter() {
+        FilterRegistrationBean<Filter> filterRegistrationBean = new FilterRegistrationBean<>();
+        filterRegistrationBean.setFilter(new InlineErrorPageFilter(errorPageRenderer));
+        filterRegistrationBean.setOrder(2);
+        filterRegistrationBean.addUrlPatterns("/*");
+        filterRegistrationBean.setDispatcherTypes(DispatcherType.REQUEST);
+        return filterRegistrationBean;
+    }
+
+    //운영자용 /internal/** 은 허용한 주소에서만, 꺼져 있으면 컨트롤러가 없어서 필터도 필요 없음
+    @Bean
+    @ConditionalOnProperty(name = "internal.endpoints.enabled", havingValue = "true")
+    public FilterRegistrationBean<Filter> internalEndpointFilter(
+            @Value("${internal.endpoints.allowed-addresses:127.0.0.1,::1}") List<String> allowedAddresses) {
+        FilterRegistrationBean<Filter> filterRegistrationBean = new FilterRegistrationBean<>();
+        filterRegistrationBean.setFilter(new InternalEndpointFilter(allowedAddresses));
+        filterRegistrationBean.setOrder(-1);
+        filterRegistrationBean.addUrlPatterns("/internal/*");
+        filterRegistrationBean.setDispatcherTypes(DispatcherType.REQUEST);
+        return filterRegistrationBean;
+    }
+
+    //경로별 5xx 비율이 높으면 DispatcherServlet 에 들어가기 전에 바로 503, 로그 필터보다 앞
+    @Bean
+    @ConditionalOnProperty(name = "circuit-breaker.enabled", havingValue = "true")
+    public FilterRegistrationBean<Filter> circuitBreakerFilter(RouteCircuitBreakers routeCircuitBreakers,
+                                                               @Value("${circuit-breaker.open-millis:5000}") long openMillis) {
+        FilterRegistrationBean<Filter> filterRegistrationBean = new FilterRegistrationBean<>();
+        filterRegistrationBean.setFilter(new CircuitBreakerFilter(routeCircuitBreakers, problemWriter, openMillis));
+        filterRegistrationBean.setOrder(0);
+        filterRegistrationBean.addUrlPatterns("/*");
+        filterRegistrationBean.setDispatcherTypes(DispatcherType.REQUEST);
+        return filterRegistrationBean;
+    }
+
+    //스프링 부트 기본 /error 의 json 응답도 problem+json 으로, 이 빈이 있으면 BasicErrorController 는 안 만들어짐
+    @Bean
+    public ProblemErrorController problemErrorController(ErrorAttributes errorAttributes, ServerProperties serverProperties,
+                                                         ObjectProvider<ErrorViewResolver> errorViewResolvers) {
+        return new ProblemErrorController(errorAttributes, serverProperties.getError(),
+                errorViewResolvers.orderedStream().collect(Collectors.toList()), problemWriter);
+    }
 }
@@ -0,0 +1,183 @@
+package hello.exception.accesslog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.DispatcherType;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 비동기 접근 로그
+ *
+ * LogInterceptor, LogFilter 는 요청마다 log.info 를 두세 줄씩 동기로 찍는다, 로그 I/O 가 p99 에 그대로 보인다
+ * access-log.enabled=true 면 요청 스레드는 고정 모양 레코드를 링 버퍼에 넣기만 하고
+ * 백그라운드 스레드 하나가 모아서(batch) 파일에 쓴다
+ *
+ * access-log.file            로그 파일 경로
+ * access-log.capacity        링 버퍼 크기 (2의 거듭제곱으로 올림)
+ * access-log.batch-size      한번에 꺼내서 쓰는 최대 개수
+ * access-log.overflow-policy DROP / BLOCK / SAMPLE
+ * access-log.sample-rate     SAMPLE 일 때 N 개 중 하나
+ */
+@Slf4j
+@Component
+public class AccessLog {
+
+    private final boolean enabled;
+    private final Path file;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final AccessLogRingBuffer buffer;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AccessLog(@Value("${access-log.enabled:false}") boolean enabled,
+                     @Value("${access-log.file:logs/access.log}") String file,
+                     @Value("${access-log.capacity:8192}") int capacity,
+                     @Value("${access-log.batch-size:256}") int batchSize,
+                     @Value("${access-log.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                     @Value("${access-log.sample-rate:10}") int sampleRate) {
+        this.enabled = enabled;
+        this.file = Paths.get(file);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.buffer = new AccessLogRingBuffer(capacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 요청 스레드에서 호출, 파일 I/O 없음
+     */
+    public void append(String logId, DispatcherType dispatcherType, String requestURI, Object handler, int status, long durationNanos) {
+        if (!enabled) {
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.SAMPLE && buffer.size() >= buffer.capacity() / 4 * 3
+                && sampleCounter.incrementAndGet() % sampleRate != 0) {
+            sampledOut.increment();
+            return;
+        }
+
+        AccessLogRecord record = new AccessLogRecord(System.currentTimeMillis(), logId, dispatcherType, requestURI,
+                handler == null ? null : handler.toString(), status, durationNanos);
+
+        if (buffer.offer(record)) {
+            enqueued.increment();
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            //writer 가 멈췄으면 기다려도 소용없으니 버림
+            while (running) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                if (buffer.offer(record)) {
+                    enqueued.increment();
+                    return;
+                }
+            }
+        }
+        dropped.increment();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("overflowPolicy", overflowPolicy);
+        stats.put("capacity", buffer.capacity());
+        stats.put("queueDepth", buffer.size());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("sampledOut", sampledOut.sum());
+        return stats;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("access log started [{}][{}]", file, overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void writeLoop() {
+        StringBuilder batch = new StringBuilder(batchSize * 128);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+            while (running) {
+                if (drain(batch, writer) == 0) {
+                    //쓸게 없으면 잠깐 쉼, 바쁘게 돌지 않게
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+            //종료할 때 남은 것까지
+            while (drain(batch, writer) > 0) {
+            }
+        } catch (IOException e) {
+            running = false;
+            log.error("access log writer ex", e);
+        }
+    }
+
+    private int drain(StringBuilder batch, Writer writer) throws IOException {
+        int count = 0;
+        AccessLogRecord record;
+        while (count < batchSize && (record = buffer.poll()) != null) {
+            record.appendTo(batch);
+            count++;
+        }
+        if (count > 0) {
+            writer.append(batch);
+            writer.flush();
+            batch.setLength(0);
+            written.add(count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,41 @@
+package hello.exception.accesslog;
+
+import javax.servlet.DispatcherType;
+
+/**
+ * 접근 로그 한 줄, 요청 스레드가 만들어서 큐에 넣고 백그라운드 스레드가 파일로 쓴다
+ * 필드 모양이 고정이라 쓰는 쪽에서 포맷 문자열을 해석할 필요가 없다
+ */
+public final class AccessLogRecord {
+
+    private final long timestamp;
+    private final String logId;
+    private final DispatcherType dispatcherType;
+    private final String requestURI;
+    private final String handler;
+    private final int status;
+    private final long durationNanos;
+
+    public AccessLogRecord(long timestamp, String logId, DispatcherType dispatcherType, String requestURI,
+                           String handler, int status, long durationNanos) {
+        this.timestamp = timestamp;
+        this.logId = logId;
+        this.dispatcherType = dispatcherType;
+        this.requestURI = requestURI;
+        this.handler = handler;
+        this.status = status;
+        this.durationNanos = durationNanos;
+    }
+
+    //timestamp  logId  dispatcherType  status  duration(us)  uri  handler
+    void appendTo(StringBuilder sb) {
+        sb.append(timestamp).append('\t')
+                .append(logId).append('\t')
+                .append(dispatcherType).append('\t')
+                .append(status).append('\t')
+                .append(durationNanos / 1_000).append('\t')
+                .append(requestURI).append('\t')
+                .append(handler == null ? "-" : handler)
+                .append('\n');
+    }
+}
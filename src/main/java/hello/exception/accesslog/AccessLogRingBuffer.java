@@ -0,0 +1,78 @@
+package hello.exception.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 락 없는 고정 크기 링 버퍼, 여러 요청 스레드가 넣고(offer) 백그라운드 스레드 하나가 꺼낸다(poll)
+ *
+ * 칸마다 순번(sequence)을 두고 순번을 보고 그 칸에 쓸 차례인지, 읽을 차례인지 판단
+ * 넣는 쪽은 tail 을 CAS 로 한 칸 차지하고 값을 쓴 다음 순번을 올려서 공개
+ * 꺼내는 쪽은 하나뿐이라 head 는 CAS 없이
+ * 가득 차면 offer 는 기다리지 않고 false
+ */
+final class AccessLogRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final AccessLogRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    //poll 은 writer 스레드만, size() 는 다른 스레드에서도 읽으니 volatile
+    private volatile long head;
+
+    AccessLogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AccessLogRecord[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(AccessLogRecord record) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = record;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                //한 바퀴 돌아서 아직 안 읽은 칸, 가득 참
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    AccessLogRecord poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        AccessLogRecord record = slots[index];
+        slots[index] = null;
+        sequences.lazySet(index, position + capacity);
+        head = position + 1;
+        return record;
+    }
+
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
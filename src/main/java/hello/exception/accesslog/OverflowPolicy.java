@@ -0,0 +1,16 @@
+package hello.exception.accesslog;
+
+/**
+ * 큐가 가득 찼을 때
+ */
+public enum OverflowPolicy {
+
+    //버리고 dropped 카운터만 올림, 요청 스레드는 절대 기다리지 않음
+    DROP,
+
+    //자리가 날 때까지 요청 스레드가 기다림, 로그를 잃으면 안될 때
+    BLOCK,
+
+    //큐가 3/4 이상 차면 N 개 중 하나만 넣고, 그래도 가득 차면 버림
+    SAMPLE
+}
@@ -1,25 +1,45 @@
 package hello.exception.api;
 
-import hello.exception.exception.BadRequestException;
-import hello.exception.exception.UserException;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import hello.exception.async.AsyncVariant;
+import hello.exception.async.OffloadExecutor;
+import hello.exception.member.Member;
+import hello.exception.member.MemberDto;
+import hello.exception.member.MemberLookup;
+import hello.exception.exception.BusinessExceptions;
+import hello.exception.problem.ProblemWriter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
 /** api 예외 */
 @Slf4j
 /** json으로 화면에 출력하기 위해 */
 @RestController
+@RequiredArgsConstructor
 public class ApiExceptionController {
 
+    private final BusinessExceptions businessExceptions;
+    private final MemberLookup memberLookup;
+    private final OffloadExecutor offloadExecutor;
+    private final ProblemWriter problemWriter;
+
     @GetMapping("/api/members/{id}")
-    public MemberDto getMember(@PathVariable("id") String id) {
+    public Member getMember(@PathVariable("id") String id) {
 
         /**
          * API를 요청했는데, 정상의 경우 API로 JSON 형식으로 데이터가 정상 반환된다.
@@ -30,9 +50,6 @@ public class ApiExceptionController {
          * RuntimeException 예외 발생하면서 ErrorPageController 가 동작함
          * */
         //url에 ex있으면 예외가 터진거
-        if (id.equals("ex")) {
-            throw new RuntimeException("잘못된 사용자");
-        }
 
         /**
          * 클라이언튜 에러 5xx
@@ -47,26 +64,44 @@ public class ApiExceptionController {
          * 예외를 해결하도록 함, 정상적으로 처리할 수 있도록 해주는
          * 대신 인터셉터 posthandle 은 여전히 호출 안되는
          * */
-        if (id.equals("bad")) {
-            throw new IllegalArgumentException("잘못된 입력 값");
-        }
 
         //직접 만들어준 예외 발생
         //서블릿컨테이너까지 user-ex 날라갔다 예외 터져서 /error 날라오고 BasicController
         //호출되고 BasicController 에서 결과 내주는
         //BasicController 가 요청온게 json 이면 같은 url 이더라도 html 응답이 아닌 json 반환
-        if (id.equals("user-ex")) {
-            throw new UserException("사용자 오류");
-        }
 
+        //ex, bad, user-ex 규칙은 ExampleMemberBackend 에, 잘못된 id 는 MemberLookup 이 기억해뒀다가 바로 다시 던짐
         //에러 없으면 화면에 출력
-        return new MemberDto(id, "hello " + id);
+        return memberLookup.findMember(id);
+    }
+
+    //members.async.enabled=true 면 같은 경로를 이 메서드가 받음
+    //요청 스레드는 바로 반납, 예외는 동기 메서드랑 같은 핸들러로 간다
+    @AsyncVariant
+    @GetMapping("/api/members/{id}")
+    public CompletableFuture<Member> getMemberAsync(@PathVariable("id") String id) {
+        return offloadExecutor.supply(() -> getMember(id));
+    }
+
+    //회원 등록 예시, 저장소가 없어서 검증 통과한 값을 그대로 돌려줌
+    //검증 실패는 아래 validationExHandle 이 바로 validation-error problem 으로 씀 (/error 로 다시 안 감)
+    @PostMapping("/api/members")
+    public Member addMember(@Valid @RequestBody MemberDto memberDto) {
+        return new Member(memberDto.getMemberId(), memberDto.getName());
+    }
+
+    //@Valid 검증 실패, 상태 코드(400)와 바디는 ProblemRegistry 의 validation-error, errors 에 필드별 메시지
+    //클라이언트 입력 오류라 스택 트레이스는 안 남김
+    @ExceptionHandler
+    public void validationExHandle(MethodArgumentNotValidException e, HttpServletResponse response, Locale locale) throws IOException {
+        log.debug("[exceptionHandle] validation errors={}", e.getErrorCount());
+        problemWriter.write(response, e, locale);
     }
 
     //스프링부트가 제공하는 ExceptionResolver
     @GetMapping("/api/response-status-ex1")
     public String responseStatusEx1() {
-        throw new BadRequestException();
+        throw businessExceptions.badRequest();
     }
 
 
@@ -93,17 +128,13 @@ public class ApiExceptionController {
      * 스프링 내부 오류를 어떻게 처리할지 수 많은 내용이 정의
      *
      * 내부에서 터진걸 HTTP 스펙에 맞는 HTTP 상태 코드로 바꿔 처리
+     *
+     * param-precheck.enabled=true(기본)면 data=abc 같은 건 ParameterPrecheckInterceptor 가 바인딩 전에 바로 400
+     * 예외가 안 생겨서 DefaultHandlerExceptionResolver 까지 안 옴, 끄면 위 설명대로
      * */
     @GetMapping("/api/default-handler-ex")
     public String defaultException(@RequestParam Integer data) {
         return "ok";
     }
 
-
-    @Data
-    @AllArgsConstructor
-    static class MemberDto {
-        private String memberId;
-        private String name;
-    }
 }
\ No newline at end of file
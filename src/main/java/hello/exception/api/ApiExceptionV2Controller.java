@@ -1,14 +1,25 @@
 package hello.exception.api;
 
+import hello.exception.async.AsyncVariant;
+import hello.exception.async.OffloadExecutor;
+import hello.exception.member.Member;
+import hello.exception.member.MemberDto;
+import hello.exception.member.MemberLookup;
+import hello.exception.errorlog.ErrorLog;
 import hello.exception.exception.UserException;
-import hello.exception.exhandler.ErrorResult;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import hello.exception.problem.ProblemWriter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @ExceptionHandler로 사용하는, 예외 처리 컨트롤러는 ExControllerAdvice에 있음
  *
@@ -45,11 +56,18 @@ import org.springframework.web.bind.annotation.*;
  * 스프링은 ExceptionHandlerExceptionResolver 를 기본으로 제공하고, 기본으로 제공하는
  * ExceptionResolver 중에 우선순위도 가장 높다. 실무에서 API 예외 처리는 대부분 이 기능을 사용
  *
+ * 응답 바디는 세 핸들러 모두 ProblemWriter 가 쓰는 application/problem+json, 다른 오류 경로와 같은 모양
  */
 @Slf4j
 @RestController
+@RequiredArgsConstructor
 public class ApiExceptionV2Controller {
 
+    private final MemberLookup memberLookup;
+    private final OffloadExecutor offloadExecutor;
+    private final ProblemWriter problemWriter;
+    private final ErrorLog errorLog;
+
     //이 컨트롤러에서 이 예외 터지면 이 메서드가 잡음
     //이 컨트롤러 안에서만 적용, 이 컨트롤러 안에서 발생한 예외만
     //그리고 메서드 로직 수행하는데 이 컨트롤러는 @RestController 니까 json 으로 반환
@@ -77,11 +95,13 @@ public class ApiExceptionV2Controller {
     //illegalExHandle() 를 실행한다. @RestController 이므로 illegalExHandle() 에도
     //@ResponseBody 가 적용된다. 따라서 HTTP 컨버터가 사용되고, 응답이 다음과 같은 JSON으로 반환된다.
     //@ResponseStatus(HttpStatus.BAD_REQUEST) 를 지정했으므로 HTTP 상태 코드 400으로 응답한다.
+    //바디는 반환값을 컨버터에 맡기지 않고 ProblemWriter 로 직접 씀
+    //{"type":"/problems/bad-request","title":"잘못된 요청","status":400,"detail":"잘못된 입력 값","code":"BAD"}
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(IllegalArgumentException.class)
-    public ErrorResult illegalExHandle(IllegalArgumentException e) {
-        log.error("[exceptionHandle] ex", e);
-        return new ErrorResult("BAD", e.getMessage());
+    public void illegalExHandle(IllegalArgumentException e, HttpServletResponse response, Locale locale) throws IOException {
+        errorLog.error(log, "[exceptionHandle] ex", e);
+        problemWriter.write(response, e, locale);
     }
 
     //@ExceptionHandler 에 예외를 지정하지 않으면 해당 메서드 파라미터 예외를 사용한다.
@@ -89,20 +109,30 @@ public class ApiExceptionV2Controller {
     //ResponseEntity 를 사용해서 HTTP 메시지 바디에 직접 응답한다. 물론 HTTP 컨버터가 사용된다.
     //ResponseEntity 를 사용하면 HTTP 응답 코드를 프로그래밍해서 동적으로 변경할 수 있다. 앞서 살펴본
     //@ResponseStatus 는 애노테이션이므로 HTTP 응답 코드를 동적으로 변경할 수 없다.
+    //여기서는 ResponseEntity 대신 상태 코드도 ProblemRegistry 의 템플릿(user-error, 400)이 정함
+    @ExceptionHandler
+    public void userExHandle(UserException e, HttpServletResponse response, Locale locale) throws IOException {
+        errorLog.error(log, "[exceptionHandle] ex", e);
+        problemWriter.write(response, e, locale);
+    }
+
+    //@Valid 검증 실패, 없으면 아래 exHandle(Exception) 이 잡아서 500 이 됨
+    //클라이언트 입력 오류라 스택 트레이스는 안 남김
+    //{"type":"/problems/validation-error",...,"code":"VALIDATION","errors":[{"field":"memberId","message":"..."}]}
     @ExceptionHandler
-    public ResponseEntity<ErrorResult> userExHandle(UserException e) {
-        log.error("[exceptionHandle] ex", e);
-        ErrorResult errorResult = new ErrorResult("USER-EX", e.getMessage());
-        return new ResponseEntity<>(errorResult, HttpStatus.BAD_REQUEST);
+    public void validationExHandle(MethodArgumentNotValidException e, HttpServletResponse response, Locale locale) throws IOException {
+        log.debug("[exceptionHandle] validation errors={}", e.getErrorCount());
+        problemWriter.write(response, e, locale);
     }
 
     //메서드 파라미터에 넣어준 예외는 자식까지 잡아줌
     //즉 위에서 해결하지 못한 경우에는 여기서 다 잡아주는
+    //응답 내용이 고정(internal-error)이라 미리 직렬화해둔 바이트를 바로 씀
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler
-    public ErrorResult exHandle(Exception e) {
-        log.error("[exceptionHandle] ex", e);
-        return new ErrorResult("EX", "내부 오류");
+    public void exHandle(Exception e, HttpServletResponse response, Locale locale) throws IOException {
+        errorLog.error(log, "[exceptionHandle] ex", e);
+        problemWriter.write(response, e, locale);
     }
 
     /**
@@ -128,31 +158,27 @@ public class ApiExceptionV2Controller {
      * 예외 생략
      * @ExceptionHandler 에 예외를 생략할 수 있다. 생략하면 메서드 파라미터의 예외가 지정된다.
      * @ExceptionHandler
-     * public ResponseEntity<ErrorResult> userExHandle(UserException e) {}
+     * public ResponseEntity<Problem> userExHandle(UserException e) {}
      *
      */
 
     @GetMapping("/api2/members/{id}")
-    public MemberDto getMember(@PathVariable("id") String id) {
-
-        if (id.equals("ex")) {
-            throw new RuntimeException("잘못된 사용자");
-        }
-        if (id.equals("bad")) {
-            throw new IllegalArgumentException("잘못된 입력 값");
-        }
-        if (id.equals("user-ex")) {
-            throw new UserException("사용자 오류");
-        }
-
-        return new MemberDto(id, "hello " + id);
+    public Member getMember(@PathVariable("id") String id) {
+        return memberLookup.findMember(id);
+    }
+
+    //members.async.enabled=true 면 같은 경로를 이 메서드가 받음
+    //요청 스레드는 바로 반납, 예외는 동기 메서드랑 같은 핸들러로 간다
+    @AsyncVariant
+    @GetMapping("/api2/members/{id}")
+    public CompletableFuture<Member> getMemberAsync(@PathVariable("id") String id) {
+        return offloadExecutor.supply(() -> getMember(id));
     }
 
-    @Data
-    @AllArgsConstructor
-    static class MemberDto {
-        private String memberId;
-        private String name;
+    //회원 등록 예시, 저장소가 없어서 검증 통과한 값을 그대로 돌려줌
+    @PostMapping("/api2/members")
+    public Member addMember(@Valid @RequestBody MemberDto memberDto) {
+        return new Member(memberDto.getMemberId(), memberDto.getName());
     }
 
 }
@@ -1,39 +1,37 @@
 package hello.exception.api;
 
-import hello.exception.exception.UserException;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import hello.exception.async.AsyncVariant;
+import hello.exception.async.OffloadExecutor;
+import hello.exception.member.Member;
+import hello.exception.member.MemberLookup;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 //대상 컨트롤러 지정이 글로벌하게 먹히는지
 @Slf4j
 @RestController
+@RequiredArgsConstructor
 public class ApiExceptionV3Controller {
 
-    @GetMapping("/api3/members/{id}")
-    public MemberDto getMember(@PathVariable("id") String id) {
-
-        if (id.equals("ex")) {
-            throw new RuntimeException("잘못된 사용자");
-        }
-        if (id.equals("bad")) {
-            throw new IllegalArgumentException("잘못된 입력 값");
-        }
-        if (id.equals("user-ex")) {
-            throw new UserException("사용자 오류");
-        }
+    private final MemberLookup memberLookup;
+    private final OffloadExecutor offloadExecutor;
 
-        return new MemberDto(id, "hello " + id);
+    @GetMapping("/api3/members/{id}")
+    public Member getMember(@PathVariable("id") String id) {
+        return memberLookup.findMember(id);
     }
 
-    @Data
-    @AllArgsConstructor
-    static class MemberDto {
-        private String memberId;
-        private String name;
+    //members.async.enabled=true 면 같은 경로를 이 메서드가 받음
+    //요청 스레드는 바로 반납, 예외는 동기 메서드랑 같은 핸들러로 간다
+    @AsyncVariant
+    @GetMapping("/api3/members/{id}")
+    public CompletableFuture<Member> getMemberAsync(@PathVariable("id") String id) {
+        return offloadExecutor.supply(() -> getMember(id));
     }
 
 }
@@ -0,0 +1,149 @@
+package hello.exception.api;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.async.OffloadExecutor;
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.exception.UserException;
+import hello.exception.member.MemberLookup;
+import hello.exception.problem.ProblemRegistry;
+import hello.exception.problem.ProblemType;
+import hello.exception.problem.ProblemWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 회원 일괄 조회, /api/members/{id} 를 N 번 부르는 대신 한번에
+ *
+ * POST /api/members:batch  ["spring", "bad", "user-ex"]
+ * -> [{"memberId":"spring","name":"hello spring"},
+ *     {"type":"/problems/bad-request","title":"잘못된 요청","status":400,"detail":"잘못된 입력 값","code":"BAD"},
+ *     {"type":"/problems/user-error","title":"사용자 오류","status":400,"detail":"사용자 오류","code":"USER-EX"}]
+ *
+ * 실패한 id 때문에 전체가 실패하지 않고, 요청 순서 그대로 그 자리에 Problem (단건 조회 오류 응답과 같은 바디)
+ * 조회는 OffloadExecutor 에서 병렬로, 같은 id 는 한번만
+ * 한 요청이 공유 executor 를 다 차지하지 않게 id 를 members.batch.parallelism 묶음으로 나눠서 묶음마다 작업 하나
+ * (1000 개를 보내도 큐에 들어가는 건 묶음 수 만큼, 묶음 안에서는 차례로)
+ * 없는/잘못된 id 는 MemberLookup 의 부정 캐시 결과를 그대로 써서 예외를 다시 만들지 않는다
+ * 응답은 리스트로 모으지 않고 JsonGenerator 로 순서대로 바로 씀
+ */
+@Slf4j
+@RestController
+public class MemberBatchController {
+
+    private final MemberLookup memberLookup;
+    private final OffloadExecutor offloadExecutor;
+    private final ObjectMapper objectMapper;
+    private final ProblemWriter problemWriter;
+    private final ErrorLog errorLog;
+    private final ProblemType userError;
+    private final ProblemType badRequest;
+
+    //한번에 조회할 수 있는 id 개수, 넘으면 400
+    private final int maxSize;
+    //한 요청이 한번에 OffloadExecutor 에 넣는 작업 수
+    private final int parallelism;
+
+    public MemberBatchController(MemberLookup memberLookup, OffloadExecutor offloadExecutor, ObjectMapper objectMapper,
+                                 ProblemWriter problemWriter, ErrorLog errorLog, @Value("${members.batch.max-size:1000}") int maxSize,
+                                 @Value("${members.batch.parallelism:16}") int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("members.batch.parallelism 은 1 이상: " + parallelism);
+        }
+        this.memberLookup = memberLookup;
+        this.offloadExecutor = offloadExecutor;
+        this.objectMapper = objectMapper;
+        this.problemWriter = problemWriter;
+        this.errorLog = errorLog;
+        ProblemRegistry registry = problemWriter.registry();
+        this.userError = registry.forExceptionType(UserException.class);
+        this.badRequest = registry.forExceptionType(IllegalArgumentException.class);
+        this.maxSize = maxSize;
+        this.parallelism = parallelism;
+    }
+
+    @PostMapping(value = "/api/members:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void getMembers(@RequestBody List<String> ids, HttpServletResponse response, Locale locale) throws IOException {
+        if (ids.size() > maxSize) {
+            throw new IllegalArgumentException("한번에 조회할 수 있는 id 는 " + maxSize + "개 까지");
+        }
+
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        int chunkSize = Math.max(1, (distinct.size() + parallelism - 1) / parallelism);
+        List<CompletableFuture<Map<String, Object>>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            chunks.add(lookupChunk(distinct.subList(from, Math.min(from + chunkSize, distinct.size())), locale));
+        }
+
+        Map<String, Object> results = new HashMap<>();
+        for (CompletableFuture<Map<String, Object>> chunk : chunks) {
+            results.putAll(chunk.join());
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("utf-8");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            for (String id : ids) {
+                generator.writeObject(results.get(id));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    //id -> 회원 또는 Problem, 묶음 하나가 작업 하나
+    //큐가 꽉 차서 작업을 못 넣으면(503) 묶음 안의 id 는 다 그 Problem
+    private CompletableFuture<Map<String, Object>> lookupChunk(List<String> ids, Locale locale) {
+        return offloadExecutor.supply(() -> {
+                    Map<String, Object> results = new HashMap<>();
+                    for (String id : ids) {
+                        results.put(id, lookup(id, locale));
+                    }
+                    return results;
+                })
+                .handle((results, ex) -> {
+                    if (ex == null) {
+                        return results;
+                    }
+                    errorLog.error(log, "[batch] lookup task failed", ex);
+                    Object problem = problemWriter.problem(ex, locale);
+                    Map<String, Object> failed = new HashMap<>();
+                    for (String id : ids) {
+                        failed.put(id, problem);
+                    }
+                    return failed;
+                });
+    }
+
+    private Object lookup(String id, Locale locale) {
+        MemberLookup.Outcome outcome;
+        try {
+            outcome = memberLookup.lookup(id);
+        } catch (RuntimeException ex) {
+            errorLog.error(log, "[batch] lookup failed", ex);
+            return problemWriter.problem(ex, locale);
+        }
+        if (outcome.getMember() != null) {
+            return outcome.getMember();
+        }
+        ProblemType type = outcome.getFailure() == MemberLookup.Failure.USER ? userError : badRequest;
+        return problemWriter.problem(type, outcome.getMessage(), locale);
+    }
+}
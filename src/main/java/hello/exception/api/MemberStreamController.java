@@ -0,0 +1,101 @@
+package hello.exception.api;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.member.Member;
+import hello.exception.member.MemberBackend;
+import hello.exception.problem.ProblemWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * 회원 전체 내보내기, 한 줄에 회원 하나(NDJSON)
+ *
+ * GET /api/members/stream?limit=1000
+ * {"memberId":"member-0","name":"hello member-0"}
+ * {"memberId":"member-1","name":"hello member-1"}
+ * ...
+ *
+ * 결과를 모으지 않고 MemberBackend.streamAll() 에서 하나씩 꺼내서 바로 쓰기 때문에 결과 크기와 상관없이 메모리 일정
+ * JsonGenerator 하나로 끝까지, 내부 버퍼는 JsonFactory 의 BufferRecycler 가 스레드별로 재사용
+ * members.stream.flush-every 줄마다 flush, 클라이언트가 느리면 쓰기가 막혀서 저장소에서 더 꺼내오지 않는다
+ *
+ * 중간에 예외가 나면 이미 200 이 나간 뒤라 상태 코드를 바꿀 수 없음 (ExControllerAdvice 로는 표현 불가)
+ * 그래서 마지막 줄에 Problem({"type":"/problems/internal-error",...,"status":500,"code":"EX"} 등) 을 쓰고 끝냄
+ * 클라이언트는 마지막 줄이 type, status 를 가지고 있으면 중간에 실패한 것
+ *
+ * Accept 와 상관없이 항상 NDJSON (produces 로 좁히면 Accept: application/json 이 /api/members/{id} 로 가서 id=stream 이 됨)
+ *
+ * StreamingResponseBody 는 스프링 MVC 비동기 처리라 members.async.timeout-ms 안에 끝나야 함
+ */
+@Slf4j
+@RestController
+public class MemberStreamController {
+
+    private final MemberBackend memberBackend;
+    private final ObjectMapper objectMapper;
+    private final ProblemWriter problemWriter;
+    private final ErrorLog errorLog;
+
+    private final int flushEvery;
+
+    public MemberStreamController(MemberBackend memberBackend, ObjectMapper objectMapper, ProblemWriter problemWriter, ErrorLog errorLog,
+                                  @Value("${members.stream.flush-every:256}") int flushEvery) {
+        this.memberBackend = memberBackend;
+        this.objectMapper = objectMapper;
+        this.problemWriter = problemWriter;
+        this.errorLog = errorLog;
+        if (flushEvery <= 0) {
+            throw new IllegalArgumentException("members.stream.flush-every 는 1 이상: " + flushEvery);
+        }
+        this.flushEvery = flushEvery;
+    }
+
+    @GetMapping("/api/members/stream")
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(defaultValue = "" + Long.MAX_VALUE) long limit, Locale locale) {
+        //쓰는 건 다른 스레드라 로케일은 여기서 미리
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> write(out, limit, locale));
+    }
+
+    private void write(OutputStream out, long limit, Locale locale) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+             Stream<Member> members = memberBackend.streamAll().limit(limit)) {
+            //응답 스트림은 컨테이너가 닫음
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            long count = 0;
+            try {
+                Iterator<Member> iterator = members.iterator();
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                    generator.writeRaw('\n');
+                    if (++count % flushEvery == 0) {
+                        generator.flush();
+                    }
+                }
+            } catch (RuntimeException e) {
+                //같은 저장소 장애로 내보내기가 연달아 끊겨도 스택 트레이스는 한번만, 몇 줄 나갔는지는 debug 로
+                log.debug("[stream] failed after {} members", count);
+                errorLog.error(log, "[stream] failed", e);
+                generator.writeObject(problemWriter.problem(e, locale));
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package hello.exception.async;
+
+import java.lang.annotation.*;
+
+/**
+ * 같은 매핑의 동기 메서드 대신 쓰는 비동기 버전 표시
+ * members.async.enabled=true 면 이 메서드가, false 면 원래 동기 메서드가 요청을 받는다 (AsyncVariantRequestCondition)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AsyncVariant {
+}
@@ -0,0 +1,23 @@
+package hello.exception.async;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+
+//@AsyncVariant 메서드에 AsyncVariantRequestCondition 을 붙여주는 RequestMappingHandlerMapping
+//WebConfig 의 WebMvcRegistrations 로 스프링 부트 기본 매핑 대신 등록
+public class AsyncVariantHandlerMapping extends RequestMappingHandlerMapping {
+
+    private final AsyncVariantRequestCondition condition;
+
+    public AsyncVariantHandlerMapping(boolean enabled) {
+        this.condition = new AsyncVariantRequestCondition(enabled);
+    }
+
+    @Override
+    protected RequestCondition<?> getCustomMethodCondition(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, AsyncVariant.class) ? condition : null;
+    }
+}
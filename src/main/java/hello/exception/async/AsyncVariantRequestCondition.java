@@ -0,0 +1,34 @@
+package hello.exception.async;
+
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * @AsyncVariant 메서드에만 붙는 매핑 조건
+ * 꺼져 있으면 매칭이 안돼서 동기 메서드만 남고
+ * 켜져 있으면 둘 다 매칭되지만 조건이 있는 쪽이 더 구체적이라 이쪽이 선택됨 (RequestConditionHolder)
+ */
+public class AsyncVariantRequestCondition implements RequestCondition<AsyncVariantRequestCondition> {
+
+    private final boolean enabled;
+
+    public AsyncVariantRequestCondition(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public AsyncVariantRequestCondition combine(AsyncVariantRequestCondition other) {
+        return other;
+    }
+
+    @Override
+    public AsyncVariantRequestCondition getMatchingCondition(HttpServletRequest request) {
+        return enabled ? this : null;
+    }
+
+    @Override
+    public int compareTo(AsyncVariantRequestCondition other, HttpServletRequest request) {
+        return 0;
+    }
+}
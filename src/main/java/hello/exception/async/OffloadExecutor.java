@@ -0,0 +1,79 @@
+package hello.exception.async;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * @AsyncVariant 메서드가 실제 일을 넘기는 곳
+ * 톰캣 요청 스레드는 비동기 시작하고 바로 반납, 응답은 여기서 끝난 뒤 ASYNC 디스패치로
+ *
+ * members.async.executor=virtual 이면 가상 스레드(JDK 21 이상에서 실행할 때만, 아니면 pool 로)
+ * members.async.executor=pool    이면 pool-size 개 고정 스레드 + queue-capacity 크기 큐
+ *
+ * 예외는 CompletionException 으로 감싸지 않고 그대로 넘겨서
+ * 동기 메서드에서 던진 것과 똑같이 @ExceptionHandler, ExControllerAdvice, ExceptionResolver 가 처리
+ * 큐가 꽉 차면 503
+ */
+@Slf4j
+@Component
+public class OffloadExecutor {
+
+    private final ExecutorService executor;
+
+    public OffloadExecutor(@Value("${members.async.executor:virtual}") String type,
+                           @Value("${members.async.pool-size:200}") int poolSize,
+                           @Value("${members.async.queue-capacity:10000}") int queueCapacity) {
+        ExecutorService virtual = "virtual".equals(type) ? newVirtualThreadPerTaskExecutor() : null;
+        this.executor = virtual != null ? virtual : newPool(poolSize, queueCapacity);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "offload queue full", e));
+        }
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    //소스는 자바 11 이라 리플렉션으로, 실행하는 JDK 에 있을 때만
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("offload executor: virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            log.info("virtual threads not available, offload executor: pool");
+            return null;
+        }
+    }
+
+    private static ExecutorService newPool(int poolSize, int queueCapacity) {
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "offload-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
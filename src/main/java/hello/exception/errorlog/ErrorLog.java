@@ -0,0 +1,200 @@
+package hello.exception.errorlog;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 오류 경로 로그, 같은 예외가 폭주할 때 같은 스택 트레이스를 계속 찍지 않게
+ *
+ * 로그 메시지 + 예외 타입 + 위에서부터 stack-depth 개의 프레임(+ cause 타입)으로 지문을 만들고
+ * 지문별로 window-seconds 에 한번만 스택 트레이스까지 찍는다
+ * 그 사이에 같은 예외는 카운터만 올리고, summary-seconds 마다 "N more occurrences" 한 줄로
+ *
+ * 카운터는 LongAdder 라 여러 스레드가 동시에 올려도 경합이 적음
+ * 지문 종류가 max-fingerprints 를 넘으면 새 지문은 그냥 그대로 찍는다 (맵이 끝없이 커지지 않게)
+ *
+ * error-log.dedup.enabled=false 면 원래처럼 매번 그대로
+ */
+@Component
+public class ErrorLog {
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final long summaryMillis;
+    private final int stackDepth;
+    private final int maxFingerprints;
+
+    private final ConcurrentMap<Long, Occurrences> fingerprints = new ConcurrentHashMap<>(1024);
+    private final LongAdder suppressedTotal = new LongAdder();
+
+    private ScheduledExecutorService summaryThread;
+
+    public ErrorLog(@Value("${error-log.dedup.enabled:true}") boolean enabled,
+                    @Value("${error-log.dedup.window-seconds:60}") long windowSeconds,
+                    @Value("${error-log.dedup.summary-seconds:10}") long summarySeconds,
+                    @Value("${error-log.dedup.stack-depth:5}") int stackDepth,
+                    @Value("${error-log.dedup.max-fingerprints:10000}") int maxFingerprints) {
+        this.enabled = enabled;
+        this.windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.summaryMillis = TimeUnit.SECONDS.toMillis(summarySeconds);
+        this.stackDepth = stackDepth;
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        summaryThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "error-log-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        summaryThread.scheduleAtFixedRate(this::summarize, summaryMillis, summaryMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (summaryThread != null) {
+            summaryThread.shutdown();
+            summarize();
+        }
+    }
+
+    public void error(Logger logger, String message, Throwable ex) {
+        error(logger, message, ex, System.currentTimeMillis());
+    }
+
+    public void info(Logger logger, String message, Throwable ex) {
+        info(logger, message, ex, System.currentTimeMillis());
+    }
+
+    //시각을 받는 건 테스트용
+    void error(Logger logger, String message, Throwable ex, long now) {
+        if (!logger.isErrorEnabled()) {
+            return;
+        }
+        if (shouldPrint(logger, Level.ERROR, message, ex, now)) {
+            logger.error(message, ex);
+        }
+    }
+
+    void info(Logger logger, String message, Throwable ex, long now) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        if (shouldPrint(logger, Level.INFO, message, ex, now)) {
+            logger.info(message, ex);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fingerprints", fingerprints.size());
+        result.put("suppressed", suppressedTotal.sum());
+        return result;
+    }
+
+    //스택 트레이스까지 찍어야 하면 true
+    private boolean shouldPrint(Logger logger, Level level, String message, Throwable ex, long now) {
+        if (!enabled || ex == null) {
+            return true;
+        }
+
+        Long fingerprint = fingerprint(message, ex);
+        Occurrences occurrences = fingerprints.get(fingerprint);
+
+        if (occurrences == null) {
+            if (fingerprints.size() >= maxFingerprints) {
+                return true;
+            }
+            Occurrences created = new Occurrences(logger, level, message, ex, now);
+            occurrences = fingerprints.putIfAbsent(fingerprint, created);
+            if (occurrences == null) {
+                return true;
+            }
+        }
+
+        //window 가 지났으면 한 스레드만 다시 전체를 찍는다
+        long windowStart = occurrences.windowStart.get();
+        if (now - windowStart >= windowMillis && occurrences.windowStart.compareAndSet(windowStart, now)) {
+            occurrences.lastSeen = now;
+            return true;
+        }
+
+        occurrences.lastSeen = now;
+        occurrences.suppressed.increment();
+        suppressedTotal.increment();
+        return false;
+    }
+
+    //로그 메시지(찍는 곳), 예외 타입, 위쪽 프레임들, cause 타입
+    private long fingerprint(String message, Throwable ex) {
+        return ExceptionFingerprint.of(message.hashCode(), ex, stackDepth);
+    }
+
+    private void summarize() {
+        summarize(System.currentTimeMillis());
+    }
+
+    void summarize(long now) {
+        Iterator<Occurrences> iterator = fingerprints.values().iterator();
+        while (iterator.hasNext()) {
+            Occurrences occurrences = iterator.next();
+            long suppressed = occurrences.suppressed.sumThenReset();
+            if (suppressed > 0) {
+                occurrences.summary(suppressed);
+            } else if (now - occurrences.lastSeen >= 2 * windowMillis) {
+                //한동안 안 나온 예외는 지워서 다음에 나오면 다시 전체를 찍게
+                iterator.remove();
+            }
+        }
+    }
+
+    private enum Level {
+        ERROR, INFO
+    }
+
+    private static final class Occurrences {
+        private final Logger logger;
+        private final Level level;
+        private final String message;
+        private final String exception;
+
+        private final AtomicLong windowStart;
+        private final LongAdder suppressed = new LongAdder();
+        private volatile long lastSeen;
+
+        private Occurrences(Logger logger, Level level, String message, Throwable ex, long now) {
+            this.logger = logger;
+            this.level = level;
+            this.message = message;
+            this.exception = ex.getClass().getName() + ": " + ex.getMessage();
+            this.windowStart = new AtomicLong(now);
+            this.lastSeen = now;
+        }
+
+        private void summary(long count) {
+            if (level == Level.ERROR) {
+                logger.error("{} ({} more occurrences of {})", message, count, exception);
+            } else {
+                logger.info("{} ({} more occurrences of {})", message, count, exception);
+            }
+        }
+    }
+}
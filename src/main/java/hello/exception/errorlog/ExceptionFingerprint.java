@@ -0,0 +1,28 @@
+package hello.exception.errorlog;
+
+/**
+ * 예외 지문, 예외 타입 + 위에서부터 depth 개의 프레임 + cause 타입
+ * 메시지(id 같은 값이 들어감)는 안 봐서 같은 곳에서 터진 같은 예외는 같은 지문
+ *
+ * ErrorLog(로그 중복 제거), ErrorStats(오류 집계) 가 같이 씀
+ */
+public final class ExceptionFingerprint {
+
+    private ExceptionFingerprint() {
+    }
+
+    //seed 는 ErrorLog 처럼 찍는 곳까지 구분하고 싶을 때
+    public static long of(long seed, Throwable ex, int depth) {
+        long hash = 31L * seed + ex.getClass().getName().hashCode();
+        StackTraceElement[] stackTrace = ex.getStackTrace();
+        int frames = Math.min(depth, stackTrace.length);
+        for (int i = 0; i < frames; i++) {
+            hash = 31 * hash + stackTrace[i].hashCode();
+        }
+        Throwable cause = ex.getCause();
+        if (cause != null && cause != ex) {
+            hash = 31 * hash + cause.getClass().getName().hashCode();
+        }
+        return hash;
+    }
+}
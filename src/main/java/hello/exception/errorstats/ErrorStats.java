@@ -0,0 +1,299 @@
+package hello.exception.errorstats;
+
+import hello.exception.errorlog.ExceptionFingerprint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 오류 집계, 리졸버와 오류 페이지를 지나간 예외를 (예외 타입, 경로, 상태 코드, 지문) 별로 센다
+ *
+ * (타입, 경로, 상태, 지문) 조합 하나를 시리즈라고 부르고 처음 나올 때 번호(id)를 붙인다
+ * 시간 단위는 1초(60칸), 1분(60칸), 1시간(24칸) 세 개의 링, 칸마다 시리즈 수만큼 long 이 한 줄
+ * 기록은 시리즈 id 찾고 세 링에 incrementAndGet 한번씩, 객체를 새로 쌓지 않는다
+ *
+ * 메모리는 시리즈 개수(max-series)로 고정
+ * 경로는 실제 URI 가 아니라 매핑 패턴, 그래도 경로 종류가 max-routes 를 넘으면 OTHER 로
+ * 번호가 다 차면 1시간 링(최근 하루) 전체에서 0 인 시리즈의 번호를 회수해서 새 시리즈에 다시 준다 (1분에 한번까지만 훑음)
+ * 회수할 것도 없으면 그 뒤로는 OTHER 시리즈 하나에 모은다
+ * 회수하는 순간 예전 번호를 이미 찾아둔 기록 몇 개는 새 시리즈로 셀 수 있음
+ *
+ * 칸이 다음 시간으로 넘어가는 순간 동시에 올린 몇 개는 지워질 수 있음, 대략적인 집계용
+ * /internal/errors 로 조회
+ */
+@Component
+public class ErrorStats {
+
+    public static final String OTHER = "OTHER";
+    //예외 없이 sendError 로만 온 오류
+    public static final String NO_EXCEPTION = "-";
+
+    private static final int OTHER_ID = 0;
+    //번호 회수는 칸 수 x 시리즈 수를 훑어서 이 간격보다 자주는 안 함
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000;
+
+    private final boolean enabled;
+    private final int maxSeries;
+    private final int maxRoutes;
+    private final int stackDepth;
+
+    private final ConcurrentMap<SeriesKey, Integer> seriesIds = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SeriesKey> series;
+    private final AtomicInteger seriesCount = new AtomicInteger();
+    private final Set<String> routes = ConcurrentHashMap.newKeySet();
+    private final LongAdder overflow = new LongAdder();
+
+    //회수한 번호, seriesIds 락 안에서만
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+    private volatile int freeCount;
+    private volatile long lastSweepMillis;
+    private final LongAdder recycled = new LongAdder();
+
+    private final Rollup[] rollups = new Rollup[Resolution.values().length];
+
+    public ErrorStats(@Value("${error-stats.enabled:true}") boolean enabled,
+                      @Value("${error-stats.max-series:2048}") int maxSeries,
+                      @Value("${error-stats.max-routes:256}") int maxRoutes,
+                      @Value("${error-stats.stack-depth:5}") int stackDepth) {
+        this.enabled = enabled;
+        this.maxSeries = maxSeries;
+        this.maxRoutes = maxRoutes;
+        this.stackDepth = stackDepth;
+        this.series = new AtomicReferenceArray<>(maxSeries);
+
+        //0번은 넘친 것들 모으는 OTHER
+        SeriesKey other = new SeriesKey(OTHER, OTHER, 0, 0);
+        series.set(OTHER_ID, other);
+        seriesIds.put(other, OTHER_ID);
+        seriesCount.set(1);
+
+        for (Resolution resolution : Resolution.values()) {
+            rollups[resolution.ordinal()] = new Rollup(resolution, maxSeries);
+        }
+    }
+
+    public void record(Throwable ex, String route, int status) {
+        record(ex, route, status, System.currentTimeMillis());
+    }
+
+    void record(Throwable ex, String route, int status, long now) {
+        if (!enabled) {
+            return;
+        }
+        int id = seriesId(ex, route, status, now);
+        for (Rollup rollup : rollups) {
+            rollup.increment(id, now, seriesCount.get());
+        }
+    }
+
+    /**
+     * 최근 points 칸 동안 by 기준으로 묶어서 많은 순서로 n 개
+     */
+    public List<Map<String, Object>> top(Resolution resolution, int points, Dimension by, int n) {
+        long[] totals = rollups[resolution.ordinal()].totals(points, System.currentTimeMillis(), seriesCount.get());
+
+        Map<Map<String, Object>, Long> grouped = new HashMap<>();
+        for (int id = 0; id < totals.length; id++) {
+            if (totals[id] > 0) {
+                grouped.merge(by.project(series.get(id)), totals[id], Long::sum);
+            }
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(Math.min(n, grouped.size()));
+        grouped.entrySet().stream()
+                .sorted(Map.Entry.<Map<String, Object>, Long>comparingByValue().reversed())
+                .limit(n)
+                .forEach(entry -> {
+                    Map<String, Object> row = new LinkedHashMap<>(entry.getKey());
+                    row.put("count", entry.getValue());
+                    result.add(row);
+                });
+        return result;
+    }
+
+    /**
+     * 최근 points 칸의 칸별 합계, 오래된 칸부터
+     * type/route/status 가 null 이면 그 조건은 안 봄
+     */
+    public Map<String, Object> timeSeries(Resolution resolution, int points, String type, String route, Integer status) {
+        int count = seriesCount.get();
+        boolean[] selected = new boolean[count];
+        for (int id = 0; id < count; id++) {
+            SeriesKey key = series.get(id);
+            selected[id] = key != null
+                    && (type == null || key.type.equals(type))
+                    && (route == null || key.route.equals(route))
+                    && (status == null || key.status == status);
+        }
+
+        long now = System.currentTimeMillis();
+        Rollup rollup = rollups[resolution.ordinal()];
+        long[] values = rollup.series(points, now, selected);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("resolution", resolution.label());
+        result.put("from", rollup.bucketStartMillis(now, values.length - 1));
+        result.put("bucketMillis", resolution.millis);
+        result.put("points", values);
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("series", seriesIds.size());
+        result.put("maxSeries", maxSeries);
+        result.put("routes", routes.size());
+        result.put("overflow", overflow.sum());
+        result.put("recycled", recycled.sum());
+        return result;
+    }
+
+    private int seriesId(Throwable ex, String route, int status, long now) {
+        String type = ex == null ? NO_EXCEPTION : ex.getClass().getName();
+        long fingerprint = ex == null ? 0 : ExceptionFingerprint.of(0, ex, stackDepth);
+        SeriesKey key = new SeriesKey(type, boundedRoute(route), status, fingerprint);
+
+        Integer id = seriesIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        //번호가 다 찼고 회수한 것도 없고 훑을 때도 안 됐으면 락 없이 OTHER
+        if (seriesCount.get() >= maxSeries && freeCount == 0 && now - lastSweepMillis < SWEEP_INTERVAL_MILLIS) {
+            overflow.increment();
+            return OTHER_ID;
+        }
+
+        synchronized (seriesIds) {
+            id = seriesIds.get(key);
+            if (id != null) {
+                return id;
+            }
+            int next = seriesCount.get();
+            if (next < maxSeries) {
+                //배열에 먼저 넣고 개수를 올려야 조회 쪽에서 빈 칸을 안 봄
+                series.set(next, key);
+                seriesIds.put(key, next);
+                seriesCount.set(next + 1);
+                return next;
+            }
+            Integer free = freeId(now);
+            if (free == null) {
+                overflow.increment();
+                return OTHER_ID;
+            }
+            series.set(free, key);
+            seriesIds.put(key, free);
+            return free;
+        }
+    }
+
+    //seriesIds 락 안에서
+    private Integer freeId(long now) {
+        if (freeIds.isEmpty() && now - lastSweepMillis >= SWEEP_INTERVAL_MILLIS) {
+            sweep(now);
+        }
+        Integer free = freeIds.poll();
+        freeCount = freeIds.size();
+        return free;
+    }
+
+    //1시간 링 전체(최근 하루)에서 0 인 시리즈 번호를 회수
+    //더 짧은 링은 하루 안쪽이라 거기서도 0, 지난 칸에 남은 값은 칸을 다시 쓸 때 비워짐
+    private void sweep(long now) {
+        lastSweepMillis = now;
+        int count = seriesCount.get();
+        long[] totals = rollups[Resolution.HOUR.ordinal()].totals(Resolution.HOUR.slots, now, count);
+        for (int id = OTHER_ID + 1; id < count; id++) {
+            SeriesKey key = series.get(id);
+            if (totals[id] == 0 && key != null && seriesIds.remove(key, id)) {
+                freeIds.add(id);
+                recycled.increment();
+            }
+        }
+    }
+
+    private String boundedRoute(String route) {
+        if (routes.contains(route)) {
+            return route;
+        }
+        if (routes.size() >= maxRoutes) {
+            return OTHER;
+        }
+        routes.add(route);
+        return route;
+    }
+
+    private static final class SeriesKey {
+        private final String type;
+        private final String route;
+        private final int status;
+        private final long fingerprint;
+        private final int hash;
+
+        private SeriesKey(String type, String route, int status, long fingerprint) {
+            this.type = type;
+            this.route = route;
+            this.status = status;
+            this.fingerprint = fingerprint;
+            this.hash = 31 * (31 * (31 * type.hashCode() + route.hashCode()) + status) + Long.hashCode(fingerprint);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SeriesKey)) {
+                return false;
+            }
+            SeriesKey other = (SeriesKey) o;
+            return status == other.status && fingerprint == other.fingerprint
+                    && type.equals(other.type) && route.equals(other.route);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * top 조회 때 무엇으로 묶을지
+     */
+    public enum Dimension {
+        TYPE, ROUTE, STATUS, FINGERPRINT, SERIES;
+
+        private Map<String, Object> project(SeriesKey key) {
+            switch (this) {
+                case TYPE:
+                    return Map.of("type", key.type);
+                case ROUTE:
+                    return Map.of("route", key.route);
+                case STATUS:
+                    return Map.of("status", key.status);
+                case FINGERPRINT:
+                    return Map.of("fingerprint", Long.toHexString(key.fingerprint), "type", key.type);
+                default:
+                    return Map.of("type", key.type, "route", key.route, "status", key.status,
+                            "fingerprint", Long.toHexString(key.fingerprint));
+            }
+        }
+
+        public static Dimension from(String value) {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        }
+    }
+}
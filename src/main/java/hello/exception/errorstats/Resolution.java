@@ -0,0 +1,39 @@
+package hello.exception.errorstats;
+
+/**
+ * 집계 시간 단위, 칸 크기와 칸 개수
+ * 1s 는 최근 1분, 1m 은 최근 1시간, 1h 는 최근 하루
+ */
+public enum Resolution {
+
+    SECOND("1s", 1_000L, 60),
+    MINUTE("1m", 60_000L, 60),
+    HOUR("1h", 3_600_000L, 24);
+
+    final String label;
+    final long millis;
+    final int slots;
+
+    Resolution(String label, long millis, int slots) {
+        this.label = label;
+        this.millis = millis;
+        this.slots = slots;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public int slots() {
+        return slots;
+    }
+
+    public static Resolution from(String label) {
+        for (Resolution resolution : values()) {
+            if (resolution.label.equals(label)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("잘못된 resolution: " + label + " (1s, 1m, 1h)");
+    }
+}
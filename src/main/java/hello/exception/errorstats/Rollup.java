@@ -0,0 +1,100 @@
+package hello.exception.errorstats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 한 시간 단위의 링, slots 칸 x 시리즈 수 만큼의 long 을 배열 하나에 펴서 담는다
+ * counts[slot * maxSeries + id]
+ *
+ * 칸마다 지금 담고 있는 시간(bucket 번호)을 같이 적어두고
+ * 기록할 때 칸의 시간이 지났으면 CAS 에 이긴 스레드 하나가 그 칸을 비운 다음 다시 쓴다
+ * 조회할 때 시간이 안 맞는 칸은 0 으로 본다
+ */
+final class Rollup {
+
+    private final long bucketMillis;
+    private final int slots;
+    private final int maxSeries;
+
+    private final AtomicLongArray bucketOfSlot;
+    private final AtomicLongArray counts;
+
+    Rollup(Resolution resolution, int maxSeries) {
+        this.bucketMillis = resolution.millis;
+        this.slots = resolution.slots;
+        this.maxSeries = maxSeries;
+        this.bucketOfSlot = new AtomicLongArray(slots);
+        this.counts = new AtomicLongArray(slots * maxSeries);
+        for (int slot = 0; slot < slots; slot++) {
+            bucketOfSlot.set(slot, -1);
+        }
+    }
+
+    //seriesCount: 지금까지 번호가 붙은 시리즈 수, 칸을 비울 때 그 뒤는 어차피 0
+    void increment(int id, long nowMillis, int seriesCount) {
+        long bucket = nowMillis / bucketMillis;
+        int slot = (int) (bucket % slots);
+
+        long current = bucketOfSlot.get(slot);
+        if (current != bucket) {
+            if (current > bucket) {
+                //시계가 뒤로 갔거나 아주 늦게 온 기록, 버림
+                return;
+            }
+            if (bucketOfSlot.compareAndSet(slot, current, bucket)) {
+                int base = slot * maxSeries;
+                for (int i = 0; i < seriesCount; i++) {
+                    counts.set(base + i, 0);
+                }
+            }
+        }
+        counts.incrementAndGet(slot * maxSeries + id);
+    }
+
+    //최근 points 칸 동안 시리즈별 합계
+    long[] totals(int points, long nowMillis, int seriesCount) {
+        long[] totals = new long[seriesCount];
+        long newest = nowMillis / bucketMillis;
+        int limit = Math.min(Math.max(points, 1), slots);
+        for (int i = 0; i < limit; i++) {
+            long bucket = newest - i;
+            int slot = (int) (bucket % slots);
+            if (bucketOfSlot.get(slot) != bucket) {
+                continue;
+            }
+            int base = slot * maxSeries;
+            for (int id = 0; id < seriesCount; id++) {
+                totals[id] += counts.get(base + id);
+            }
+        }
+        return totals;
+    }
+
+    //최근 points 칸의 칸별 합계(selected 시리즈만), 오래된 칸부터
+    long[] series(int points, long nowMillis, boolean[] selected) {
+        int limit = Math.min(Math.max(points, 1), slots);
+        long[] values = new long[limit];
+        long newest = nowMillis / bucketMillis;
+        for (int i = 0; i < limit; i++) {
+            long bucket = newest - i;
+            int slot = (int) (bucket % slots);
+            if (bucketOfSlot.get(slot) != bucket) {
+                continue;
+            }
+            int base = slot * maxSeries;
+            long sum = 0;
+            for (int id = 0; id < selected.length; id++) {
+                if (selected[id]) {
+                    sum += counts.get(base + id);
+                }
+            }
+            values[limit - 1 - i] = sum;
+        }
+        return values;
+    }
+
+    //ago 칸 전 칸이 시작한 시각
+    long bucketStartMillis(long nowMillis, int ago) {
+        return (nowMillis / bucketMillis - ago) * bucketMillis;
+    }
+}
@@ -47,4 +47,18 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  * */
 @ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "error.bad")
 public class BadRequestException extends RuntimeException {
+
+    /**
+     * 스택 트레이스 없는 싱글톤, 메시지도 원인도 없는 예외라 매번 새로 만들 필요가 없다
+     * @ResponseStatus 는 클래스에 붙어있으니 ResponseStatusExceptionResolver 는 똑같이 400으로 처리
+     */
+    public static final BadRequestException STACKLESS = new BadRequestException(false);
+
+    public BadRequestException() {
+        super();
+    }
+
+    protected BadRequestException(boolean writableStackTrace) {
+        super(null, null, false, writableStackTrace);
+    }
 }
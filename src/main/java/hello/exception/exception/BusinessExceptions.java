@@ -0,0 +1,51 @@
+package hello.exception.exception;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 컨트롤러에서 던지는 비즈니스 예외를 만들어주는
+ *
+ * 예외 생성 비용의 대부분은 fillInStackTrace, 잘못된 id 로 4xx 가 많이 나는 트래픽에서는 이게 CPU 를 먹는다
+ * 어차피 ExceptionResolver 가 상태 코드로 바꿔버리는 예외라 스택 트레이스가 필요 없는 경우가 많다
+ * 그래서 설정에 따라 예외 타입별로 스택 트레이스 없는 예외를 쓸 수 있게
+ *
+ * exception.stackless.user-exception=true        UserException 을 메시지(오류 코드)별 싱글톤으로
+ * exception.stackless.bad-request-exception=true BadRequestException.STACKLESS 를 재사용
+ *
+ * 기본값은 false, 로그에서 스택 트레이스를 봐야하면 그대로 두면 된다
+ */
+@Component
+public class BusinessExceptions {
+
+    private final boolean stacklessUserException;
+    private final boolean stacklessBadRequestException;
+
+    //메시지는 컨트롤러 코드에 박혀있는 상수들이라 몇 개 안됨
+    private final ConcurrentMap<String, UserException> userExceptions = new ConcurrentHashMap<>();
+
+    public BusinessExceptions(@Value("${exception.stackless.user-exception:false}") boolean stacklessUserException,
+                              @Value("${exception.stackless.bad-request-exception:false}") boolean stacklessBadRequestException) {
+        this.stacklessUserException = stacklessUserException;
+        this.stacklessBadRequestException = stacklessBadRequestException;
+    }
+
+    public UserException user(String message) {
+        if (!stacklessUserException) {
+            return new UserException(message);
+        }
+
+        UserException cached = userExceptions.get(message);
+        if (cached != null) {
+            return cached;
+        }
+        return userExceptions.computeIfAbsent(message, UserException::stackless);
+    }
+
+    public BadRequestException badRequest() {
+        return stacklessBadRequestException ? BadRequestException.STACKLESS : new BadRequestException();
+    }
+}
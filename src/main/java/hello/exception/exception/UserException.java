@@ -28,4 +28,13 @@ public class UserException extends RuntimeException {
     protected UserException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
         super(message, cause, enableSuppression, writableStackTrace);
     }
+
+    /**
+     * 스택 트레이스를 채우지 않는 가벼운 예외
+     * fillInStackTrace 를 호출하지 않고 suppressed 도 막아두기 때문에 하나 만들어 두고 계속 던져도 된다
+     * 캐시는 BusinessExceptions 에서
+     */
+    public static UserException stackless(String message) {
+        return new UserException(message, null, false, false);
+    }
 }
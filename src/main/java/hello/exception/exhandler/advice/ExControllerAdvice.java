@@ -1,14 +1,19 @@
 package hello.exception.exhandler.advice;
 
+import hello.exception.errorlog.ErrorLog;
 import hello.exception.exception.UserException;
-import hello.exception.exhandler.ErrorResult;
+import hello.exception.problem.ProblemWriter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+
 
 /**
  * @ExceptionHandler 를 사용해서 예외를 깔끔하게 처리할 수 있게 되었지만,
@@ -47,8 +52,15 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  * @ExceptionHandler 와 @ControllerAdvice 를 조합하면 예외를 깔끔하게 해결
  */
 //@RestControllerAdvice(basePackages = "hello.exception.api")
+@RequiredArgsConstructor
 public class ExControllerAdvice {
 
+    //응답 바디는 application/problem+json, ApiExceptionV2Controller 와 같은
+    private final ProblemWriter problemWriter;
+
+    //같은 예외가 쏟아지면 스택 트레이스는 한번만
+    private final ErrorLog errorLog;
+
     /**
      * 우선순위
      * 스프링의 우선순위는 항상 자세한 것이 우선권을 가진다. 예를 들어서 부모, 자식 클래스가 있고 다음과 같이 예외가 처리된다.
@@ -90,10 +102,10 @@ public class ExControllerAdvice {
      */
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(IllegalArgumentException.class)
-    public ErrorResult illegalExHandler(IllegalArgumentException e) {
-        log.error("[exceptionHandler] ex", e);
+    public void illegalExHandler(IllegalArgumentException e, HttpServletResponse response, Locale locale) throws IOException {
+        errorLog.error(log, "[exceptionHandler] ex", e);
 
-        return new ErrorResult("BAD", e.getMessage());
+        problemWriter.write(response, e, locale);
     }
 
     /**
@@ -101,12 +113,10 @@ public class ExControllerAdvice {
      * (UserException e)는 @ExceptionHandler(UserException.class)을 대신하는
      */
     @ExceptionHandler
-    public ResponseEntity<ErrorResult> userExHandler(UserException e) {
-        log.error("[exceptionHandler] ex", e);
+    public void userExHandler(UserException e, HttpServletResponse response, Locale locale) throws IOException {
+        errorLog.error(log, "[exceptionHandler] ex", e);
 
-        ErrorResult errorResult = new ErrorResult("USER-EX", e.getMessage());
-
-        return new ResponseEntity(errorResult, HttpStatus.BAD_REQUEST);
+        problemWriter.write(response, e, locale);
     }
 
 
@@ -117,12 +127,14 @@ public class ExControllerAdvice {
      * @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR) 로 HTTP 상태 코드를 500으로 응답한다.
      *
      * 200으로 응답코드 보내지않게
+     *
+     * 응답이 항상 같은 internal-error problem 이라서 ProblemWriter 가 만들어둔 바이트를 바로 쓴다
      */
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler
-    public ErrorResult exHandler(Exception e) {
-        log.error("[exceptionHandler] ex", e);
-        return new ErrorResult("EX", "내부 오류");
+    public void exHandler(Exception e, HttpServletResponse response, Locale locale) throws IOException {
+        errorLog.error(log, "[exceptionHandler] ex", e);
+        problemWriter.write(response, e, locale);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package hello.exception.filter;
+
+import hello.exception.problem.ProblemRegistry;
+import hello.exception.problem.ProblemType;
+import hello.exception.problem.ProblemWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+//의존하는 쪽이 죽으면 /api/members/{id} 같은 경로가 전부 예외 -> 리졸버 -> 로그 -> 오류 페이지를 타서
+//제일 힘들 때 일이 더 많아진다, 경로별 5xx 비율이 높으면 DispatcherServlet 에 들어가기 전에 바로 503
+//503 바디는 unavailable problem, 고정 바디라 ProblemWriter 가 로케일별로 만들어둔 바이트, Retry-After 는 OPEN 유지 시간
+
+//경로는 DispatcherServlet 이 매핑에 쓰는 것과 같은 lookup path (디코딩, ;jsessionid 제거)
+//결과는 요청이 끝난 뒤 응답 상태 코드로 (리졸버가 5xx 로 바꾼 것, WAS 까지 올라간 예외 둘 다 실패)
+//finally 에서 기록해서 Error 로 끝나도 probe 결과가 빠지지 않음
+//4xx 는 클라이언트 잘못이라 실패로 안 셈
+//비동기 요청(@AsyncVariant, StreamingResponseBody)은 AsyncListener 로 끝날 때
+
+//LogFilter 보다 앞(order 0), 버린 요청은 로그도 안 남김
+//circuit-breaker.enabled=true 일 때 WebConfig 에서 등록
+@Slf4j
+public class CircuitBreakerFilter implements Filter {
+
+    private final RouteCircuitBreakers breakers;
+    private final ProblemWriter problemWriter;
+    private final ProblemType unavailable;
+    private final String retryAfterSeconds;
+    private final UrlPathHelper urlPathHelper = UrlPathHelper.defaultInstance;
+
+    public CircuitBreakerFilter(RouteCircuitBreakers breakers, ProblemWriter problemWriter, long openMillis) {
+        this.breakers = breakers;
+        this.problemWriter = problemWriter;
+        this.unavailable = problemWriter.registry().byName(ProblemRegistry.UNAVAILABLE);
+        this.retryAfterSeconds = String.valueOf(Math.max(1, openMillis / 1000));
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        long now = System.currentTimeMillis();
+        String path = urlPathHelper.getLookupPathForRequest(httpRequest);
+        RouteCircuitBreaker breaker = breakers.findNotClosed(path);
+        RouteCircuitBreaker.Permit permit = breaker == null ? RouteCircuitBreaker.Permit.PASS : breaker.acquire(now);
+
+        if (permit == RouteCircuitBreaker.Permit.REJECT) {
+            reject(httpRequest, httpResponse);
+            return;
+        }
+
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && httpRequest.isAsyncStarted()) {
+                httpRequest.getAsyncContext().addListener(new OutcomeListener(httpRequest, httpResponse, breaker, permit));
+            } else {
+                record(httpRequest, breaker, permit, !completed || httpResponse.getStatus() >= 500);
+            }
+        }
+    }
+
+    //LocaleResolver 보다 앞이라 Accept-Language 로
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        problemWriter.write(response, unavailable.getStatus(), problemWriter.bytes(unavailable, null, request.getLocale()));
+    }
+
+    private void record(HttpServletRequest request, RouteCircuitBreaker breaker, RouteCircuitBreaker.Permit permit, boolean failure) {
+        RouteCircuitBreaker target = breaker;
+        if (target == null) {
+            //매핑이 안된 요청(정적 리소스, 404)은 안 셈
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern == null) {
+                return;
+            }
+            target = breakers.breaker(pattern.toString());
+        }
+        target.onResult(permit, failure, System.currentTimeMillis());
+    }
+
+    private class OutcomeListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final RouteCircuitBreaker breaker;
+        private final RouteCircuitBreaker.Permit permit;
+
+        //타임아웃/오류 콜백과 onComplete 가 다른 스레드일 수 있음
+        private volatile boolean failed;
+
+        private OutcomeListener(HttpServletRequest request, HttpServletResponse response,
+                                RouteCircuitBreaker breaker, RouteCircuitBreaker.Permit permit) {
+            this.request = request;
+            this.response = response;
+            this.breaker = breaker;
+            this.permit = permit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, breaker, permit, failed || response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
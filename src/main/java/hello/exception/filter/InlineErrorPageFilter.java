@@ -0,0 +1,87 @@
+package hello.exception.filter;
+
+import hello.exception.servlet.ErrorPageRenderer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+
+//response.sendError() 를 WAS 까지 보내지 않고 원래 요청 안에서 오류 화면까지 그리는 필터
+//sendError(404) 를 호출하면 WAS 는 응답 전에 이걸 확인하고 /error-page/404 를 ERROR 로 다시 요청한다
+//여기서는 response 를 감싸서 sendError 를 기록만 해두고, 체인이 끝난 다음 ErrorPageRenderer 로 바로 그림
+
+//WebServerCustomizer 에 오류 페이지가 있는 404, 500 만, 나머지 상태 코드는 원래대로 WAS 로
+//error.inline-rendering.enabled=true 일 때 WebConfig 에서 등록
+@Slf4j
+public class InlineErrorPageFilter implements Filter {
+
+    private final ErrorPageRenderer errorPageRenderer;
+
+    public InlineErrorPageFilter(ErrorPageRenderer errorPageRenderer) {
+        this.errorPageRenderer = errorPageRenderer;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        SendErrorCapturingResponse wrapper = new SendErrorCapturingResponse(httpResponse);
+
+        chain.doFilter(request, wrapper);
+
+        if (wrapper.errorStatus == 0) {
+            return;
+        }
+
+        if (httpResponse.isCommitted()) {
+            log.warn("response already committed, inline error page skipped [{}]", wrapper.errorStatus);
+            return;
+        }
+
+        try {
+            errorPageRenderer.render(httpRequest, httpResponse, wrapper.errorStatus, wrapper.errorMessage, null);
+        } catch (Exception e) {
+            //그리기에 실패하면 원래처럼 WAS 오류 페이지로
+            log.error("inline error page ex", e);
+            httpResponse.sendError(wrapper.errorStatus, wrapper.errorMessage);
+        }
+    }
+
+    static class SendErrorCapturingResponse extends HttpServletResponseWrapper {
+
+        private int errorStatus;
+        private String errorMessage;
+
+        SendErrorCapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            sendError(sc, null);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            if (sc != SC_NOT_FOUND && sc != SC_INTERNAL_SERVER_ERROR) {
+                if (msg == null) {
+                    super.sendError(sc);
+                } else {
+                    super.sendError(sc, msg);
+                }
+                return;
+            }
+
+            if (isCommitted()) {
+                throw new IllegalStateException("Cannot call sendError() after the response has been committed");
+            }
+            errorStatus = sc;
+            errorMessage = msg;
+            setStatus(sc);
+        }
+    }
+}
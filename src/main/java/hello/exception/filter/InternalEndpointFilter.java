@@ -0,0 +1,66 @@
+package hello.exception.filter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+//운영자용 /internal/** (지표, 오류 집계, 저널, 메시지 다시 읽기)는 서비스 포트에 같이 떠 있어서
+//internal.endpoints.enabled=true 로 켜도 허용한 주소(기본 루프백)에서 온 요청만 통과, 나머지는 없는 경로처럼 404
+//꺼져 있으면(기본) 컨트롤러 자체가 안 만들어지고 이 필터도 등록 안 함
+
+//X-Forwarded-For 같은 헤더는 안 믿고 연결한 쪽 주소(getRemoteAddr)만 봄
+//프록시 뒤라면 프록시에서 /internal 을 막을 것
+//등록은 WebConfig, 서킷 브레이커보다도 앞
+@Slf4j
+public class InternalEndpointFilter implements Filter {
+
+    private final Set<InetAddress> allowedAddresses;
+
+    public InternalEndpointFilter(List<String> allowedAddresses) {
+        Set<InetAddress> addresses = new HashSet<>();
+        for (String address : allowedAddresses) {
+            addresses.add(parse(address.trim()));
+        }
+        this.allowedAddresses = Set.copyOf(addresses);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        if (!isAllowed(httpRequest.getRemoteAddr())) {
+            log.warn("internal endpoint denied remote={} uri={}", httpRequest.getRemoteAddr(), httpRequest.getRequestURI());
+            ((HttpServletResponse) response).sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private boolean isAllowed(String remoteAddr) {
+        if (remoteAddr == null) {
+            return false;
+        }
+        try {
+            //숫자 주소라 DNS 조회는 안 함
+            return allowedAddresses.contains(InetAddress.getByName(remoteAddr));
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private static InetAddress parse(String address) {
+        try {
+            return InetAddress.getByName(address);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("internal.endpoints.allowed-addresses 주소가 잘못됨: " + address, e);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package hello.exception.filter;
 
+import hello.exception.accesslog.AccessLog;
+import hello.exception.logid.LogIdGenerator;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.UUID;
 
 //서버 내부에서 오류 페이지를 호출한다고 해서 해당
 //필터나 인터셉트가 한번 더 호출되는 것은 매우 비효율적, 경우에 따라서 중복호출되면 안되는 필터도 있을 수 있음
@@ -38,6 +40,17 @@ import java.util.UUID;
 @Slf4j
 public class LogFilter implements Filter {
 
+    //UUID 대신 LogIdGenerator, 인터셉터와 같은 id 를 request attribute 로 나눠 씀
+    private final LogIdGenerator logIdGenerator;
+
+    //켜져 있으면 log.info 대신 비동기 접근 로그로
+    private final AccessLog accessLog;
+
+    public LogFilter(LogIdGenerator logIdGenerator, AccessLog accessLog) {
+        this.logIdGenerator = logIdGenerator;
+        this.accessLog = accessLog;
+    }
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         log.info("log filter init");
@@ -49,10 +62,14 @@ public class LogFilter implements Filter {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         String requestURI = httpRequest.getRequestURI();
 
-        String uuid = UUID.randomUUID().toString();
+        //ERROR 디스패치에서도 같은 request 라 원래 요청의 id 가 그대로 나옴
+        String logId = logIdGenerator.obtain(httpRequest, (HttpServletResponse) response);
+        long startNanos = System.nanoTime();
 
         try {
-            log.info("REQUEST  [{}][{}][{}]", uuid, request.getDispatcherType(), requestURI);
+            if (!accessLog.isEnabled()) {
+                log.info("REQUEST  [{}][{}][{}]", logId, request.getDispatcherType(), requestURI);
+            }
             chain.doFilter(request, response);
 
         } catch (Exception e) {
@@ -60,7 +77,14 @@ public class LogFilter implements Filter {
             throw e;
 
         } finally {
-            log.info("RESPONSE [{}][{}][{}]", uuid, request.getDispatcherType(), requestURI);
+            if (accessLog.isEnabled()) {
+                //필터는 핸들러를 모름
+                accessLog.append(logId, request.getDispatcherType(), requestURI, null,
+                        ((HttpServletResponse) response).getStatus(), System.nanoTime() - startNanos);
+            } else {
+                log.info("RESPONSE [{}][{}][{}]", logId, request.getDispatcherType(), requestURI);
+            }
+            logIdGenerator.clear();
         }
 
     }
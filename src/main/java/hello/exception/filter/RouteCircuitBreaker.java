@@ -0,0 +1,145 @@
+package hello.exception.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 경로(매핑 패턴) 하나의 서킷 브레이커
+ *
+ * CLOSED    평소, 최근 window 동안 요청이 minimumRequests 이상이고 5xx 비율이 threshold 이상이면 OPEN
+ * OPEN      openMillis 동안 DispatcherServlet 에 안 보내고 바로 503
+ * HALF_OPEN 시간 지나면 probes 개만 보내봄, 하나라도 성공하면 CLOSED, 실패하면 다시 OPEN
+ *           보낸 probe 결과가 openMillis 안에 안 돌아오면(끊긴 비동기 요청 등) probe 를 다시 나눠줌, HALF_OPEN 에 갇히지 않게
+ */
+class RouteCircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    //이번 요청을 보낼지
+    enum Permit {
+        PASS, PROBE, REJECT
+    }
+
+    private final String route;
+    private final SlidingWindow window;
+    private final double threshold;
+    private final int minimumRequests;
+    private final long openMillis;
+    private final int maxProbes;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private volatile long halfOpenedAt;
+    private final AtomicInteger probes = new AtomicInteger();
+
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    RouteCircuitBreaker(String route, int windowSeconds, double threshold, int minimumRequests, long openMillis, int maxProbes) {
+        this.route = route;
+        this.window = new SlidingWindow(windowSeconds);
+        this.threshold = threshold;
+        this.minimumRequests = minimumRequests;
+        this.openMillis = openMillis;
+        this.maxProbes = maxProbes;
+    }
+
+    String getRoute() {
+        return route;
+    }
+
+    boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    Permit acquire(long nowMillis) {
+        State current = state;
+        if (current == State.CLOSED) {
+            return Permit.PASS;
+        }
+        if (current == State.OPEN) {
+            if (nowMillis - openedAt < openMillis) {
+                shed.increment();
+                return Permit.REJECT;
+            }
+            halfOpen(nowMillis);
+        }
+        if (probes.incrementAndGet() <= maxProbes) {
+            return Permit.PROBE;
+        }
+        if (nowMillis - halfOpenedAt >= openMillis && restartProbes(nowMillis) && probes.incrementAndGet() <= maxProbes) {
+            return Permit.PROBE;
+        }
+        shed.increment();
+        return Permit.REJECT;
+    }
+
+    void onResult(Permit permit, boolean failure, long nowMillis) {
+        if (permit == Permit.PROBE) {
+            synchronized (this) {
+                if (state != State.HALF_OPEN) {
+                    return;
+                }
+                if (failure) {
+                    open(nowMillis);
+                } else {
+                    window.reset();
+                    state = State.CLOSED;
+                }
+            }
+            return;
+        }
+
+        window.record(failure, nowMillis);
+        if (failure && state == State.CLOSED) {
+            long[] totals = window.totals(nowMillis);
+            if (totals[0] >= minimumRequests && (double) totals[1] / totals[0] >= threshold) {
+                synchronized (this) {
+                    if (state == State.CLOSED) {
+                        open(nowMillis);
+                    }
+                }
+            }
+        }
+    }
+
+    Map<String, Object> snapshot(long nowMillis) {
+        long[] totals = window.totals(nowMillis);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", state);
+        result.put("requests", totals[0]);
+        result.put("failures", totals[1]);
+        result.put("failureRate", totals[0] == 0 ? 0.0 : (double) totals[1] / totals[0]);
+        result.put("shed", shed.sum());
+        result.put("opened", opened.sum());
+        return result;
+    }
+
+    private void open(long nowMillis) {
+        openedAt = nowMillis;
+        state = State.OPEN;
+        opened.increment();
+    }
+
+    private synchronized void halfOpen(long nowMillis) {
+        if (state == State.OPEN) {
+            halfOpenedAt = nowMillis;
+            probes.set(0);
+            state = State.HALF_OPEN;
+        }
+    }
+
+    //HALF_OPEN 인데 probe 를 다 나눠주고 openMillis 가 지나도록 결과가 없으면 새로 나눠줌, 먼저 온 한 스레드만
+    private synchronized boolean restartProbes(long nowMillis) {
+        if (state != State.HALF_OPEN || nowMillis - halfOpenedAt < openMillis) {
+            return state == State.HALF_OPEN && probes.get() < maxProbes;
+        }
+        halfOpenedAt = nowMillis;
+        probes.set(0);
+        return true;
+    }
+}
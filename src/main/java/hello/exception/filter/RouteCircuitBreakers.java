@@ -0,0 +1,84 @@
+package hello.exception.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 경로(매핑 패턴)별 RouteCircuitBreaker 모음, CircuitBreakerFilter 와 /internal/metrics/circuit-breakers 가 사용
+ *
+ * 필터는 DispatcherServlet 앞이라 요청이 어느 매핑으로 갈지 모름
+ * 요청이 끝난 뒤 BEST_MATCHING_PATTERN 으로 경로별 결과를 기록하고
+ * 들어올 때는 닫혀있지 않은(OPEN, HALF_OPEN) 경로가 있을 때만 요청 경로를 맞춰본다, 평소에는 아무것도 안 함
+ * 맞는 패턴이 여러 개면 DispatcherServlet 처럼 제일 구체적인 것 (/api/members/stream 이 /api/members/{id} 보다 먼저)
+ * 그 패턴이 닫혀있으면 덜 구체적인 패턴이 열려있어도 통과
+ */
+@Component
+public class RouteCircuitBreakers {
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentMap<String, RouteCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final int windowSeconds;
+    private final double threshold;
+    private final int minimumRequests;
+    private final long openMillis;
+    private final int probes;
+
+    public RouteCircuitBreakers(@Value("${circuit-breaker.window-seconds:10}") int windowSeconds,
+                                @Value("${circuit-breaker.failure-rate-threshold:0.5}") double threshold,
+                                @Value("${circuit-breaker.minimum-requests:20}") int minimumRequests,
+                                @Value("${circuit-breaker.open-millis:5000}") long openMillis,
+                                @Value("${circuit-breaker.half-open-probes:3}") int probes) {
+        this.windowSeconds = windowSeconds;
+        this.threshold = threshold;
+        this.minimumRequests = minimumRequests;
+        this.openMillis = openMillis;
+        this.probes = probes;
+    }
+
+    //이 경로(디코딩된 lookup path)에 제일 구체적으로 맞는 패턴의 브레이커가 닫혀있지 않으면 그것, 아니면 null
+    RouteCircuitBreaker findNotClosed(String path) {
+        if (allClosed()) {
+            return null;
+        }
+        Comparator<String> specificity = pathMatcher.getPatternComparator(path);
+        RouteCircuitBreaker best = null;
+        for (RouteCircuitBreaker breaker : breakers.values()) {
+            if (pathMatcher.match(breaker.getRoute(), path)
+                    && (best == null || specificity.compare(breaker.getRoute(), best.getRoute()) < 0)) {
+                best = breaker;
+            }
+        }
+        return best == null || best.isClosed() ? null : best;
+    }
+
+    private boolean allClosed() {
+        for (RouteCircuitBreaker breaker : breakers.values()) {
+            if (!breaker.isClosed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //매핑 패턴 수 만큼만 생김
+    RouteCircuitBreaker breaker(String route) {
+        return breakers.computeIfAbsent(route,
+                key -> new RouteCircuitBreaker(key, windowSeconds, threshold, minimumRequests, openMillis, probes));
+    }
+
+    public Map<String, Object> snapshot() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> result = new TreeMap<>();
+        breakers.forEach((route, breaker) -> result.put(route, breaker.snapshot(now)));
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package hello.exception.filter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 최근 N 초 동안의 요청 수, 실패 수
+ * 1 초짜리 칸을 빙 돌려 쓰고, 칸의 시각이 지났으면 비우고 다시 셈
+ * 칸을 비우는 순간 들어온 요청 몇 개가 빠질 수 있지만 비율을 보는 용도라 괜찮음
+ */
+class SlidingWindow {
+
+    private static final long BUCKET_MILLIS = 1000;
+
+    private final int buckets;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray requests;
+    private final AtomicLongArray failures;
+
+    SlidingWindow(int seconds) {
+        this.buckets = seconds;
+        this.epochs = new AtomicLongArray(seconds);
+        this.requests = new AtomicLongArray(seconds);
+        this.failures = new AtomicLongArray(seconds);
+    }
+
+    void record(boolean failure, long nowMillis) {
+        long epoch = nowMillis / BUCKET_MILLIS;
+        int index = (int) (epoch % buckets);
+
+        long bucketEpoch = epochs.get(index);
+        if (bucketEpoch != epoch && epochs.compareAndSet(index, bucketEpoch, epoch)) {
+            requests.set(index, 0);
+            failures.set(index, 0);
+        }
+
+        requests.incrementAndGet(index);
+        if (failure) {
+            failures.incrementAndGet(index);
+        }
+    }
+
+    //{요청 수, 실패 수}
+    long[] totals(long nowMillis) {
+        long oldest = nowMillis / BUCKET_MILLIS - buckets;
+        long total = 0;
+        long failed = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (epochs.get(i) > oldest) {
+                total += requests.get(i);
+                failed += failures.get(i);
+            }
+        }
+        return new long[]{total, failed};
+    }
+
+    void reset() {
+        for (int i = 0; i < buckets; i++) {
+            epochs.set(i, 0);
+            requests.set(i, 0);
+            failures.set(i, 0);
+        }
+    }
+}
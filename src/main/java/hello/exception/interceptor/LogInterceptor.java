@@ -1,29 +1,67 @@
 package hello.exception.interceptor;
 
+import hello.exception.accesslog.AccessLog;
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.journal.ErrorJournal;
+import hello.exception.logid.LogIdGenerator;
+import hello.exception.metrics.RequestMetrics;
+import hello.exception.resolver.DispatchTableHandlerExceptionResolver;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.UUID;
 
 //인터셉터로 중복 호출 제거
 //이거도 webconfig에 등록
+//로그 + 경로별 지연 시간 히스토그램, 예외 카운터(RequestMetrics) + 오류 저널(ErrorJournal)
+//비동기 요청(@AsyncVariant)이면 REQUEST 에서 preHandle, ASYNC 디스패치에서 afterCompletion
 @Slf4j
-public class LogInterceptor implements HandlerInterceptor {
+public class LogInterceptor implements AsyncHandlerInterceptor {
 
-    public static final String LOG_ID = "logId";
+    public static final String LOG_ID = LogIdGenerator.LOG_ID;
+    public static final String START_NANOS = LogInterceptor.class.getName() + ".startNanos";
+
+    //UUID 대신, LogFilter 가 먼저 만든 id 가 있으면 그걸 같이 씀
+    private final LogIdGenerator logIdGenerator;
+
+    //켜져 있으면 log.info 대신 비동기 접근 로그로
+    private final AccessLog accessLog;
+
+    //경로별 지연 시간, 예외 카운터
+    private final RequestMetrics requestMetrics;
+
+    //같은 예외가 쏟아지면 스택 트레이스는 한번만
+    private final ErrorLog errorLog;
+
+    //오류 난 요청은 mmap 저널에도 한 건씩
+    private final ErrorJournal errorJournal;
+
+    public LogInterceptor(LogIdGenerator logIdGenerator, AccessLog accessLog, RequestMetrics requestMetrics, ErrorLog errorLog,
+                          ErrorJournal errorJournal) {
+        this.logIdGenerator = logIdGenerator;
+        this.accessLog = accessLog;
+        this.requestMetrics = requestMetrics;
+        this.errorLog = errorLog;
+        this.errorJournal = errorJournal;
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
 
         String requestURI = request.getRequestURI();
 
-        String uuid = UUID.randomUUID().toString();
-        request.setAttribute(LOG_ID, uuid);
+        String logId = logIdGenerator.obtain(request, response);
+        //ASYNC 디스패치에서 다시 불려도 처음 요청 시작 시간 유지
+        if (request.getAttribute(START_NANOS) == null) {
+            request.setAttribute(START_NANOS, System.nanoTime());
+        }
 
-        log.info("REQUEST  [{}][{}][{}][{}]", uuid, request.getDispatcherType(), requestURI, handler);
+        if (!accessLog.isEnabled()) {
+            log.info("REQUEST  [{}][{}][{}][{}]", logId, request.getDispatcherType(), requestURI, handler);
+        }
 
         return true;
     }
@@ -32,7 +70,16 @@ public class LogInterceptor implements HandlerInterceptor {
     @Override
     public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
 
-        log.info("postHandle [{}]", modelAndView);
+        if (!accessLog.isEnabled()) {
+            log.info("postHandle [{}]", modelAndView);
+        }
+    }
+
+    //비동기 처리 시작하고 요청 스레드 반납할 때, afterCompletion 은 ASYNC 디스패치 끝나고
+    //요청 스레드는 다른 요청에 재사용되니까 MDC 만 비워줌
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        logIdGenerator.clear();
     }
 
     //항상 호출
@@ -42,10 +89,31 @@ public class LogInterceptor implements HandlerInterceptor {
         String requestURI = request.getRequestURI();
         String logId = (String)request.getAttribute(LOG_ID);
 
-        log.info("RESPONSE [{}][{}][{}]", logId, request.getDispatcherType(), requestURI);
+        Long startNanos = (Long) request.getAttribute(START_NANOS);
+        long duration = startNanos == null ? 0 : System.nanoTime() - startNanos;
+
+        //실제 uri 말고 매핑 패턴으로, 리졸버가 처리한 예외도 같이
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : RequestMetrics.UNMAPPED;
+        Exception failure = ex != null ? ex : (Exception) request.getAttribute(DispatchTableHandlerExceptionResolver.RESOLVED_EXCEPTION);
+        requestMetrics.record(route, duration, response.getStatus(), failure);
+
+        //리졸버가 처리 못하고 WAS 로 올라가는 예외는 아직 상태 코드가 안 정해져서 500 으로
+        if (failure != null || response.getStatus() >= 400) {
+            errorJournal.append(logId, route, failure, ex != null ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus());
+        }
+
+        if (accessLog.isEnabled()) {
+            //요청 스레드는 큐에 넣기만, 파일 쓰기는 백그라운드 스레드가
+            accessLog.append(logId, request.getDispatcherType(), requestURI, handler, response.getStatus(), duration);
+        } else {
+            log.info("RESPONSE [{}][{}][{}]", logId, request.getDispatcherType(), requestURI);
+        }
 
         if (ex != null) {
-            log.error("afterCompletion error!!", ex);
+            errorLog.error(log, "afterCompletion error!!", ex);
         }
+
+        logIdGenerator.clear();
     }
 }
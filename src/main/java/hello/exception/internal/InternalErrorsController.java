@@ -0,0 +1,75 @@
+package hello.exception.internal;
+
+import hello.exception.errorstats.ErrorStats;
+import hello.exception.errorstats.Resolution;
+import hello.exception.journal.ErrorEvent;
+import hello.exception.journal.ErrorJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ErrorStats 조회, InternalMetricsController 처럼 운영자용
+ *
+ * /internal/errors/top?by=type&resolution=1m&points=60&n=10
+ * by: type, route, status, fingerprint, series(네 개 다)
+ * /internal/errors/series?resolution=1s&points=60&type=java.lang.IllegalArgumentException
+ * resolution: 1s(최대 60칸), 1m(최대 60칸), 1h(최대 24칸), points 는 최근 몇 칸
+ * 잘못된 by, resolution 은 IllegalArgumentException -> 400
+ *
+ * /internal/errors/journal?since=<epochMillis>&limit=100 은 ErrorJournal 에서 다시 읽은 개별 기록
+ * limit 은 MAX_JOURNAL_LIMIT 까지, 그보다 크게 줘도 그만큼만 (응답 하나에 세그먼트 전체를 올리지 않게)
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "internal.endpoints.enabled", havingValue = "true")
+@RequestMapping("/internal/errors")
+public class InternalErrorsController {
+
+    private static final int MAX_JOURNAL_LIMIT = 1000;
+
+    private final ErrorStats errorStats;
+    private final ErrorJournal errorJournal;
+
+    //시리즈 수, 시리즈가 넘쳐서 OTHER 로 모은 횟수
+    @GetMapping
+    public Map<String, Object> stats() {
+        return errorStats.stats();
+    }
+
+    @GetMapping("/top")
+    public List<Map<String, Object>> top(@RequestParam(defaultValue = "type") String by,
+                                         @RequestParam(defaultValue = "1m") String resolution,
+                                         @RequestParam(defaultValue = "60") int points,
+                                         @RequestParam(defaultValue = "10") int n) {
+        return errorStats.top(Resolution.from(resolution), points, ErrorStats.Dimension.from(by), n);
+    }
+
+    @GetMapping("/series")
+    public Map<String, Object> series(@RequestParam(defaultValue = "1s") String resolution,
+                                      @RequestParam(defaultValue = "60") int points,
+                                      @RequestParam(required = false) String type,
+                                      @RequestParam(required = false) String route,
+                                      @RequestParam(required = false) Integer status) {
+        return errorStats.timeSeries(Resolution.from(resolution), points, type, route, status);
+    }
+
+    //since 이후 기록 중 마지막 limit 개, 오래된 것부터
+    @GetMapping("/journal")
+    public List<ErrorEvent> journal(@RequestParam(defaultValue = "0") long since,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        return errorJournal.recent(since, Math.min(limit, MAX_JOURNAL_LIMIT));
+    }
+
+    //현재 세그먼트, 기록/버린 개수
+    @GetMapping("/journal/stats")
+    public Map<String, Object> journalStats() {
+        return errorJournal.stats();
+    }
+}
@@ -0,0 +1,67 @@
+package hello.exception.internal;
+
+import hello.exception.message.ErrorMessageCatalog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 오류 메시지 카탈로그(ErrorMessageCatalog) 상태, 다시 읽기
+ * InternalMetricsController 처럼 운영자용
+ *
+ * POST /internal/messages/reload 는 messages*.properties 를 바꾼 다음 바로 반영하고 싶을 때
+ * 검사에 걸리면 reloaded=false, 예전 문구 그대로
+ * 다시 읽기는 파일 읽기 + 검사 + 클래스패스 스캔이라 error-messages.reload-min-interval-millis 안에 또 부르면 429 (Retry-After)
+ */
+@RestController
+@ConditionalOnProperty(name = "internal.endpoints.enabled", havingValue = "true")
+@RequestMapping("/internal/messages")
+public class InternalMessagesController {
+
+    private final ErrorMessageCatalog errorMessageCatalog;
+    private final long minIntervalMillis;
+
+    //마지막으로 다시 읽기를 시작한 시각
+    private final AtomicLong lastReload = new AtomicLong(Long.MIN_VALUE / 2);
+
+    public InternalMessagesController(ErrorMessageCatalog errorMessageCatalog,
+                                      @Value("${error-messages.reload-min-interval-millis:1000}") long minIntervalMillis) {
+        this.errorMessageCatalog = errorMessageCatalog;
+        this.minIntervalMillis = minIntervalMillis;
+    }
+
+    //세대 번호, 로케일, 코드 수, 다시 읽은/실패한 횟수
+    @GetMapping
+    public Map<String, Object> stats() {
+        return errorMessageCatalog.stats();
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        long now = System.currentTimeMillis();
+        long last = lastReload.get();
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (now - last < minIntervalMillis || !lastReload.compareAndSet(last, now)) {
+            long waitMillis = Math.max(0, minIntervalMillis - (now - lastReload.get()));
+            result.put("reloaded", false);
+            result.put("throttled", true);
+            result.putAll(errorMessageCatalog.stats());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (waitMillis + 999) / 1000)))
+                    .body(result);
+        }
+        result.put("reloaded", errorMessageCatalog.reload());
+        result.putAll(errorMessageCatalog.stats());
+        return ResponseEntity.ok(result);
+    }
+}
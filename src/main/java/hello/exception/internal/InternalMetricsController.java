@@ -0,0 +1,94 @@
+package hello.exception.internal;
+
+import hello.exception.accesslog.AccessLog;
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.filter.RouteCircuitBreakers;
+import hello.exception.member.MemberLookup;
+import hello.exception.metrics.RequestMetrics;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.precheck.ParameterPrecheck;
+import hello.exception.problem.ProblemWriter;
+import hello.exception.validation.CompiledValidator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 오류 처리 경로에서 모은 내부 지표를 json 으로 보여주는
+ * 운영자가 보는 용도, 외부에 노출하면 안됨
+ * internal.endpoints.enabled=true 일 때만 만들어지고, 그때도 InternalEndpointFilter 가 허용한 주소(기본 루프백)에서만
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "internal.endpoints.enabled", havingValue = "true")
+@RequestMapping("/internal/metrics")
+public class InternalMetricsController {
+
+    private final ProblemWriter problemWriter;
+    private final AcceptHeaderNegotiator acceptHeaderNegotiator;
+    private final AccessLog accessLog;
+    private final RequestMetrics requestMetrics;
+    private final MemberLookup memberLookup;
+    private final RouteCircuitBreakers routeCircuitBreakers;
+    private final ErrorLog errorLog;
+    private final ParameterPrecheck parameterPrecheck;
+    private final CompiledValidator compiledValidator;
+
+    //고정 detail 바디 캐시 적중률, 매번 직렬화한 횟수
+    @GetMapping("/error-body-cache")
+    public Map<String, Object> errorBodyCache() {
+        return problemWriter.stats();
+    }
+
+    //해석 결과를 기억해둔 Accept 헤더 종류 수
+    @GetMapping("/accept-negotiation")
+    public Map<String, Object> acceptNegotiation() {
+        return Map.of("cachedHeaders", acceptHeaderNegotiator.cachedHeaderCount());
+    }
+
+    //큐 깊이, 버린 개수
+    @GetMapping("/access-log")
+    public Map<String, Object> accessLog() {
+        return accessLog.stats();
+    }
+
+    //경로(매핑 패턴)별 p50/p99/p999, 예외 타입:상태 코드별 횟수
+    @GetMapping("/routes")
+    public Map<String, Object> routes() {
+        return requestMetrics.snapshot();
+    }
+
+    //회원 조회 캐시 적중률, 부정 캐시로 막은 횟수, 밀려난 개수
+    @GetMapping("/member-cache")
+    public Map<String, Object> memberCache() {
+        return memberLookup.stats();
+    }
+
+    //경로별 상태(CLOSED/OPEN/HALF_OPEN), 최근 window 요청/실패 수, 바로 503 으로 버린 수, 열린 횟수
+    @GetMapping("/circuit-breakers")
+    public Map<String, Object> circuitBreakers() {
+        return routeCircuitBreakers.snapshot();
+    }
+
+    //지문 종류 수, 스택 트레이스 안 찍고 넘어간 횟수
+    @GetMapping("/error-log")
+    public Map<String, Object> errorLog() {
+        return errorLog.stats();
+    }
+
+    //검사하는 핸들러 메서드 수, 바인딩 전에 400 으로 끝낸 요청 수
+    @GetMapping("/param-precheck")
+    public Map<String, Object> paramPrecheck() {
+        return parameterPrecheck.stats();
+    }
+
+    //@Valid 검증 횟수, 실패 횟수, 제약 메시지 캐시 적중률
+    @GetMapping("/validation")
+    public Map<String, Object> validation() {
+        return compiledValidator.stats();
+    }
+}
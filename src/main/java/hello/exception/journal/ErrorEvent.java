@@ -0,0 +1,17 @@
+package hello.exception.journal;
+
+import lombok.Value;
+
+/**
+ * 저널에서 다시 읽은 오류 한 건
+ * exception, message 는 예외 없이 sendError 로만 끝난 요청이면 null
+ */
+@Value
+public class ErrorEvent {
+    long timestamp;
+    String logId;
+    String route;
+    String exception;
+    int status;
+    String message;
+}
@@ -0,0 +1,202 @@
+package hello.exception.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 오류 이벤트 저널, 로그 줄 말고 나중에 다시 읽을 수 있는 바이너리 파일로 남긴다
+ *
+ * mmap 한 세그먼트 파일(JournalSegment)에 고정 길이 레코드로 이어 붙이기만 함
+ * 요청 스레드는 메모리에 쓰고 끝, write/fsync 같은 시스템 콜은 없다
+ * 프로세스가 죽어도 mmap 한 내용은 OS 가 파일에 써줌, OS 까지 죽는 경우를 위해 flush-millis 마다 force
+ *
+ * 세그먼트가 차면 다음 순번 파일로 넘어가고, max-segments 개보다 오래된 건 지운다
+ * 시작할 때는 항상 새 세그먼트, 이전 실행의 세그먼트는 그대로 두고 같이 읽힘
+ *
+ * 다시 읽기는 scan(), /internal/errors/journal, 서버 밖에서는 ErrorJournalCli
+ * 기본은 꺼짐(error-journal.enabled=false), 꺼져 있으면 아무것도 안 함
+ * 예외 메시지가 그대로 파일에 남아서 디렉터리 권한, 보관 기간을 정한 뒤에 켠다
+ */
+@Slf4j
+@Component
+public class ErrorJournal {
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int stringBytesPerSegment;
+    private final int maxSegments;
+    private final int maxMessageBytes;
+    private final long flushMillis;
+
+    private volatile JournalSegment current;
+    //세그먼트를 못 만들면 그 뒤로는 버리기만
+    private volatile boolean broken;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rolled = new LongAdder();
+
+    private ScheduledExecutorService flushThread;
+
+    public ErrorJournal(@Value("${error-journal.enabled:false}") boolean enabled,
+                        @Value("${error-journal.dir:${java.io.tmpdir}/hello-exception/error-journal}") String directory,
+                        @Value("${error-journal.records-per-segment:65536}") int recordsPerSegment,
+                        @Value("${error-journal.string-bytes-per-segment:8388608}") int stringBytesPerSegment,
+                        @Value("${error-journal.max-segments:16}") int maxSegments,
+                        @Value("${error-journal.max-message-bytes:256}") int maxMessageBytes,
+                        @Value("${error-journal.flush-millis:1000}") long flushMillis) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.recordsPerSegment = recordsPerSegment;
+        this.stringBytesPerSegment = stringBytesPerSegment;
+        this.maxSegments = maxSegments;
+        this.maxMessageBytes = maxMessageBytes;
+        this.flushMillis = flushMillis;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> existing = JournalReader.segments(directory);
+        long sequence = existing.isEmpty() ? 0 : JournalReader.sequence(existing.get(existing.size() - 1)) + 1;
+        current = JournalSegment.create(directory.resolve(JournalReader.fileName(sequence)), sequence, recordsPerSegment, stringBytesPerSegment);
+        deleteOldSegments();
+
+        flushThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "error-journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushThread.scheduleWithFixedDelay(() -> current.force(), flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        log.info("error journal {}", current.path());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flushThread != null) {
+            flushThread.shutdown();
+            current.force();
+        }
+    }
+
+    /**
+     * 오류 한 건 기록, ex 가 없으면 (sendError 로만 끝난) 예외 칸은 비워둠
+     */
+    public void append(String logId, String route, Throwable ex, int status) {
+        if (!enabled) {
+            return;
+        }
+        if (broken) {
+            dropped.increment();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String exception = ex == null ? null : ex.getClass().getName();
+        String message = ex == null ? null : ex.getMessage();
+
+        //다음 세그먼트로 넘어간 직후 다른 스레드들이 바로 채워버리는 경우까지 한번 더
+        for (int attempt = 0; attempt < 3; attempt++) {
+            JournalSegment segment = current;
+            if (segment.append(now, logId, route, exception, status, message, maxMessageBytes)) {
+                appended.increment();
+                return;
+            }
+            if (!roll(segment)) {
+                break;
+            }
+        }
+        dropped.increment();
+    }
+
+    /**
+     * sinceMillis 이후 기록을 세그먼트 순서대로
+     */
+    public void scan(long sinceMillis, Consumer<ErrorEvent> consumer) {
+        try {
+            JournalReader.scan(directory, sinceMillis, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //sinceMillis 이후 기록 중 마지막 limit 개
+    public List<ErrorEvent> recent(long sinceMillis, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Deque<ErrorEvent> events = new ArrayDeque<>(Math.min(limit, 1024));
+        scan(sinceMillis, event -> {
+            if (events.size() == limit) {
+                events.pollFirst();
+            }
+            events.addLast(event);
+        });
+        return new ArrayList<>(events);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("directory", directory.toAbsolutePath().toString());
+        JournalSegment segment = current;
+        if (segment != null) {
+            result.put("segment", segment.path().getFileName().toString());
+            result.put("segmentRecords", segment.records());
+        }
+        result.put("appended", appended.sum());
+        result.put("dropped", dropped.sum());
+        result.put("rolled", rolled.sum());
+        return result;
+    }
+
+    //꽉 찬 세그먼트를 본 스레드 중 하나만 다음 세그먼트를 만든다
+    private synchronized boolean roll(JournalSegment full) {
+        if (current != full) {
+            return true;
+        }
+        try {
+            full.force();
+            long sequence = full.sequence() + 1;
+            current = JournalSegment.create(directory.resolve(JournalReader.fileName(sequence)), sequence, recordsPerSegment, stringBytesPerSegment);
+            rolled.increment();
+            deleteOldSegments();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            broken = true;
+            log.error("error journal segment 생성 실패, 이후 기록은 버림 dir={}", directory, e);
+            return false;
+        }
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = JournalReader.segments(directory);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+}
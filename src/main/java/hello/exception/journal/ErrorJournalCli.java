@@ -0,0 +1,73 @@
+package hello.exception.journal;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 장애 뒤에 서버 밖에서 저널을 읽어보는 용도, 스프링 안 띄움
+ *
+ * ./gradlew errorJournal --args="<journal-dir> [--since=<epochMillis>] [--route=<매핑 패턴>] [--status=<코드>] [--summary]"
+ * 기본은 한 줄에 한 건(시각, 로그 id, 상태, 경로, 예외, 메시지 탭 구분)
+ * --summary 면 경로 + 예외 + 상태 별 횟수를 많은 순서로
+ */
+public class ErrorJournalCli {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: ErrorJournalCli <journal-dir> [--since=<epochMillis>] [--route=<pattern>] [--status=<code>] [--summary]");
+            System.exit(2);
+        }
+
+        Path directory = Paths.get(args[0]);
+        long since = 0;
+        String route = null;
+        Integer status = null;
+        boolean summary = false;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--since=")) {
+                since = Long.parseLong(arg.substring("--since=".length()));
+            } else if (arg.startsWith("--route=")) {
+                route = arg.substring("--route=".length());
+            } else if (arg.startsWith("--status=")) {
+                status = Integer.valueOf(arg.substring("--status=".length()));
+            } else if (arg.equals("--summary")) {
+                summary = true;
+            } else {
+                throw new IllegalArgumentException("모르는 옵션: " + arg);
+            }
+        }
+
+        PrintStream out = System.out;
+        String routeFilter = route;
+        Integer statusFilter = status;
+        Map<String, Long> counts = new HashMap<>();
+        boolean printSummary = summary;
+
+        JournalReader.scan(directory, since, event -> {
+            if (routeFilter != null && !routeFilter.equals(event.getRoute())) {
+                return;
+            }
+            if (statusFilter != null && statusFilter != event.getStatus()) {
+                return;
+            }
+            if (printSummary) {
+                counts.merge(event.getRoute() + "\t" + event.getException() + "\t" + event.getStatus(), 1L, Long::sum);
+                return;
+            }
+            out.println(Instant.ofEpochMilli(event.getTimestamp()) + "\t" + event.getLogId() + "\t" + event.getStatus()
+                    + "\t" + event.getRoute() + "\t" + event.getException() + "\t" + event.getMessage());
+        });
+
+        if (printSummary) {
+            counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .forEach(entry -> out.println(entry.getValue() + "\t" + entry.getKey()));
+        }
+    }
+}
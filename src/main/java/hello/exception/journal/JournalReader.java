@@ -0,0 +1,136 @@
+package hello.exception.journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static hello.exception.journal.JournalSegment.*;
+
+/**
+ * 저널 디렉토리를 읽기 전용으로 mmap 해서 다시 읽는
+ * 실행 중인 ErrorJournal 도, 서버 밖의 ErrorJournalCli 도 이걸 쓴다
+ *
+ * 세그먼트는 이름(순번) 순서, 세그먼트 안에서는 자리 잡은 순서
+ * 시각이 0 인 레코드(아직 쓰는 중이거나 쓰다가 죽은)는 건너뜀
+ * 다음 세그먼트가 since 전에 만들어졌으면 그 세그먼트는 통째로 건너뜀
+ */
+public final class JournalReader {
+
+    static final String PREFIX = "errors-";
+    static final String SUFFIX = ".journal";
+
+    private JournalReader() {
+    }
+
+    public static void scan(Path directory, long sinceMillis, Consumer<ErrorEvent> consumer) throws IOException {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            try {
+                if (i + 1 < segments.size() && createdAt(segments.get(i + 1)) <= sinceMillis) {
+                    continue;
+                }
+                scanSegment(segments.get(i), sinceMillis, consumer);
+            } catch (NoSuchFileException e) {
+                //읽는 사이에 보관 개수 넘어서 지워진 세그먼트
+            }
+        }
+    }
+
+    public static void scanSegment(Path segment, long sinceMillis, Consumer<ErrorEvent> consumer) throws IOException {
+        MappedByteBuffer buffer = map(segment);
+        int recordCapacity = buffer.getInt(HEADER_RECORD_CAPACITY);
+
+        //경로, 예외 클래스 이름은 같은 ref 가 계속 나와서
+        Map<Integer, String> names = new HashMap<>();
+
+        for (int record = 0; record < recordCapacity; record++) {
+            int at = HEADER_BYTES + record * RECORD_BYTES;
+            long timestamp = (long) LONG_VIEW.getAcquire(buffer, at + TIMESTAMP);
+            if (timestamp == 0 || timestamp < sinceMillis) {
+                continue;
+            }
+            String route = names.computeIfAbsent(buffer.getInt(at + ROUTE), ref -> string(buffer, ref));
+            String exception = names.computeIfAbsent(buffer.getInt(at + EXCEPTION), ref -> string(buffer, ref));
+            consumer.accept(new ErrorEvent(timestamp, logId(buffer, at + LOG_ID), route, exception,
+                    buffer.getInt(at + STATUS), string(buffer, buffer.getInt(at + MESSAGE))));
+        }
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        //순번이 0 채운 고정 길이라 이름 순서 = 만든 순서
+        segments.sort(null);
+        return segments;
+    }
+
+    static long sequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static String fileName(long sequence) {
+        return String.format("%s%020d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    private static long createdAt(Path segment) throws IOException {
+        return map(segment).getLong(HEADER_CREATED);
+    }
+
+    private static MappedByteBuffer map(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(HEADER_MAGIC) != MAGIC) {
+                throw new IOException("저널 세그먼트가 아님: " + segment);
+            }
+            if (buffer.getInt(HEADER_VERSION) != VERSION) {
+                throw new IOException("모르는 저널 버전 " + buffer.getInt(HEADER_VERSION) + ": " + segment);
+            }
+            return buffer;
+        }
+    }
+
+    private static String string(MappedByteBuffer buffer, int ref) {
+        if (ref == NONE) {
+            return null;
+        }
+        int length = buffer.getShort(ref) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(ref + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String logId(MappedByteBuffer buffer, int at) {
+        int length = 0;
+        while (length < LOG_ID_BYTES && buffer.get(at + length) != 0) {
+            length++;
+        }
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(at + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,190 @@
+package hello.exception.journal;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * 저널 세그먼트 파일 하나, 처음 만들 때 크기를 정하고 통째로 mmap
+ *
+ * [헤더 64바이트][레코드 64바이트 x record-capacity][문자열 영역 string-bytes]
+ * 헤더: magic, version, record-capacity, string-bytes, 만든 시각
+ * 레코드: 시각(8) 경로 ref(4) 예외 클래스 ref(4) 상태 코드(4) 메시지 ref(4) 로그 id(26, ascii) 나머지는 비움
+ * ref 는 문자열 영역 안의 위치, [길이 2바이트][utf-8] 로 들어있고 없으면 -1
+ * 경로와 예외 클래스 이름은 세그먼트마다 한번만 쓰고 같은 ref 를 계속 씀, 메시지는 매번
+ *
+ * 쓰는 쪽은 AtomicInteger 로 자리만 잡고 메모리에 바로 쓴다, 시스템 콜 없음
+ * 시각을 마지막에 release 로 써서 시각이 0 이 아닌 레코드만 다 쓴 레코드 (읽는 쪽은 acquire)
+ * 자리가 모자라면 false, ErrorJournal 이 다음 세그먼트를 만든다
+ */
+final class JournalSegment {
+
+    static final int MAGIC = 0x454A4E4C;
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 64;
+    static final int LOG_ID_BYTES = 26;
+
+    //헤더 안 위치
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_RECORD_CAPACITY = 8;
+    static final int HEADER_STRING_BYTES = 12;
+    static final int HEADER_CREATED = 16;
+
+    //레코드 안 위치
+    static final int TIMESTAMP = 0;
+    static final int ROUTE = 8;
+    static final int EXCEPTION = 12;
+    static final int STATUS = 16;
+    static final int MESSAGE = 20;
+    static final int LOG_ID = 24;
+
+    static final int NONE = -1;
+    private static final int FULL = -2;
+
+    //64비트 시각을 release/acquire 로 읽고 쓰기 위한
+    static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path path;
+    private final long sequence;
+    private final MappedByteBuffer buffer;
+    private final int recordCapacity;
+    private final int stringsEnd;
+
+    private final AtomicInteger nextRecord = new AtomicInteger();
+    private final AtomicInteger nextString;
+    private final ConcurrentMap<String, Integer> interned = new ConcurrentHashMap<>();
+
+    private JournalSegment(Path path, long sequence, MappedByteBuffer buffer, int recordCapacity, int stringBytes) {
+        this.path = path;
+        this.sequence = sequence;
+        this.buffer = buffer;
+        this.recordCapacity = recordCapacity;
+        int stringsStart = HEADER_BYTES + recordCapacity * RECORD_BYTES;
+        this.stringsEnd = stringsStart + stringBytes;
+        this.nextString = new AtomicInteger(stringsStart);
+    }
+
+    static JournalSegment create(Path path, long sequence, int recordCapacity, int stringBytes) throws IOException {
+        long size = HEADER_BYTES + (long) recordCapacity * RECORD_BYTES + stringBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("세그먼트가 너무 큼: " + size);
+        }
+
+        //채널은 닫아도 매핑은 남아있다
+        try (FileChannel channel = FileChannel.open(path, CREATE_NEW, READ, WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(HEADER_MAGIC, MAGIC);
+            buffer.putInt(HEADER_VERSION, VERSION);
+            buffer.putInt(HEADER_RECORD_CAPACITY, recordCapacity);
+            buffer.putInt(HEADER_STRING_BYTES, stringBytes);
+            buffer.putLong(HEADER_CREATED, System.currentTimeMillis());
+            return new JournalSegment(path, sequence, buffer, recordCapacity, stringBytes);
+        }
+    }
+
+    boolean append(long timestamp, String logId, String route, String exception, int status, String message, int maxMessageBytes) {
+        int routeRef = intern(route);
+        int exceptionRef = exception == null ? NONE : intern(exception);
+        if (routeRef == FULL || exceptionRef == FULL) {
+            return false;
+        }
+        int messageRef = message == null ? NONE : putString(utf8(message, maxMessageBytes));
+        if (messageRef == FULL) {
+            return false;
+        }
+
+        int record = nextRecord.getAndIncrement();
+        if (record >= recordCapacity) {
+            return false;
+        }
+
+        int at = HEADER_BYTES + record * RECORD_BYTES;
+        buffer.putInt(at + ROUTE, routeRef);
+        buffer.putInt(at + EXCEPTION, exceptionRef);
+        buffer.putInt(at + STATUS, status);
+        buffer.putInt(at + MESSAGE, messageRef);
+        int length = logId == null ? 0 : Math.min(logId.length(), LOG_ID_BYTES);
+        for (int i = 0; i < length; i++) {
+            char c = logId.charAt(i);
+            buffer.put(at + LOG_ID + i, (byte) (c < 128 ? c : '?'));
+        }
+        LONG_VIEW.setRelease(buffer, at + TIMESTAMP, timestamp);
+        return true;
+    }
+
+    //디스크로 내보내기, 플러시 스레드와 세그먼트 넘길 때만
+    void force() {
+        buffer.force();
+    }
+
+    int records() {
+        return Math.min(nextRecord.get(), recordCapacity);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    private int intern(String value) {
+        Integer ref = interned.get(value);
+        if (ref != null) {
+            return ref;
+        }
+        int written = putString(value.getBytes(StandardCharsets.UTF_8));
+        if (written == FULL) {
+            return FULL;
+        }
+        //동시에 같은 문자열을 쓰면 먼저 들어간 걸 쓰고 내 건 버림 (몇 바이트 낭비)
+        ref = interned.putIfAbsent(value, written);
+        return ref != null ? ref : written;
+    }
+
+    private int putString(byte[] bytes) {
+        int length = Math.min(bytes.length, 0xFFFF);
+        int at = nextString.getAndAdd(2 + length);
+        if (at < 0 || at + 2 + length > stringsEnd) {
+            return FULL;
+        }
+        buffer.putShort(at, (short) length);
+        ByteBuffer view = buffer.duplicate();
+        view.position(at + 2);
+        view.put(bytes, 0, length);
+        return at;
+    }
+
+    //글자 중간에서 자르지 않게
+    private static byte[] utf8(String message, int maxBytes) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= maxBytes) {
+            return bytes;
+        }
+        int length = maxBytes;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        byte[] truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+}
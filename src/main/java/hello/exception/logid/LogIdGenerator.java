@@ -0,0 +1,87 @@
+package hello.exception.logid;
+
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 요청 하나에 로그 id 하나
+ *
+ * UUID.randomUUID() 는 매번 SecureRandom 을 거쳐서 요청이 몰리면 여기서 경합이 생긴다
+ * 그리고 LogFilter, LogInterceptor 를 같이 쓰면 한 요청에 서로 다른 id 가 두 개 찍혔다
+ *
+ * ULID 처럼 앞 48비트는 밀리초 시간, 뒤 80비트는 스레드 번호(16) + 스레드별 카운터(64)
+ * 카운터는 스레드마다 한번만 랜덤으로 시작값을 정하고 이후 1씩 증가, 락도 SecureRandom 도 없다
+ * 시간이 앞에 있어서 문자열로 정렬하면 대략 발생 순서, 한 스레드 안에서는 항상 증가
+ * Crockford base32 26글자
+ *
+ * 요청 attribute LOG_ID 에 한번 만들어두면 필터, 인터셉터, 오류 페이지가 모두 같은 id 를 쓴다
+ * MDC 와 X-Request-Id 응답 헤더에도 넣어준다
+ */
+@Component
+public class LogIdGenerator {
+
+    public static final String LOG_ID = "logId";
+    public static final String MDC_KEY = "logId";
+    public static final String RESPONSE_HEADER = "X-Request-Id";
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final AtomicInteger THREAD_TAGS = new AtomicInteger();
+
+    private static final ThreadLocal<Sequence> SEQUENCE = ThreadLocal.withInitial(Sequence::new);
+
+    /**
+     * 요청에 이미 id 가 있으면 그걸, 없으면 새로 만들어서 request attribute, MDC, 응답 헤더에 넣는다
+     */
+    public String obtain(HttpServletRequest request, HttpServletResponse response) {
+        Object existing = request.getAttribute(LOG_ID);
+        if (existing != null) {
+            MDC.put(MDC_KEY, (String) existing);
+            return (String) existing;
+        }
+
+        String logId = nextId();
+        request.setAttribute(LOG_ID, logId);
+        MDC.put(MDC_KEY, logId);
+        if (!response.isCommitted()) {
+            response.setHeader(RESPONSE_HEADER, logId);
+        }
+        return logId;
+    }
+
+    public void clear() {
+        MDC.remove(MDC_KEY);
+    }
+
+    public String nextId() {
+        Sequence sequence = SEQUENCE.get();
+        long high = (System.currentTimeMillis() << 16) | sequence.threadTag;
+        long low = sequence.next();
+        return encode(high, low);
+    }
+
+    //128비트를 5비트씩 끊어서 26글자, 맨 앞 글자는 위의 2비트가 항상 0
+    private static String encode(long high, long low) {
+        char[] chars = new char[26];
+        for (int i = 25; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (low & 31)];
+            low = (low >>> 5) | (high << 59);
+            high >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static final class Sequence {
+        private final long threadTag = THREAD_TAGS.getAndIncrement() & 0xFFFF;
+        private long counter = ThreadLocalRandom.current().nextLong();
+
+        private long next() {
+            return counter++;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package hello.exception.member;
+
+import hello.exception.exception.BusinessExceptions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 예제용 저장소, 컨트롤러에 있던 id 규칙 그대로
+ *
+ * ex      -> RuntimeException, 서버 오류 (캐시 안함)
+ * bad     -> IllegalArgumentException, 클라이언트가 잘못 보낸 값
+ * user-ex -> UserException, 직접 만든 예외
+ * 나머지   -> 회원
+ *
+ * 내보내기는 member-0 ~ member-99999 를 만들어서
+ */
+@Component
+@RequiredArgsConstructor
+public class ExampleMemberBackend implements MemberBackend {
+
+    private static final int EXAMPLE_MEMBERS = 100_000;
+
+    private final BusinessExceptions businessExceptions;
+
+    @Override
+    public Member findMember(String id) {
+
+        if (id.equals("ex")) {
+            throw new RuntimeException("잘못된 사용자");
+        }
+        if (id.equals("bad")) {
+            throw new IllegalArgumentException("잘못된 입력 값");
+        }
+        if (id.equals("user-ex")) {
+            throw businessExceptions.user("사용자 오류");
+        }
+
+        return new Member(id, "hello " + id);
+    }
+
+    @Override
+    public Stream<Member> streamAll() {
+        return IntStream.range(0, EXAMPLE_MEMBERS)
+                .mapToObj(i -> new Member("member-" + i, "hello member-" + i));
+    }
+}
@@ -0,0 +1,13 @@
+package hello.exception.member;
+
+import lombok.Value;
+
+/**
+ * 회원 조회 결과, 컨트롤러들이 그대로 json 으로 응답 ({"memberId", "name"})
+ * MemberLookup 캐시에 들어가서 여러 요청이 같은 객체를 같이 쓰니까 불변
+ */
+@Value
+public class Member {
+    String memberId;
+    String name;
+}
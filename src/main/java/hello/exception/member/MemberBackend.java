@@ -0,0 +1,24 @@
+package hello.exception.member;
+
+import java.util.stream.Stream;
+
+/**
+ * 실제 회원 저장소, 조회 비용이 큰 쪽
+ * 없는 id 면 UserException, 형식이 잘못된 id 면 IllegalArgumentException 을 던진다 (MemberLookup 이 부정 캐시)
+ * 그 밖의 예외는 캐시하지 않고 그대로 전파
+ *
+ * 기본은 ExampleMemberBackend, 다른 구현을 쓰려면 @Primary 빈으로 등록
+ */
+public interface MemberBackend {
+
+    Member findMember(String id);
+
+    /**
+     * 전체 회원을 순서대로, 내보내기(/api/members/stream) 용
+     * 한번에 다 메모리에 올리지 말고 하나씩 꺼내오는 스트림으로 (커서, 페이지 조회 등)
+     * 다 쓰면 닫힘
+     */
+    default Stream<Member> streamAll() {
+        return Stream.empty();
+    }
+}
@@ -0,0 +1,25 @@
+package hello.exception.member;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+/**
+ * 회원 등록 요청 바디 (POST /api/members, /api2/members)
+ * @Valid 로 검증, 실패하면 MethodArgumentNotValidException -> validation-error problem 의 errors 에 필드별로
+ * json 으로 받아야 해서 Member 와 달리 setter 있는
+ */
+@Data
+public class MemberDto {
+
+    @NotBlank
+    @Size(max = 20)
+    @Pattern(regexp = "[a-z0-9-]+")
+    private String memberId;
+
+    @NotBlank
+    @Size(max = 50)
+    private String name;
+}
@@ -0,0 +1,153 @@
+package hello.exception.member;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import hello.exception.exception.BusinessExceptions;
+import hello.exception.exception.UserException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 컨트롤러들이 회원을 찾는 곳, MemberBackend 앞의 캐시
+ *
+ * Caffeine(W-TinyLFU) 으로 크기 제한, 자주 찾는 id 가 남고 한번 찾고 마는 id 는 먼저 밀려남
+ * 찾은 회원은 member-cache.ttl-seconds, 실패는 member-cache.negative-ttl-seconds 동안 기억
+ *
+ * 부정 캐시: 저장소가 UserException, IllegalArgumentException 을 던진 id 는 실패 결과를 기억해두고
+ * 같은 id 가 다시 오면 저장소까지 가지 않고 같은 예외를 다시 던짐, 잘못된 id 로 계속 두드리는 요청을 여기서 막는다
+ * 예외 객체는 요청마다 새로 (UserException 은 BusinessExceptions 라서 stackless 설정을 따름)
+ */
+@Component
+public class MemberLookup {
+
+    private final MemberBackend backend;
+    private final BusinessExceptions businessExceptions;
+    private final Cache<String, Outcome> cache;
+
+    private final LongAdder negativeHits = new LongAdder();
+
+    public MemberLookup(MemberBackend backend, BusinessExceptions businessExceptions,
+                        @Value("${member-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${member-cache.ttl-seconds:60}") long ttlSeconds,
+                        @Value("${member-cache.negative-ttl-seconds:10}") long negativeTtlSeconds) {
+        this.backend = backend;
+        this.businessExceptions = businessExceptions;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new OutcomeExpiry(Duration.ofSeconds(ttlSeconds).toNanos(), Duration.ofSeconds(negativeTtlSeconds).toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    public Member findMember(String id) {
+        Outcome outcome = lookup(id);
+
+        if (outcome.member != null) {
+            return outcome.member;
+        }
+        if (outcome.failure == Failure.USER) {
+            throw businessExceptions.user(outcome.message);
+        }
+        throw new IllegalArgumentException(outcome.message);
+    }
+
+    //예외를 다시 만들지 않고 결과만, 일괄 조회(MemberBatchController) 용
+    //저장소가 던진 캐시 안되는 예외는 그대로 나감
+    //negativeHits 는 캐시에 있던 실패 결과로 답한 것만, 저장소까지 가서 처음 실패한 건 안 셈
+    public Outcome lookup(String id) {
+        boolean[] loaded = new boolean[1];
+        Outcome outcome = cache.get(id, key -> {
+            loaded[0] = true;
+            return load(key);
+        });
+        if (outcome.member == null && !loaded[0]) {
+            negativeHits.increment();
+        }
+        return outcome;
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRatio", stats.hitRate());
+        result.put("negativeHits", negativeHits.sum());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    //캐시에 없을 때만 호출, 여기서 던진 다른 예외는 캐시되지 않고 그대로 나감
+    private Outcome load(String id) {
+        try {
+            return new Outcome(backend.findMember(id), null, null);
+        } catch (UserException e) {
+            return new Outcome(null, Failure.USER, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return new Outcome(null, Failure.ILLEGAL_ARGUMENT, e.getMessage());
+        }
+    }
+
+    public enum Failure {
+        USER, ILLEGAL_ARGUMENT
+    }
+
+    //회원이나, 실패 종류 + 메시지 둘 중 하나
+    public static final class Outcome {
+        private final Member member;
+        private final Failure failure;
+        private final String message;
+
+        private Outcome(Member member, Failure failure, String message) {
+            this.member = member;
+            this.failure = failure;
+            this.message = message;
+        }
+
+        public Member getMember() {
+            return member;
+        }
+
+        public Failure getFailure() {
+            return failure;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    //찾은 회원과 실패 결과의 ttl 을 따로
+    private static final class OutcomeExpiry implements Expiry<String, Outcome> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private OutcomeExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Outcome value, long currentTime) {
+            return value.member != null ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Outcome value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Outcome value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
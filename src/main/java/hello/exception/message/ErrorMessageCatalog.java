@@ -0,0 +1,391 @@
+package hello.exception.message;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 오류 메시지 코드(error.bad, problem.*.title ...) -> 문구, 애플리케이션의 MessageSource
+ * 빈 이름이 messageSource 라서 스프링 부트의 ResourceBundleMessageSource 는 안 만들어짐
+ * ResponseStatusExceptionResolver, ProblemRegistry(ExControllerAdvice, 리졸버들이 쓰는), WebFlux 핸들러가 전부 이걸 본다
+ *
+ * ResourceBundleMessageSource 는 조회마다 로케일별 번들 캐시, 번들 안의 락 걸린 캐시를 거침
+ * 여기서는 시작할 때 spring.messages.basename 의 모든 로케일 파일을 읽어서
+ * 로케일마다 (기본 번들 <- 언어 <- 국가 순으로 덮어쓴) 불변 Map 을 만들어 둠, 조회는 volatile 읽기 + Map.get 두 번
+ * 키, 문구는 intern, 어노테이션의 reason 상수와 같은 문자열이라 equals 가 == 에서 끝난다
+ *
+ * 시작할 때 검사, 하나라도 걸리면 IllegalStateException 으로 기동 실패
+ * - @ResponseStatus(reason) 가 메시지 키 모양(a.b)인 예외 클래스 (error-messages.scan-package 아래)
+ * - error-messages.required-codes (ResponseStatusException("error.bad") 처럼 코드 안에 문자열로만 있는 것)
+ * 위 코드가 모든 로케일에서 (기본 번들까지 내려가서) 찾아져야 하고, 문구의 {0} 같은 형식이 깨져 있으면 안됨
+ *
+ * 다시 읽기는 reload() (/internal/messages/reload), error-messages.reload-millis > 0 이면 파일 수정 시각을 보고 알아서
+ * 새 테이블을 옆에서 다 만들고 검사까지 통과하면 참조만 바꿈, 읽는 쪽은 안 기다림
+ * 검사에 걸리면 예전 테이블 그대로 두고 로그만 (실행 중에 죽이지는 않음)
+ * 새로 생긴 로케일 파일은 수정 시각 검사에는 안 걸림, reload() 로
+ *
+ * 없는 로케일은 시스템 로케일로 넘어가지 않고 바로 기본 번들 (fallback-to-system-locale=false 와 같음)
+ */
+@Slf4j
+@Component("messageSource")
+public class ErrorMessageCatalog implements MessageSource {
+
+    private static final Pattern CODE = Pattern.compile("[a-z0-9-]+(\\.[a-z0-9-]+)+");
+
+    //요청마다 다른 로케일이 와도 캐시가 끝없이 늘지 않게
+    private static final int MAX_RESOLVED_LOCALES = 64;
+
+    private final ApplicationEventPublisher publisher;
+    private final List<String> basenames;
+    private final Charset encoding;
+    private final List<String> requiredCodes;
+    private final String scanPackage;
+    private final long reloadMillis;
+
+    private volatile Catalog catalog;
+
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+
+    private ScheduledExecutorService reloadThread;
+
+    public ErrorMessageCatalog(ApplicationEventPublisher publisher,
+                               @Value("${spring.messages.basename:messages}") String basename,
+                               @Value("${spring.messages.encoding:UTF-8}") String encoding,
+                               @Value("${error-messages.required-codes:error.bad}") String requiredCodes,
+                               @Value("${error-messages.scan-package:hello.exception}") String scanPackage,
+                               @Value("${error-messages.reload-millis:0}") long reloadMillis) {
+        this.publisher = publisher;
+        this.basenames = Arrays.asList(StringUtils.commaDelimitedListToStringArray(StringUtils.trimAllWhitespace(basename)));
+        this.encoding = Charset.forName(encoding);
+        this.requiredCodes = Arrays.asList(StringUtils.commaDelimitedListToStringArray(StringUtils.trimAllWhitespace(requiredCodes)));
+        this.scanPackage = scanPackage;
+        this.reloadMillis = reloadMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        Set<String> required = requiredCodes();
+        catalog = load(0, required);
+        log.info("error message catalog locales={} codes={} required={}", catalog.bundles.keySet(), catalog.codeCount(), required.size());
+
+        if (reloadMillis > 0) {
+            reloadThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "error-messages-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloadThread.scheduleWithFixedDelay(this::reloadIfModified, reloadMillis, reloadMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloadThread != null) {
+            reloadThread.shutdown();
+        }
+    }
+
+    /**
+     * 번들 파일을 다시 읽어서 바꿔 끼움, 검사에 걸리면 false 이고 예전 테이블 유지
+     * 동시에 두 번 불려도 세대 번호가 꼬이지 않게 synchronized, 읽는 쪽과는 상관없음
+     */
+    public synchronized boolean reload() {
+        Catalog previous = catalog;
+        try {
+            catalog = load(previous.generation + 1, requiredCodes());
+        } catch (RuntimeException e) {
+            reloadFailures.increment();
+            log.error("error message catalog reload failed, keep generation {}", previous.generation, e);
+            return false;
+        }
+        reloads.increment();
+        log.info("error message catalog reloaded generation={} codes={}", catalog.generation, catalog.codeCount());
+        publisher.publishEvent(new ErrorMessagesReloaded(catalog.generation));
+        return true;
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+        String message = lookup(code, locale);
+        if (message == null) {
+            message = defaultMessage;
+        }
+        return format(message, args, locale);
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, Locale locale) throws NoSuchMessageException {
+        String message = lookup(code, locale);
+        if (message == null) {
+            throw new NoSuchMessageException(code, locale);
+        }
+        return format(message, args, locale);
+    }
+
+    @Override
+    public String getMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
+        String[] codes = resolvable.getCodes();
+        if (codes != null) {
+            for (String code : codes) {
+                String message = lookup(code, locale);
+                if (message != null) {
+                    return format(message, resolvable.getArguments(), locale);
+                }
+            }
+        }
+        if (resolvable.getDefaultMessage() != null) {
+            return format(resolvable.getDefaultMessage(), resolvable.getArguments(), locale);
+        }
+        throw new NoSuchMessageException(codes != null && codes.length > 0 ? codes[codes.length - 1] : "", locale);
+    }
+
+    public Map<String, Object> stats() {
+        Catalog current = catalog;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("generation", current.generation);
+        stats.put("loadedAt", current.loadedAt);
+        stats.put("locales", current.bundles.keySet().stream().map(Locale::toString).toArray());
+        stats.put("codes", current.codeCount());
+        stats.put("resolvedLocales", current.resolved.size());
+        stats.put("reloads", reloads.sum());
+        stats.put("reloadFailures", reloadFailures.sum());
+        return stats;
+    }
+
+    private String lookup(String code, Locale locale) {
+        if (code == null) {
+            return null;
+        }
+        return catalog.forLocale(locale != null ? locale : Locale.getDefault()).get(code);
+    }
+
+    //인자가 없으면 MessageFormat 안 거치고 그대로 (ResourceBundleMessageSource 기본 동작과 같음)
+    private static String format(String message, Object[] args, Locale locale) {
+        if (message == null || args == null || args.length == 0) {
+            return message;
+        }
+        return new MessageFormat(message, locale != null ? locale : Locale.getDefault()).format(args);
+    }
+
+    private void reloadIfModified() {
+        try {
+            if (catalog.modified()) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.error("error message catalog reload check failed", e);
+        }
+    }
+
+    private Set<String> requiredCodes() {
+        Set<String> codes = new TreeSet<>(requiredCodes);
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(ResponseStatus.class));
+        //클래스를 로딩하지 않고 바이트코드에서 어노테이션 값만 읽음
+        for (BeanDefinition candidate : scanner.findCandidateComponents(scanPackage)) {
+            Map<String, Object> attributes = ((AnnotatedBeanDefinition) candidate).getMetadata()
+                    .getAnnotationAttributes(ResponseStatus.class.getName());
+            String reason = attributes == null ? null : (String) attributes.get("reason");
+            if (reason != null && CODE.matcher(reason).matches()) {
+                codes.add(reason);
+            }
+        }
+        return codes;
+    }
+
+    private Catalog load(long generation, Set<String> required) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Map<Locale, Map<String, String>> bundles = new LinkedHashMap<>();
+        Map<Resource, Long> lastModified = new LinkedHashMap<>();
+
+        try {
+            for (String basename : basenames) {
+                String path = basename.replace('.', '/');
+                String name = path.substring(path.lastIndexOf('/') + 1);
+                for (Resource resource : resolver.getResources("classpath*:" + path + "*.properties")) {
+                    Locale locale = localeOf(name, resource.getFilename());
+                    if (locale == null) {
+                        continue;
+                    }
+                    Properties properties = new Properties();
+                    try (Reader reader = new InputStreamReader(resource.getInputStream(), encoding)) {
+                        properties.load(reader);
+                    }
+                    //같은 로케일이 클래스패스에 여러 개면 먼저 나온 게 이김 (ResourceBundle 과 같음)
+                    Map<String, String> bundle = bundles.computeIfAbsent(locale, key -> new HashMap<>());
+                    for (String key : properties.stringPropertyNames()) {
+                        bundle.putIfAbsent(key.intern(), properties.getProperty(key).intern());
+                    }
+                    lastModified.put(resource, lastModified(resource));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("error message bundles " + basenames, e);
+        }
+
+        Map<Locale, Map<String, String>> immutable = new LinkedHashMap<>();
+        bundles.forEach((locale, bundle) -> immutable.put(locale, Map.copyOf(bundle)));
+        immutable.putIfAbsent(Locale.ROOT, Map.of());
+        Catalog loaded = new Catalog(generation, Map.copyOf(immutable), lastModified);
+
+        validate(loaded, required);
+        return loaded;
+    }
+
+    private void validate(Catalog loaded, Set<String> required) {
+        List<String> problems = new ArrayList<>();
+        for (Locale locale : loaded.bundles.keySet()) {
+            //미리 합쳐두기, 이후 이 로케일 조회는 계산 없음
+            Map<String, String> messages = loaded.forLocale(locale);
+            for (String code : required) {
+                if (!messages.containsKey(code)) {
+                    problems.add("missing " + code + " [" + locale + "]");
+                }
+            }
+            messages.forEach((code, message) -> {
+                if (message.indexOf('{') >= 0) {
+                    try {
+                        new MessageFormat(message, locale);
+                    } catch (IllegalArgumentException e) {
+                        problems.add("invalid format " + code + " [" + locale + "]: " + e.getMessage());
+                    }
+                }
+            });
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("error message catalog " + basenames + " invalid: " + problems);
+        }
+    }
+
+    //messages.properties -> ROOT, messages_ko_KR.properties -> ko_KR, messagesFoo.properties 는 다른 번들
+    private static Locale localeOf(String name, String filename) {
+        if (filename == null || !filename.endsWith(".properties")) {
+            return null;
+        }
+        String base = filename.substring(0, filename.length() - ".properties".length());
+        if (base.equals(name)) {
+            return Locale.ROOT;
+        }
+        if (!base.startsWith(name + "_")) {
+            return null;
+        }
+        return StringUtils.parseLocaleString(base.substring(name.length() + 1));
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            //jar 안 같은 경우, 수정 시각 검사는 못함
+            return 0;
+        }
+    }
+
+    /**
+     * 한 세대의 불변 테이블, 바꿀 때는 통째로 새로 만든다
+     * resolved 는 요청 로케일 -> 합친 Map, 값 자체가 불변이라 같은 걸 두 번 계산해도 결과는 같음
+     */
+    private static final class Catalog {
+        private final long generation;
+        private final long loadedAt = System.currentTimeMillis();
+        private final Map<Locale, Map<String, String>> bundles;
+        private final Map<Resource, Long> lastModified;
+        private final ConcurrentMap<Locale, Map<String, String>> resolved = new ConcurrentHashMap<>();
+
+        private Catalog(long generation, Map<Locale, Map<String, String>> bundles, Map<Resource, Long> lastModified) {
+            this.generation = generation;
+            this.bundles = bundles;
+            this.lastModified = lastModified;
+        }
+
+        private Map<String, String> forLocale(Locale locale) {
+            Map<String, String> messages = resolved.get(locale);
+            if (messages == null) {
+                messages = merge(locale);
+                if (resolved.size() < MAX_RESOLVED_LOCALES) {
+                    resolved.putIfAbsent(locale, messages);
+                }
+            }
+            return messages;
+        }
+
+        //기본 번들 위에 언어, 국가, variant 순으로 덮어씀
+        private Map<String, String> merge(Locale locale) {
+            Set<Locale> chain = new LinkedHashSet<>();
+            chain.add(Locale.ROOT);
+            if (!locale.getLanguage().isEmpty()) {
+                chain.add(new Locale(locale.getLanguage()));
+                if (!locale.getCountry().isEmpty()) {
+                    chain.add(new Locale(locale.getLanguage(), locale.getCountry()));
+                    if (!locale.getVariant().isEmpty()) {
+                        chain.add(new Locale(locale.getLanguage(), locale.getCountry(), locale.getVariant()));
+                    }
+                }
+            }
+
+            Map<String, String> merged = new HashMap<>();
+            for (Locale candidate : chain) {
+                Map<String, String> bundle = bundles.get(candidate);
+                if (bundle != null) {
+                    merged.putAll(bundle);
+                }
+            }
+            return Map.copyOf(merged);
+        }
+
+        private int codeCount() {
+            return bundles.get(Locale.ROOT).size();
+        }
+
+        private boolean modified() {
+            for (Map.Entry<Resource, Long> entry : lastModified.entrySet()) {
+                long recorded = entry.getValue();
+                if (recorded != 0 && ErrorMessageCatalog.lastModified(entry.getKey()) != recorded) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
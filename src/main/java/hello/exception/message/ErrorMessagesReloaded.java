@@ -0,0 +1,12 @@
+package hello.exception.message;
+
+import lombok.Value;
+
+/**
+ * ErrorMessageCatalog 가 새 테이블로 바꾼 다음 발행
+ * 해석한 문구로 만든 걸 따로 기억해둔 쪽(ProblemWriter 의 고정 바디)은 이걸 받고 버린다
+ */
+@Value
+public class ErrorMessagesReloaded {
+    long generation;
+}
@@ -0,0 +1,95 @@
+package hello.exception.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HdrHistogram 처럼 로그-선형 버킷으로 나눈 지연 시간 히스토그램 (마이크로초)
+ *
+ * 0~31us 는 1us 단위, 그 위로는 2의 거듭제곱 구간마다 16칸씩 나눠서 상대 오차 약 6%
+ * 버킷마다 LongAdder 라 여러 코어에서 동시에 기록해도 한 캐시 라인을 두고 싸우지 않는다
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int MIN_EXPONENT = 5;
+    //2^40us, 약 12일
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long micros) {
+        buckets[bucketIndex(micros)].increment();
+        count.increment();
+        totalMicros.add(Math.max(0, micros));
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double meanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) totalMicros.sum() / n;
+    }
+
+    /**
+     * percentile 0.5, 0.99, 0.999 ... 해당 버킷의 상한값
+     */
+    public long percentileMicros(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKET_COUNT - 1);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        //맨 앞 1 비트 다음 4비트로 구간 안의 칸
+        int sub = (int) ((micros >>> (exponent - 4)) & (SUB_BUCKETS - 1));
+        return LINEAR_BUCKETS + (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + MIN_EXPONENT;
+        int sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (exponent - 4);
+    }
+
+    static long upperBound(int index) {
+        return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : lowerBound(index + 1) - 1;
+    }
+}
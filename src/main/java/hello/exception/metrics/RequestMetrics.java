@@ -0,0 +1,74 @@
+package hello.exception.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 경로별 지연 시간 히스토그램과 예외 카운터
+ *
+ * 키는 실제 URI 가 아니라 핸들러 매핑 패턴(/api/members/{id}), id 마다 따로 쌓이지 않게
+ * 매핑이 없는 요청(404 같은)은 UNMAPPED 하나로 모은다
+ * LogInterceptor.afterCompletion 에서 기록, /internal/metrics/routes 로 조회
+ */
+@Component
+public class RequestMetrics {
+
+    public static final String UNMAPPED = "UNMAPPED";
+
+    private final ConcurrentMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    public void record(String route, long durationNanos, int status, Exception ex) {
+        RouteMetrics metrics = routes.get(route);
+        if (metrics == null) {
+            metrics = routes.computeIfAbsent(route, key -> new RouteMetrics());
+        }
+        metrics.record(durationNanos / 1_000, status, ex);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        routes.forEach((route, metrics) -> result.put(route, metrics.snapshot()));
+        return result;
+    }
+
+    static final class RouteMetrics {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        //"IllegalArgumentException:400" -> 횟수
+        private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        void record(long micros, int status, Exception ex) {
+            latency.record(micros);
+            if (ex == null && status < 400) {
+                return;
+            }
+
+            String key = (ex == null ? "-" : ex.getClass().getSimpleName()) + ":" + status;
+            LongAdder counter = errors.get(key);
+            if (counter == null) {
+                counter = errors.computeIfAbsent(key, k -> new LongAdder());
+            }
+            counter.increment();
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", latency.count());
+            result.put("meanMicros", latency.meanMicros());
+            result.put("p50Micros", latency.percentileMicros(0.5));
+            result.put("p99Micros", latency.percentileMicros(0.99));
+            result.put("p999Micros", latency.percentileMicros(0.999));
+
+            Map<String, Long> errorCounts = new TreeMap<>();
+            errors.forEach((key, counter) -> errorCounts.put(key, counter.sum()));
+            result.put("errors", errorCounts);
+            return result;
+        }
+    }
+}
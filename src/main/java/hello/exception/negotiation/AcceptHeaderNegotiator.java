@@ -0,0 +1,116 @@
+package hello.exception.negotiation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Accept 헤더를 q-value 까지 보고 해석해서 JSON / problem+json / HTML 중 하나를 고르는
+ *
+ * 기존 UserHandlerExceptionResolver 는 accept 가 정확히 "application/json" 일 때만 json 으로 응답했다
+ * 실제 클라이언트는 "application/json, text/plain" 뒤에 q=0.8 짜리 와일드카드까지 붙여서 보내기 때문에
+ * 대부분 html 오류 화면으로 빠졌다
+ *
+ * 같은 클라이언트는 매번 같은 Accept 헤더를 보내니까 헤더 문자열별로 해석 결과를 기억해 두고
+ * 다음부터는 캐시 조회 한번으로 끝낸다. Caffeine(W-TinyLFU) 으로 MAX_CACHED_HEADERS 개까지,
+ * 자주 오는 헤더가 남고 한번 오고 마는 헤더는 먼저 밀려남
+ *
+ * 오류 경로에서만 씀 (ExceptionResolver 들, ErrorPageController, ErrorPageRenderer, WebFlux 오류 핸들러)
+ * 스프링 MVC 전체 콘텐츠 협상(ContentNegotiationManager)은 건드리지 않음
+ */
+@Component
+public class AcceptHeaderNegotiator {
+
+    private static final int MAX_CACHED_HEADERS = 1024;
+
+    private final Cache<String, ErrorFormat> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_HEADERS)
+            .build();
+
+    //서블릿 요청에서 바로, ExceptionResolver 들이 사용
+    public ErrorFormat negotiate(HttpServletRequest request) {
+        return negotiated(acceptHeader(request.getHeaders(HttpHeaders.ACCEPT)));
+    }
+
+    //WebFlux 쪽(ServerHttpRequest 헤더), reactive 패키지의 WebExceptionHandler 들이 사용
+    public ErrorFormat negotiate(List<String> acceptHeaders) {
+        return negotiated(acceptHeaders == null || acceptHeaders.isEmpty() ? null : String.join(", ", acceptHeaders));
+    }
+
+    public long cachedHeaderCount() {
+        return cache.estimatedSize();
+    }
+
+    private ErrorFormat negotiated(String acceptHeader) {
+        //헤더가 없으면 기존처럼 html 오류 화면
+        if (acceptHeader == null || acceptHeader.isEmpty()) {
+            return ErrorFormat.HTML;
+        }
+
+        ErrorFormat format = cache.getIfPresent(acceptHeader);
+        if (format == null) {
+            format = cache.get(acceptHeader, AcceptHeaderNegotiator::parse);
+        }
+        return format;
+    }
+
+    private static ErrorFormat parse(String acceptHeader) {
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(acceptHeader);
+        } catch (InvalidMediaTypeException e) {
+            //해석이 안되는 헤더도 html 오류 화면
+            return ErrorFormat.HTML;
+        }
+
+        //q 값이 높은 것, 더 구체적인 것 순서로
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        return format(mediaTypes);
+    }
+
+    private static ErrorFormat format(List<MediaType> mediaTypes) {
+        for (MediaType mediaType : mediaTypes) {
+            //q=0 은 받지 않겠다는 뜻
+            if (mediaType.getQualityValue() == 0.0) {
+                continue;
+            }
+            if (MediaType.APPLICATION_PROBLEM_JSON.equalsTypeAndSubtype(mediaType)) {
+                return ErrorFormat.PROBLEM_JSON;
+            }
+            if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType) || "json".equals(mediaType.getSubtypeSuffix())) {
+                return ErrorFormat.JSON;
+            }
+            //브라우저는 html 을 먼저 보내고, */* 만 보내는 경우도 기존처럼 html 오류 화면
+            if (MediaType.TEXT_HTML.equalsTypeAndSubtype(mediaType)
+                    || MediaType.APPLICATION_XHTML_XML.equalsTypeAndSubtype(mediaType)
+                    || mediaType.isWildcardType()) {
+                return ErrorFormat.HTML;
+            }
+        }
+        return ErrorFormat.HTML;
+    }
+
+    private static String acceptHeader(Enumeration<String> headers) {
+        if (headers == null || !headers.hasMoreElements()) {
+            return null;
+        }
+        String first = headers.nextElement();
+        if (!headers.hasMoreElements()) {
+            return first;
+        }
+
+        //Accept 헤더가 여러 줄로 온 경우
+        StringBuilder sb = new StringBuilder(first);
+        while (headers.hasMoreElements()) {
+            sb.append(", ").append(headers.nextElement());
+        }
+        return sb.toString();
+    }
+}
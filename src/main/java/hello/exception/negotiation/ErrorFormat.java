@@ -0,0 +1,27 @@
+package hello.exception.negotiation;
+
+import org.springframework.http.MediaType;
+
+/**
+ * 오류 응답을 어떤 모양으로 내려줄지
+ */
+public enum ErrorFormat {
+
+    JSON(MediaType.APPLICATION_JSON_VALUE),
+    PROBLEM_JSON(MediaType.APPLICATION_PROBLEM_JSON_VALUE),
+    HTML(MediaType.TEXT_HTML_VALUE);
+
+    private final String contentType;
+
+    ErrorFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isJson() {
+        return this != HTML;
+    }
+}
@@ -0,0 +1,14 @@
+package hello.exception.precheck;
+
+import lombok.Value;
+
+/**
+ * 핸들러 메서드 파라미터 하나에 대한 검사, 시작할 때 메서드 시그니처에서 만듦
+ * pathVariable 이 false 면 쿼리/폼 파라미터(@RequestParam)
+ */
+@Value
+public class ParamCheck {
+    String name;
+    boolean pathVariable;
+    ParamFormat format;
+}
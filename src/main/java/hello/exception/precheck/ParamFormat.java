@@ -0,0 +1,117 @@
+package hello.exception.precheck;
+
+/**
+ * @RequestParam / @PathVariable 타입별 형식 검사, 바인딩(NumberUtils.parseNumber, StringToBooleanConverter) 과 같은 규칙
+ * 문자열을 한 글자씩 보기만 해서 예외도, 객체도 안 만든다
+ *
+ * 확실히 바인딩에서 실패할 값만 INVALID
+ * 바인딩이 따로 손보는 값(공백은 전부 지움, 0x / # 은 16진수, 유니코드 숫자, 빈 문자열)은 DEFER 로 원래 바인딩에 맡김
+ * float, double 은 형식이 너무 많아서(1e5, NaN, 0x1p3, 끝에 d/f) 검사하지 않음
+ */
+public enum ParamFormat {
+
+    BYTE(Byte.MIN_VALUE, Byte.MAX_VALUE),
+    SHORT(Short.MIN_VALUE, Short.MAX_VALUE),
+    INT(Integer.MIN_VALUE, Integer.MAX_VALUE),
+    LONG(Long.MIN_VALUE, Long.MAX_VALUE),
+    BOOLEAN(0, 0);
+
+    public enum Verdict {
+        VALID, INVALID, DEFER
+    }
+
+    //StringToBooleanConverter 가 받는 값
+    private static final String[] BOOLEANS = {"true", "on", "yes", "1", "false", "off", "no", "0"};
+
+    private final long min;
+    private final long max;
+
+    ParamFormat(long min, long max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    //검사할 수 없는 타입이면 null
+    public static ParamFormat of(Class<?> type) {
+        if (type == int.class || type == Integer.class) {
+            return INT;
+        }
+        if (type == long.class || type == Long.class) {
+            return LONG;
+        }
+        if (type == short.class || type == Short.class) {
+            return SHORT;
+        }
+        if (type == byte.class || type == Byte.class) {
+            return BYTE;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return BOOLEAN;
+        }
+        return null;
+    }
+
+    public Verdict check(String value) {
+        if (value.isEmpty()) {
+            //빈 값은 null 로 바뀌어서 required, defaultValue 처리로 넘어감
+            return Verdict.DEFER;
+        }
+        return this == BOOLEAN ? checkBoolean(value) : checkIntegral(value);
+    }
+
+    //Long.parseLong 과 같은 방식, 음수 쪽으로 쌓아서 넘침 검사
+    private Verdict checkIntegral(String value) {
+        int length = value.length();
+        int i = 0;
+        char first = value.charAt(0);
+        boolean negative = first == '-';
+        if (negative || first == '+') {
+            if (length == 1) {
+                return Verdict.INVALID;
+            }
+            i = 1;
+        }
+        //16진수는 Integer.decode 쪽이라 맡김
+        char lead = value.charAt(i);
+        if (lead == '#' || (lead == '0' && i + 1 < length && (value.charAt(i + 1) == 'x' || value.charAt(i + 1) == 'X'))) {
+            return Verdict.DEFER;
+        }
+
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                //공백은 바인딩이 지우고, 다른 문자권 숫자는 parseInt 가 받아줌
+                return Character.isWhitespace(c) || Character.isDigit(c) ? Verdict.DEFER : Verdict.INVALID;
+            }
+            int digit = c - '0';
+            if (result < multmin) {
+                return Verdict.INVALID;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return Verdict.INVALID;
+            }
+            result -= digit;
+        }
+
+        //LONG 은 위에서 이미 범위 검사 끝
+        long parsed = negative ? result : -result;
+        return parsed < min || parsed > max ? Verdict.INVALID : Verdict.VALID;
+    }
+
+    private static Verdict checkBoolean(String value) {
+        //앞뒤 공백은 trim() 으로 지우고 봄
+        if (value.charAt(0) <= ' ' || value.charAt(value.length() - 1) <= ' ') {
+            return Verdict.DEFER;
+        }
+        for (String candidate : BOOLEANS) {
+            if (candidate.equalsIgnoreCase(value)) {
+                return Verdict.VALID;
+            }
+        }
+        return Verdict.INVALID;
+    }
+}
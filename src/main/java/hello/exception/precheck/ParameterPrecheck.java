@@ -0,0 +1,175 @@
+package hello.exception.precheck;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 바인딩 전에 숫자, boolean 파라미터 형식만 먼저 보는
+ * /api/default-handler-ex?data=abc 같은 요청을 TypeMismatchException 을 만들지 않고 바로 400
+ *
+ * 원래는 바인딩 -> NumberFormatException -> MethodArgumentTypeMismatchException -> 리졸버 체인
+ * -> DefaultHandlerExceptionResolver 의 sendError(400) -> /error 다시 디스패치
+ * 스캐너가 아무 값이나 넣어 보내는 요청도 전부 이 길을 다 탐
+ *
+ * 시작할 때(컨텍스트 리프레시) 모든 @RequestMapping 메서드를 보고 검사할 파라미터만 메서드별 배열로 만들어 둠
+ * 요청마다는 Map 조회 한번 + 값을 한 글자씩 보는 것뿐, 검사할 게 없는 메서드는 조회만 하고 끝
+ *
+ * @InitBinder 로 바인딩 규칙을 바꾸는 컨트롤러는 검사하지 않음, @ControllerAdvice 에 @InitBinder 가 있으면 전부 끔
+ * Integer 같은 타입에 Formatter 를 직접 등록하면 param-precheck.enabled=false 로
+ */
+@Slf4j
+@Component
+public class ParameterPrecheck {
+
+    //@InitBinder 찾는 방법은 RequestMappingHandlerAdapter 와 같게 (public 아닌 메서드까지)
+    private static final ReflectionUtils.MethodFilter INIT_BINDER_METHODS =
+            method -> AnnotatedElementUtils.hasAnnotation(method, InitBinder.class);
+
+    private final ApplicationContext context;
+    private final boolean enabled;
+
+    private volatile Map<Method, ParamCheck[]> checks = Map.of();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public ParameterPrecheck(ApplicationContext context, @Value("${param-precheck.enabled:true}") boolean enabled) {
+        this.context = context;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void build(ContextRefreshedEvent event) {
+        //자식 컨텍스트(actuator 관리 포트 등)의 리프레시도 올라오는데, 그쪽 매핑으로 덮어쓰면 안됨
+        if (!enabled || event.getApplicationContext() != context) {
+            return;
+        }
+        for (Object advice : context.getBeansWithAnnotation(ControllerAdvice.class).values()) {
+            if (hasInitBinder(ClassUtils.getUserClass(advice))) {
+                log.info("parameter precheck off, @InitBinder in {}", advice.getClass().getName());
+                return;
+            }
+        }
+
+        ParameterNameDiscoverer nameDiscoverer = new DefaultParameterNameDiscoverer();
+        Map<Method, ParamCheck[]> built = new HashMap<>();
+        for (RequestMappingHandlerMapping mapping : context.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                if (hasInitBinder(handlerMethod.getBeanType())) {
+                    continue;
+                }
+                ParamCheck[] methodChecks = checksOf(handlerMethod, nameDiscoverer);
+                if (methodChecks.length > 0) {
+                    built.put(handlerMethod.getMethod(), methodChecks);
+                }
+            }
+        }
+        checks = Map.copyOf(built);
+        log.info("parameter precheck methods={}", checks.size());
+    }
+
+    /**
+     * 확실히 바인딩에서 실패할 파라미터가 있으면 false
+     * 값이 없거나 바인딩이 따로 손보는 값이면 true, 원래 바인딩이 판단
+     */
+    public boolean accept(HttpServletRequest request, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        ParamCheck[] methodChecks = checks.get(((HandlerMethod) handler).getMethod());
+        if (methodChecks == null) {
+            return true;
+        }
+
+        Map<?, ?> pathVariables = null;
+        for (ParamCheck check : methodChecks) {
+            String value;
+            if (check.isPathVariable()) {
+                if (pathVariables == null) {
+                    pathVariables = (Map<?, ?>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+                    if (pathVariables == null) {
+                        continue;
+                    }
+                }
+                value = (String) pathVariables.get(check.getName());
+            } else {
+                //같은 이름이 여러 개면 바인딩도 첫 번째 값으로 변환
+                value = request.getParameter(check.getName());
+            }
+            if (value != null && check.getFormat().check(value) == ParamFormat.Verdict.INVALID) {
+                rejected.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("methods", checks.size());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private static ParamCheck[] checksOf(HandlerMethod handlerMethod, ParameterNameDiscoverer nameDiscoverer) {
+        List<ParamCheck> methodChecks = new ArrayList<>();
+        for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+            ParamFormat format = ParamFormat.of(parameter.getParameterType());
+            if (format == null) {
+                continue;
+            }
+            RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+            PathVariable pathVariable = parameter.getParameterAnnotation(PathVariable.class);
+            String name;
+            if (requestParam != null) {
+                name = requestParam.name();
+            } else if (pathVariable != null) {
+                name = pathVariable.name();
+            } else {
+                continue;
+            }
+            if (!StringUtils.hasText(name)) {
+                parameter.initParameterNameDiscovery(nameDiscoverer);
+                name = parameter.getParameterName();
+                //-parameters 없이 컴파일해서 이름을 모르면 바인딩도 실패함, 그쪽에 맡김
+                if (name == null) {
+                    continue;
+                }
+            }
+            methodChecks.add(new ParamCheck(name, pathVariable != null, format));
+        }
+        return methodChecks.toArray(new ParamCheck[0]);
+    }
+
+    private static boolean hasInitBinder(Class<?> type) {
+        return !MethodIntrospector.selectMethods(type, INIT_BINDER_METHODS).isEmpty();
+    }
+}
@@ -0,0 +1,16 @@
+package hello.exception.problem;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+/**
+ * 검증 실패한 필드 하나, Problem 의 errors 확장 멤버
+ * {"field":"memberId","message":"공백일 수 없습니다"}
+ * 필드가 아닌 객체 전체에 대한 오류(클래스에 붙은 제약)는 field 없이 message 만
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InvalidField {
+    String field;
+    String message;
+}
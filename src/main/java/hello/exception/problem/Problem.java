@@ -0,0 +1,47 @@
+package hello.exception.problem;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Value;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 7807 application/problem+json 응답 바디
+ * {"type":"/problems/bad-request","title":"잘못된 요청","status":400,"detail":"잘못된 입력 값","code":"BAD"}
+ *
+ * code 는 확장 멤버, 예전 ErrorResult 의 code(BAD, USER-EX, EX) 를 그대로 보고 있던 클라이언트를 위해 남김
+ * errors 도 확장 멤버, @Valid 검증 실패일 때만 필드별 오류 목록
+ * 값이 없는 멤버(detail, code, errors)는 안 씀
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type", "title", "status", "detail", "code", "errors"})
+public class Problem {
+    String type;
+    String title;
+    int status;
+    String detail;
+    String code;
+    List<InvalidField> errors;
+
+    //BasicErrorController 처럼 Map 을 돌려줘야 하는 곳에서
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("type", type);
+        map.put("title", title);
+        map.put("status", status);
+        if (detail != null) {
+            map.put("detail", detail);
+        }
+        if (code != null) {
+            map.put("code", code);
+        }
+        if (errors != null) {
+            map.put("errors", errors);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,166 @@
+package hello.exception.problem;
+
+import hello.exception.exception.UserException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.BindException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 예외 타입 -> problem 템플릿(ProblemType), 시작할 때 한번 만들고 이후에는 조회만
+ *
+ * IllegalArgumentException -> bad-request    400 BAD      detail 은 예외 메시지
+ * UserException            -> user-error     400 USER-EX  detail 은 예외 메시지
+ * BindException            -> validation-error 400 VALIDATION @Valid 실패, detail 은 고정, 필드별 오류는 errors 로
+ * 나머지 Exception          -> internal-error 500 EX       detail 은 고정 "내부 오류"
+ * @ResponseStatus 가 붙은 예외, ResponseStatusException -> 그 상태 코드의 about:blank, detail 은 reason
+ * (reason 이 메시지 키면 messages.properties 에서 찾음, BadRequestException 의 error.bad 처럼)
+ *
+ * 예외 클래스별 결과는 ClassValue 에 기억, 같은 예외 타입이면 상위 클래스를 다시 올라가지 않는다
+ * title, 고정 detail 은 messages.properties 의 problem.{name}.title / problem.{name}.detail, 없으면 기본 문구
+ * 문구 조회는 MessageSource(ErrorMessageCatalog) 가 불변 테이블에서 바로 찾아줘서 여기서 따로 기억하지 않음
+ * (기억해두면 메시지 파일을 다시 읽었을 때 예전 문구가 남는다)
+ */
+@Component
+public class ProblemRegistry {
+
+    public static final String UNAVAILABLE = "unavailable";
+    public static final String INVALID_PARAMETER = "invalid-parameter";
+
+    private static final String ABOUT_BLANK = "about:blank";
+
+    private final MessageSource messageSource;
+
+    private final Map<Class<? extends Throwable>, ProblemType> byException = new LinkedHashMap<>();
+    private final Map<String, ProblemType> byName = new LinkedHashMap<>();
+    private final ProblemType[] byStatus = new ProblemType[600];
+    private final ProblemType internalError;
+
+    private final ClassValue<ProblemType> resolved = new ClassValue<>() {
+        @Override
+        protected ProblemType computeValue(Class<?> type) {
+            return lookup(type);
+        }
+    };
+
+    public ProblemRegistry(MessageSource messageSource, @Value("${problem.type-base:/problems/}") String typeBase) {
+        this.messageSource = messageSource;
+
+        register(typeBase, IllegalArgumentException.class, "bad-request", HttpStatus.BAD_REQUEST, "BAD", "잘못된 요청", null);
+        register(typeBase, UserException.class, "user-error", HttpStatus.BAD_REQUEST, "USER-EX", "사용자 오류", null);
+        //MethodArgumentNotValidException 도 BindException 하위
+        register(typeBase, BindException.class, "validation-error", HttpStatus.BAD_REQUEST, "VALIDATION", "입력값 검증 오류", "입력값이 올바르지 않습니다");
+        internalError = register(typeBase, Exception.class, "internal-error", HttpStatus.INTERNAL_SERVER_ERROR, "EX", "서버 오류", "내부 오류");
+        register(typeBase, null, UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE, "UNAVAILABLE", "일시적으로 사용할 수 없음", "잠시 후 다시 시도해 주세요");
+        //예외 없이 쓰는 템플릿, ParameterPrecheckInterceptor 가 바인딩 전에 바로 400
+        register(typeBase, null, INVALID_PARAMETER, HttpStatus.BAD_REQUEST, "BAD", "잘못된 요청 파라미터", "요청 파라미터 형식이 맞지 않습니다");
+
+        //상태 코드만 있는 오류(sendError, @ResponseStatus), RFC 7807 대로 title 은 상태 코드 문구
+        for (HttpStatus status : HttpStatus.values()) {
+            if (status.value() >= 400 && byStatus[status.value()] == null) {
+                byStatus[status.value()] = new ProblemType("status-" + status.value(), ABOUT_BLANK, status.value(), null,
+                        status.getReasonPhrase(), false, null);
+            }
+        }
+    }
+
+    public ProblemType forException(Throwable ex) {
+        if (ex instanceof ResponseStatusException) {
+            return forStatus(((ResponseStatusException) ex).getRawStatusCode());
+        }
+        return resolved.get(ex.getClass());
+    }
+
+    public ProblemType forExceptionType(Class<? extends Throwable> type) {
+        return resolved.get(type);
+    }
+
+    public ProblemType forStatus(int status) {
+        ProblemType type = status >= 0 && status < byStatus.length ? byStatus[status] : null;
+        if (type != null) {
+            return type;
+        }
+        return status >= 500 ? internalError : byStatus[HttpStatus.BAD_REQUEST.value()];
+    }
+
+    public ProblemType byName(String name) {
+        ProblemType type = byName.get(name);
+        if (type == null) {
+            throw new IllegalArgumentException("등록되지 않은 problem: " + name);
+        }
+        return type;
+    }
+
+    public String title(ProblemType type, Locale locale) {
+        return text("problem." + type.getName() + ".title", type.getDefaultTitle(), locale);
+    }
+
+    /**
+     * 고정 detail 이면 메시지 파일, 아니면 예외에서 꺼낸 문구
+     */
+    public String detail(ProblemType type, Throwable ex, Locale locale) {
+        if (type.isFixedDetail()) {
+            return text("problem." + type.getName() + ".detail", type.getDefaultDetail(), locale);
+        }
+        if (ex == null) {
+            return null;
+        }
+        if (ex instanceof ResponseStatusException) {
+            return reason(((ResponseStatusException) ex).getReason(), locale);
+        }
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(ex.getClass(), ResponseStatus.class);
+        if (responseStatus != null && !responseStatus.reason().isEmpty()) {
+            return reason(responseStatus.reason(), locale);
+        }
+        return ex.getMessage();
+    }
+
+    //예외 객체 없이 메시지만 있을 때 (sendError, 부정 캐시 결과), 5xx 는 메시지를 안 보여줌
+    public String detailOf(ProblemType type, String message, Locale locale) {
+        if (type.isFixedDetail()) {
+            return detail(type, (Throwable) null, locale);
+        }
+        return type.getStatus() >= 500 ? null : message;
+    }
+
+    private String reason(String reason, Locale locale) {
+        return reason == null ? null : text(reason, reason, locale);
+    }
+
+    //메시지 키 -> 문구, reason 처럼 키가 아닌 그냥 문구가 오면 그대로
+    private String text(String code, String defaultText, Locale locale) {
+        return messageSource.getMessage(code, null, defaultText, locale);
+    }
+
+    private ProblemType register(String typeBase, Class<? extends Throwable> exceptionType, String name, HttpStatus status,
+                                 String code, String defaultTitle, String defaultDetail) {
+        ProblemType type = new ProblemType(name, typeBase + name, status.value(), code, defaultTitle, defaultDetail != null, defaultDetail);
+        byName.put(name, type);
+        if (exceptionType != null) {
+            byException.put(exceptionType, type);
+        }
+        return type;
+    }
+
+    private ProblemType lookup(Class<?> exceptionType) {
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(exceptionType, ResponseStatus.class);
+        if (responseStatus != null) {
+            return forStatus(responseStatus.code().value());
+        }
+        for (Class<?> type = exceptionType; type != null; type = type.getSuperclass()) {
+            ProblemType problemType = byException.get(type);
+            if (problemType != null) {
+                return problemType;
+            }
+        }
+        return internalError;
+    }
+}
@@ -0,0 +1,22 @@
+package hello.exception.problem;
+
+import lombok.Value;
+
+/**
+ * problem 템플릿, ProblemRegistry 가 시작할 때 만들어 두고 바꾸지 않는다
+ *
+ * name        메시지 키(problem.{name}.title, problem.{name}.detail) 와 type URI 끝부분
+ * type        type URI, 상태 코드만 있는 건 about:blank
+ * fixedDetail true 면 detail 도 메시지 파일에서, 예외 메시지는 안 보여줌 (500 처럼 내부 사정을 숨길 때)
+ *             이때는 바디 전체가 로케일별로 항상 같아서 ProblemWriter 가 바이트로 캐시 (errors 가 붙는 검증 실패는 빼고)
+ */
+@Value
+public class ProblemType {
+    String name;
+    String type;
+    int status;
+    String code;
+    String defaultTitle;
+    boolean fixedDetail;
+    String defaultDetail;
+}
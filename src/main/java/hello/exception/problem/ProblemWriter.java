@@ -0,0 +1,256 @@
+package hello.exception.problem;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import hello.exception.message.ErrorMessagesReloaded;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 모든 오류 응답을 application/problem+json 으로 쓰는
+ * 리졸버, @ExceptionHandler, 오류 페이지, WebFlux 핸들러, 서킷 브레이커가 전부 이걸 거친다
+ *
+ * Problem 전용 ObjectWriter 를 한번만 만들어서 재사용 (매번 메시지 컨버터 고르고 직렬화기 찾지 않게)
+ * detail 이 고정인 템플릿(500 내부 오류, 503)은 로케일별 바이트를 캐시해서 그대로 씀, 예전 ErrorResultCache 자리
+ * 캐시한 바이트에는 title, detail 문구가 들어 있어서 메시지 파일을 다시 읽으면(ErrorMessagesReloaded) 비움
+ * 캐시 적중으로 직렬화를 건너뛴 바이트 수는 bytesSaved (/internal/metrics/error-body-cache)
+ * detail 이 예외 메시지인 건 매번 직렬화하지만 Map 을 만들지 않고 필드 다섯 개짜리 객체 하나
+ * 응답에 쓸 때는 byte[] 로 모으지 않고 JsonGenerator 가 응답 출력 스트림에 토큰 단위로 바로 씀 (캐시하는 고정 바디만 byte[])
+ * @Valid 검증 실패(BindingResult 인 예외)는 필드별 오류를 errors 로 붙여서 매번 직렬화, 메시지는 검증할 때 이미 해석된 것
+ */
+@Component
+public class ProblemWriter {
+
+    public static final String CONTENT_TYPE = MediaType.APPLICATION_PROBLEM_JSON_VALUE;
+
+    private static final int MAX_ENTRIES = 256;
+
+    private final ProblemRegistry registry;
+    private final ObjectWriter writer;
+    //응답 출력 스트림에 바로 쓰는 용, 다 쓰고 스트림은 안 닫음 (닫는 건 컨테이너 몫)
+    private final ObjectWriter streamWriter;
+
+    private final ConcurrentMap<Key, byte[]> fixedBodies = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder serialized = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public ProblemWriter(ObjectMapper objectMapper, ProblemRegistry registry) {
+        this.registry = registry;
+        this.writer = objectMapper.writerFor(Problem.class);
+        this.streamWriter = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public ProblemRegistry registry() {
+        return registry;
+    }
+
+    public Problem problem(Throwable ex, Locale locale) {
+        ProblemType type = registry.forException(ex);
+        return problem(type, registry.detail(type, ex, locale), invalidFields(type, ex), locale);
+    }
+
+    public Problem problem(ProblemType type, String detail, Locale locale) {
+        return problem(type, detail, null, locale);
+    }
+
+    public Problem problem(ProblemType type, String detail, List<InvalidField> errors, Locale locale) {
+        return new Problem(type.getType(), registry.title(type, locale), type.getStatus(), detail, type.getCode(), errors);
+    }
+
+    /**
+     * WAS 가 오류 페이지로 다시 보낸 요청, 상태 코드는 이미 정해져 있음
+     * 예외가 그 상태 코드와 맞는 템플릿이면 그걸, 아니면 상태 코드의 about:blank
+     */
+    public Problem problem(int status, Throwable ex, String message, Locale locale) {
+        ProblemType type = typeFor(status, ex);
+        return problem(type, detailFor(type, ex, message, locale), invalidFields(type, ex), locale);
+    }
+
+    public byte[] bytes(int status, Throwable ex, String message, Locale locale) {
+        ProblemType type = typeFor(status, ex);
+        List<InvalidField> errors = invalidFields(type, ex);
+        if (errors != null) {
+            return serialize(problem(type, detailFor(type, ex, message, locale), errors, locale));
+        }
+        return bytes(type, detailFor(type, ex, message, locale), locale);
+    }
+
+    public byte[] bytes(Throwable ex, Locale locale) {
+        ProblemType type = registry.forException(ex);
+        List<InvalidField> errors = invalidFields(type, ex);
+        if (type.isFixedDetail() && errors == null) {
+            return fixedBody(type, locale);
+        }
+        return serialize(problem(type, registry.detail(type, ex, locale), errors, locale));
+    }
+
+    public byte[] bytes(ProblemType type, String detail, Locale locale) {
+        if (type.isFixedDetail()) {
+            return fixedBody(type, locale);
+        }
+        return serialize(problem(type, detail, locale));
+    }
+
+    public byte[] bytes(Problem problem) {
+        return serialize(problem);
+    }
+
+    //컨버터 거치지 않고 바로 응답 바디에, 고정 바디는 캐시한 바이트 나머지는 출력 스트림에 바로 직렬화
+    public void write(HttpServletResponse response, Throwable ex, Locale locale) throws IOException {
+        ProblemType type = registry.forException(ex);
+        List<InvalidField> errors = invalidFields(type, ex);
+        if (type.isFixedDetail() && errors == null) {
+            write(response, type.getStatus(), fixedBody(type, locale));
+            return;
+        }
+        write(response, type.getStatus(), problem(type, registry.detail(type, ex, locale), errors, locale));
+    }
+
+    //WAS 가 오류 페이지로 다시 보낸 요청, 바디는 bytes(status, ex, message, locale) 와 같음
+    public void write(HttpServletResponse response, int status, Throwable ex, String message, Locale locale) throws IOException {
+        ProblemType type = typeFor(status, ex);
+        List<InvalidField> errors = invalidFields(type, ex);
+        if (type.isFixedDetail() && errors == null) {
+            write(response, status, fixedBody(type, locale));
+            return;
+        }
+        write(response, status, problem(type, detailFor(type, ex, message, locale), errors, locale));
+    }
+
+    //byte[] 를 거치지 않음, 길이를 미리 모르니 Content-Length 대신 컨테이너가 알아서 (버퍼 안이면 길이, 넘으면 chunked)
+    public void write(HttpServletResponse response, int status, Problem problem) throws IOException {
+        serialized.increment();
+        response.setStatus(status);
+        response.setContentType(CONTENT_TYPE);
+        streamWriter.writeValue(response.getOutputStream(), problem);
+    }
+
+    public void write(HttpServletResponse response, int status, byte[] body) throws IOException {
+        response.setStatus(status);
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    @EventListener(ErrorMessagesReloaded.class)
+    public void clear() {
+        fixedBodies.clear();
+    }
+
+    public Map<String, Object> stats() {
+        long hit = hits.sum();
+        long miss = misses.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedBodies", fixedBodies.size());
+        stats.put("hits", hit);
+        stats.put("misses", miss);
+        stats.put("hitRatio", hit + miss == 0 ? 0.0 : (double) hit / (hit + miss));
+        stats.put("bytesSaved", bytesSaved.sum());
+        stats.put("serialized", serialized.sum());
+        return stats;
+    }
+
+    private ProblemType typeFor(int status, Throwable ex) {
+        if (ex != null) {
+            ProblemType type = registry.forException(ex);
+            if (type.getStatus() == status) {
+                return type;
+            }
+        }
+        return registry.forStatus(status);
+    }
+
+    //예외가 그 템플릿으로 응답될 때만, 상태 코드가 달라서 about:blank 로 가면 안 붙임
+    private List<InvalidField> invalidFields(ProblemType type, Throwable ex) {
+        if (!(ex instanceof BindingResult) || registry.forException(ex) != type) {
+            return null;
+        }
+        List<ObjectError> allErrors = ((BindingResult) ex).getAllErrors();
+        List<InvalidField> errors = new ArrayList<>(allErrors.size());
+        for (ObjectError error : allErrors) {
+            String field = error instanceof FieldError ? ((FieldError) error).getField() : null;
+            errors.add(new InvalidField(field, error.getDefaultMessage()));
+        }
+        return errors;
+    }
+
+    private String detailFor(ProblemType type, Throwable ex, String message, Locale locale) {
+        if (ex != null && registry.forException(ex) == type) {
+            return registry.detail(type, ex, locale);
+        }
+        return registry.detailOf(type, message, locale);
+    }
+
+    private byte[] fixedBody(ProblemType type, Locale locale) {
+        Key key = new Key(type, locale);
+        byte[] body = fixedBodies.get(key);
+        if (body != null) {
+            hits.increment();
+            bytesSaved.add(body.length);
+            return body;
+        }
+
+        misses.increment();
+        body = serialize(problem(type, registry.detail(type, (Throwable) null, locale), locale));
+        if (fixedBodies.size() < MAX_ENTRIES) {
+            fixedBodies.putIfAbsent(key, body);
+        }
+        return body;
+    }
+
+    private byte[] serialize(Problem problem) {
+        serialized.increment();
+        try {
+            //writeValueAsBytes 는 UTF-8 로 인코딩
+            return writer.writeValueAsBytes(problem);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Key {
+        private final ProblemType type;
+        private final Locale locale;
+
+        private Key(ProblemType type, Locale locale) {
+            this.type = type;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            //템플릿은 시작할 때 만든 것만 있어서 == 로
+            return type == key.type && Objects.equals(locale, key.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(type) + Objects.hashCode(locale);
+        }
+    }
+}
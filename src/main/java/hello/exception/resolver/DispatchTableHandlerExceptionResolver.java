@@ -0,0 +1,374 @@
+package hello.exception.resolver;
+
+import hello.exception.errorstats.ErrorStats;
+import hello.exception.metrics.RequestMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.validation.BindException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.method.ControllerAdviceBean;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.NoHandlerFoundException;
+import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ExceptionResolver 체인을 하나로 묶은
+ *
+ * HandlerExceptionResolverComposite 는 예외가 터질 때마다 등록된 리졸버를 순서대로 전부 물어본다
+ * ExceptionHandlerExceptionResolver -> ResponseStatusExceptionResolver -> DefaultHandlerExceptionResolver
+ * -> MyHandlerExceptionResolver -> UserHandlerExceptionResolver (-> InlineErrorPageResolver)
+ * 그런데 (핸들러 타입, 예외 타입, cause 타입들)이 같으면 처리할 수 있는 리졸버 목록은 항상 같다
+ *
+ * 그래서 (핸들러 타입, 예외) 마다 "처리할 수도 있는 리졸버" 위치 목록을 만들어 두고 그것만 순서대로 물어본다
+ * 목록에 없는 리졸버는 처리 못한다고 확신할 수 있는 것만 뺌
+ * ExceptionHandlerExceptionResolver: 컨트롤러와 @ControllerAdvice 의 @ExceptionHandler 중 예외나 cause 에 맞는 메서드가 없을 때
+ * ResponseStatusExceptionResolver: 예외와 cause 어디에도 @ResponseStatus 가 없고 ResponseStatusException 도 아닐 때
+ * DefaultHandlerExceptionResolver: 처리하는 스프링 MVC 예외(DEFAULT_RESOLVED_TYPES)가 아닐 때 (cause 는 안 봄)
+ * TypedHandlerExceptionResolver: supports() 가 false 일 때 (cause 는 안 봄)
+ * 그 외 리졸버는 처리할 수도 있다고 보고 그대로 호출
+ * 목록 안에서는 원래 체인 순서 그대로라 결과는 체인을 전부 물어본 것과 같음 (DispatchTableHandlerExceptionResolverTest)
+ *
+ * 테이블은 두 단계
+ * - 뜰 때(initialize, WebConfig 가 ContextRefreshedEvent 에서) 만드는 고정 테이블
+ *   등록된 컨트롤러 타입 x 미리 알 수 있는 예외 타입(@ExceptionHandler 에 적힌 것, TypedHandlerExceptionResolver 의 타입,
+ *   DefaultHandlerExceptionResolver 가 처리하는 것, ResponseStatusException), cause 없는 경우
+ * - 그 밖의 조합(하위 예외 타입, cause 가 있는 예외, 나중에 생긴 핸들러)은 처음 나올 때 계산해서 따로 기억, MAX_LEARNED 까지만
+ * 어떤 예외 타입이 던져질지는 뜰 때 다 알 수 없어서 (@ResponseStatus 붙은 타입, 비즈니스 예외 하위 타입 등) 두번째 단계가 있음
+ *
+ * 모든 예외가 여기를 지나가니 처리 결과(상태 코드)와 같이 ErrorStats 에 기록, 아무도 처리 못하면 500
+ */
+@Slf4j
+public class DispatchTableHandlerExceptionResolver implements HandlerExceptionResolver {
+
+    //리졸버가 처리해서 afterCompletion 에 ex 가 null 로 오는 예외도 지표에 남길 수 있게
+    public static final String RESOLVED_EXCEPTION = DispatchTableHandlerExceptionResolver.class.getName() + ".exception";
+
+    //DefaultHandlerExceptionResolver.doResolveException 이 처리하는 예외 (스프링 5.3), 하위 타입 포함
+    static final List<Class<? extends Exception>> DEFAULT_RESOLVED_TYPES = List.of(
+            HttpRequestMethodNotSupportedException.class,
+            HttpMediaTypeNotSupportedException.class,
+            HttpMediaTypeNotAcceptableException.class,
+            ServletRequestBindingException.class,
+            TypeMismatchException.class,
+            HttpMessageNotReadableException.class,
+            HttpMessageNotWritableException.class,
+            MethodArgumentNotValidException.class,
+            MissingServletRequestPartException.class,
+            BindException.class,
+            NoHandlerFoundException.class,
+            AsyncRequestTimeoutException.class);
+
+    //핸들러가 없을 때(null)와 HandlerMethod 가 아닌 핸들러를 위한 키
+    private static final Class<?> NO_HANDLER = Void.class;
+    private static final Class<?> NOT_HANDLER_METHOD = Object.class;
+
+    //cause 가 이보다 깊으면 테이블 없이 전부 물어봄
+    private static final int MAX_CAUSE_DEPTH = 8;
+    //핸들러 타입마다 뜬 뒤에 배운 조합 수
+    private static final int MAX_LEARNED = 1024;
+
+    private final HandlerExceptionResolver[] resolvers;
+    private final int[] allResolvers;
+    private final ErrorStats errorStats;
+
+    //뜰 때 만든 고정 테이블, 핸들러 타입 -> 예외 타입 -> 물어볼 리졸버 위치들
+    private volatile Map<Class<?>, Map<Class<?>, int[]>> table = Map.of();
+    //핸들러 타입 -> 예외 타입(cause 없을 때) 또는 예외 + cause 타입 목록 -> 물어볼 리졸버 위치들
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Object, int[]>> learned = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ExceptionHandlerMethodResolver> localHandlerResolvers = new ConcurrentHashMap<>();
+
+    public DispatchTableHandlerExceptionResolver(List<HandlerExceptionResolver> resolvers, ErrorStats errorStats) {
+        this.resolvers = resolvers.toArray(new HandlerExceptionResolver[0]);
+        this.allResolvers = new int[this.resolvers.length];
+        for (int i = 0; i < allResolvers.length; i++) {
+            allResolvers[i] = i;
+        }
+        this.errorStats = errorStats;
+    }
+
+    /**
+     * 고정 테이블 만들기, 등록된 컨트롤러 타입(HandlerMethod 의 빈 타입)을 받아서
+     * 리졸버들은 이미 초기화(afterPropertiesSet) 된 상태여야 함
+     */
+    public void initialize(Collection<Class<?>> handlerTypes) {
+        Set<Class<?>> handlers = new LinkedHashSet<>();
+        handlers.add(NO_HANDLER);
+        handlers.add(NOT_HANDLER_METHOD);
+        for (Class<?> handlerType : handlerTypes) {
+            //JDK 프록시는 요청마다 실제 타입을 봐야 해서 고정 테이블에는 안 넣음
+            if (!Proxy.isProxyClass(handlerType)) {
+                handlers.add(handlerType);
+            }
+        }
+        Set<Class<? extends Exception>> exceptionTypes = knownExceptionTypes(handlers);
+
+        Map<Class<?>, Map<Class<?>, int[]>> built = new HashMap<>();
+        for (Class<?> handlerType : handlers) {
+            Map<Class<?>, int[]> byException = new HashMap<>();
+            for (Class<? extends Exception> exceptionType : exceptionTypes) {
+                byException.put(exceptionType, computeCandidates(handlerType, List.of(exceptionType)));
+            }
+            built.put(handlerType, Map.copyOf(byException));
+        }
+        table = Map.copyOf(built);
+        log.info("dispatch table handlers={} exceptionTypes={} resolvers={}", handlers.size(), exceptionTypes.size(), resolvers.length);
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+
+        request.setAttribute(RESOLVED_EXCEPTION, ex);
+
+        for (int i : candidates(handler, ex)) {
+            ModelAndView mav = resolvers[i].resolveException(request, response, handler, ex);
+            if (mav != null) {
+                record(request, ex, response.getStatus());
+                return mav;
+            }
+        }
+        record(request, ex, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        return null;
+    }
+
+    //뜬 뒤에 배운 조합 수, 지표와 테스트용
+    public int learnedSize() {
+        int size = 0;
+        for (ConcurrentMap<Object, int[]> byException : learned.values()) {
+            size += byException.size();
+        }
+        return size;
+    }
+
+    private void record(HttpServletRequest request, Exception ex, int status) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        errorStats.record(ex, pattern != null ? pattern.toString() : RequestMetrics.UNMAPPED, status);
+    }
+
+    private int[] candidates(Object handler, Exception ex) {
+        Class<?> handlerType = handlerType(handler);
+
+        Object key;
+        List<Class<? extends Throwable>> chain;
+        if (ex.getCause() == null) {
+            Map<Class<?>, int[]> byException = table.get(handlerType);
+            if (byException != null) {
+                int[] candidates = byException.get(ex.getClass());
+                if (candidates != null) {
+                    return candidates;
+                }
+            }
+            key = ex.getClass();
+            chain = List.of(ex.getClass());
+        } else {
+            chain = causeChain(ex);
+            if (chain == null) {
+                return allResolvers;
+            }
+            key = chain;
+        }
+
+        ConcurrentMap<Object, int[]> byKey = learned.get(handlerType);
+        if (byKey == null) {
+            byKey = learned.computeIfAbsent(handlerType, type -> new ConcurrentHashMap<>());
+        }
+        int[] candidates = byKey.get(key);
+        if (candidates == null) {
+            candidates = computeCandidates(handlerType, chain);
+            if (byKey.size() < MAX_LEARNED) {
+                byKey.putIfAbsent(key, candidates);
+            }
+            log.debug("dispatch table [{}][{}] -> {}", handlerType.getSimpleName(), key, candidates.length);
+        }
+        return candidates;
+    }
+
+    //예외와 cause 타입들, 너무 깊으면 null
+    private static List<Class<? extends Throwable>> causeChain(Throwable ex) {
+        List<Class<? extends Throwable>> chain = new ArrayList<>(2);
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (chain.size() == MAX_CAUSE_DEPTH) {
+                return null;
+            }
+            chain.add(current.getClass());
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return List.copyOf(chain);
+    }
+
+    private int[] computeCandidates(Class<?> handlerType, List<Class<? extends Throwable>> chain) {
+        int[] candidates = new int[resolvers.length];
+        int count = 0;
+        for (int i = 0; i < resolvers.length; i++) {
+            if (mayResolve(resolvers[i], handlerType, chain)) {
+                candidates[count++] = i;
+            }
+        }
+        return count == candidates.length ? allResolvers : Arrays.copyOf(candidates, count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean mayResolve(HandlerExceptionResolver resolver, Class<?> handlerType, List<Class<? extends Throwable>> chain) {
+        Class<? extends Exception> exceptionType = (Class<? extends Exception>) chain.get(0);
+        if (resolver instanceof TypedHandlerExceptionResolver) {
+            return ((TypedHandlerExceptionResolver) resolver).supports(exceptionType);
+        }
+        //하위 클래스는 뭘 더 처리하는지 모르니까 정확히 이 클래스일 때만
+        if (resolver.getClass() == DefaultHandlerExceptionResolver.class) {
+            return isAnyAssignable(DEFAULT_RESOLVED_TYPES, exceptionType);
+        }
+        if (resolver instanceof ResponseStatusExceptionResolver) {
+            //cause 가 Exception 인 동안 cause 도 봄
+            for (Class<? extends Throwable> type : chain) {
+                if (!Exception.class.isAssignableFrom(type)) {
+                    break;
+                }
+                if (ResponseStatusException.class.isAssignableFrom(type)
+                        || AnnotatedElementUtils.findMergedAnnotation(type, ResponseStatus.class) != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (resolver instanceof ExceptionHandlerExceptionResolver) {
+            for (Class<? extends Throwable> type : chain) {
+                if (hasExceptionHandler((ExceptionHandlerExceptionResolver) resolver, handlerType, type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isAnyAssignable(Collection<Class<? extends Exception>> types, Class<?> exceptionType) {
+        for (Class<? extends Exception> type : types) {
+            if (type.isAssignableFrom(exceptionType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasExceptionHandler(ExceptionHandlerExceptionResolver resolver, Class<?> handlerType, Class<? extends Throwable> exceptionType) {
+        //ExceptionHandlerExceptionResolver 는 HandlerMethod 이거나 핸들러가 없을 때만 동작
+        if (handlerType == NOT_HANDLER_METHOD) {
+            return false;
+        }
+
+        //컨트롤러 안의 @ExceptionHandler
+        Class<?> controllerType = handlerType == NO_HANDLER ? null : handlerType;
+        //색인을 쓰는 리졸버면 리플렉션 없이 색인에 물어봄
+        if (controllerType != null) {
+            boolean local;
+            if (resolver instanceof IndexedExceptionHandlerExceptionResolver) {
+                local = ((IndexedExceptionHandlerExceptionResolver) resolver).hasLocalExceptionHandler(controllerType, exceptionType);
+            } else {
+                local = localHandlerResolvers.computeIfAbsent(controllerType, ExceptionHandlerMethodResolver::new)
+                        .resolveMethodByExceptionType(exceptionType) != null;
+            }
+            if (local) {
+                return true;
+            }
+        }
+
+        //@ControllerAdvice 의 @ExceptionHandler
+        for (Map.Entry<ControllerAdviceBean, ExceptionHandlerMethodResolver> entry : resolver.getExceptionHandlerAdviceCache().entrySet()) {
+            if (entry.getKey().isApplicableToBeanType(controllerType)
+                    && entry.getValue().resolveMethodByExceptionType(exceptionType) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //고정 테이블에 넣을 예외 타입, 어디엔가 이름이 적혀 있는 것들
+    private Set<Class<? extends Exception>> knownExceptionTypes(Set<Class<?>> handlerTypes) {
+        Set<Class<? extends Exception>> types = new LinkedHashSet<>(DEFAULT_RESOLVED_TYPES);
+        types.add(ResponseStatusException.class);
+        for (HandlerExceptionResolver resolver : resolvers) {
+            if (resolver instanceof TypedHandlerExceptionResolver) {
+                types.addAll(((TypedHandlerExceptionResolver) resolver).exceptionTypes());
+            }
+            if (resolver instanceof ExceptionHandlerExceptionResolver) {
+                for (ControllerAdviceBean advice : ((ExceptionHandlerExceptionResolver) resolver).getExceptionHandlerAdviceCache().keySet()) {
+                    if (advice.getBeanType() != null) {
+                        addExceptionHandlerTypes(advice.getBeanType(), types);
+                    }
+                }
+            }
+        }
+        for (Class<?> handlerType : handlerTypes) {
+            if (handlerType != NO_HANDLER && handlerType != NOT_HANDLER_METHOD) {
+                addExceptionHandlerTypes(handlerType, types);
+            }
+        }
+        return types;
+    }
+
+    //ExceptionHandlerMethodResolver 가 예외 타입을 정하는 방식과 같게, 애노테이션에 적은 것 없으면 파라미터 타입
+    @SuppressWarnings("unchecked")
+    private static void addExceptionHandlerTypes(Class<?> type, Set<Class<? extends Exception>> types) {
+        for (Method method : MethodIntrospector.selectMethods(type, ExceptionHandlerMethodResolver.EXCEPTION_HANDLER_METHODS)) {
+            ExceptionHandler annotation = AnnotatedElementUtils.findMergedAnnotation(method, ExceptionHandler.class);
+            List<Class<?>> mapped = new ArrayList<>(List.of(annotation.value()));
+            if (mapped.isEmpty()) {
+                mapped.addAll(List.of(method.getParameterTypes()));
+            }
+            for (Class<?> exceptionType : mapped) {
+                if (Exception.class.isAssignableFrom(exceptionType)) {
+                    types.add((Class<? extends Exception>) exceptionType);
+                }
+            }
+        }
+    }
+
+    //ExceptionHandlerExceptionResolver 가 핸들러 타입을 구하는 방식과 같게
+    private Class<?> handlerType(Object handler) {
+        if (handler == null) {
+            return NO_HANDLER;
+        }
+        if (!(handler instanceof HandlerMethod)) {
+            return NOT_HANDLER_METHOD;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        Class<?> beanType = handlerMethod.getBeanType();
+        return Proxy.isProxyClass(beanType) ? AopUtils.getTargetClass(handlerMethod.getBean()) : beanType;
+    }
+}
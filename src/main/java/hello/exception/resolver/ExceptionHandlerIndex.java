@@ -0,0 +1,197 @@
+package hello.exception.resolver;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ExceptionDepthComparator;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 빌드할 때 만들어 둔 @ExceptionHandler 목록 (META-INF/exception-handler-index.properties, ExceptionHandlerIndexGenerator)
+ *
+ * ExceptionHandlerMethodResolver 는 컨트롤러 타입마다 처음 예외가 터질 때 모든 메서드를 돌면서 애노테이션을 찾는다
+ * 색인에 있는 타입은 그걸 안 하고 적혀 있는 메서드만 getDeclaredMethod 로 바로 찾음
+ * @ExceptionHandler 가 없는 컨트롤러도 빈 줄로 들어 있어서 "없음" 도 바로 안다
+ *
+ * 한 줄이 컨트롤러 하나
+ * hello.exception.api.ApiExceptionV2Controller=java.lang.IllegalArgumentException>hello.exception.api.ApiExceptionV2Controller#illegalExHandle(...);...
+ * 예외 타입 고르는 규칙은 ExceptionHandlerMethodResolver 와 같음 (가장 가까운 부모 예외, 없으면 cause)
+ *
+ * 색인이 없거나(IDE 에서 바로 실행) 적힌 메서드를 못 찾으면(오래된 색인) 그 타입은 모르는 걸로, 원래 방식으로 돌아감
+ */
+@Slf4j
+public class ExceptionHandlerIndex {
+
+    public static final String LOCATION = "META-INF/exception-handler-index.properties";
+
+    static final char MAPPING_SEPARATOR = ';';
+    static final char EXCEPTION_SEPARATOR = '>';
+    static final char METHOD_SEPARATOR = '#';
+
+    //색인에 없거나 색인이 맞지 않는 타입
+    private static final Handlers UNKNOWN = new Handlers(Map.of());
+
+    private final Map<String, String> entries;
+    private final ConcurrentMap<Class<?>, Handlers> handlers = new ConcurrentHashMap<>();
+
+    ExceptionHandlerIndex(Map<String, String> entries) {
+        this.entries = entries;
+    }
+
+    public static ExceptionHandlerIndex load(ClassLoader classLoader) {
+        ClassPathResource resource = new ClassPathResource(LOCATION, classLoader);
+        if (!resource.exists()) {
+            log.info("exception handler index not found, {}", LOCATION);
+            return new ExceptionHandlerIndex(Map.of());
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = resource.getInputStream()) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("exception handler index 읽기 실패: " + LOCATION, e);
+        }
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (String type : properties.stringPropertyNames()) {
+            entries.put(type, properties.getProperty(type));
+        }
+        log.info("exception handler index types={}", entries.size());
+        return new ExceptionHandlerIndex(Map.copyOf(entries));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    //이 타입의 @ExceptionHandler 를 색인으로 답할 수 있는지
+    public boolean contains(Class<?> handlerType) {
+        return handlers(handlerType) != UNKNOWN;
+    }
+
+    //contains 가 true 인 타입만, 맞는 메서드가 없으면 null
+    public Method resolveMethodByExceptionType(Class<?> handlerType, Class<? extends Throwable> exceptionType) {
+        return handlers(handlerType).resolve(exceptionType);
+    }
+
+    //ExceptionHandlerMethodResolver.resolveMethodByThrowable 처럼 예외 타입으로 못 찾으면 cause 로
+    public Method resolveMethodByThrowable(Class<?> handlerType, Throwable exception) {
+        Handlers byType = handlers(handlerType);
+        for (Throwable current = exception; current != null; current = current.getCause()) {
+            Method method = byType.resolve(current.getClass());
+            if (method != null) {
+                return method;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private Handlers handlers(Class<?> handlerType) {
+        Handlers byType = handlers.get(handlerType);
+        if (byType == null) {
+            byType = handlers.computeIfAbsent(handlerType, this::parse);
+        }
+        return byType;
+    }
+
+    private Handlers parse(Class<?> handlerType) {
+        String entry = entries.get(handlerType.getName());
+        if (entry == null) {
+            return UNKNOWN;
+        }
+        Map<Class<? extends Throwable>, Method> mappings = new LinkedHashMap<>();
+        try {
+            ClassLoader classLoader = handlerType.getClassLoader();
+            for (String mapping : split(entry, MAPPING_SEPARATOR)) {
+                int exceptionEnd = mapping.indexOf(EXCEPTION_SEPARATOR);
+                Class<? extends Throwable> exceptionType =
+                        ClassUtils.forName(mapping.substring(0, exceptionEnd), classLoader).asSubclass(Throwable.class);
+                mappings.put(exceptionType, method(mapping.substring(exceptionEnd + 1), classLoader));
+            }
+        } catch (ClassNotFoundException | NoSuchMethodException | RuntimeException e) {
+            log.warn("exception handler index out of date for {}, {}", handlerType.getName(), e.toString());
+            return UNKNOWN;
+        }
+        return new Handlers(mappings);
+    }
+
+    //hello.exception.api.ApiExceptionV2Controller#illegalExHandle(java.lang.IllegalArgumentException,...)
+    private static Method method(String signature, ClassLoader classLoader) throws ClassNotFoundException, NoSuchMethodException {
+        int nameStart = signature.indexOf(METHOD_SEPARATOR);
+        int parametersStart = signature.indexOf('(');
+        Class<?> declaringClass = ClassUtils.forName(signature.substring(0, nameStart), classLoader);
+        String name = signature.substring(nameStart + 1, parametersStart);
+
+        List<String> parameterNames = split(signature.substring(parametersStart + 1, signature.length() - 1), ',');
+        Class<?>[] parameterTypes = new Class<?>[parameterNames.size()];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] = ClassUtils.forName(parameterNames.get(i), classLoader);
+        }
+        return declaringClass.getDeclaredMethod(name, parameterTypes);
+    }
+
+    private static List<String> split(String value, char separator) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        while (start < value.length()) {
+            int end = value.indexOf(separator, start);
+            if (end < 0) {
+                end = value.length();
+            }
+            parts.add(value.substring(start, end));
+            start = end + 1;
+        }
+        return parts;
+    }
+
+    private static final class Handlers {
+        private final Map<Class<? extends Throwable>, Method> mappings;
+        //예외 타입 -> 고른 메서드 (없으면 empty)
+        private final ConcurrentMap<Class<?>, Optional<Method>> resolved = new ConcurrentHashMap<>();
+
+        private Handlers(Map<Class<? extends Throwable>, Method> mappings) {
+            this.mappings = mappings;
+        }
+
+        private Method resolve(Class<? extends Throwable> exceptionType) {
+            if (mappings.isEmpty()) {
+                return null;
+            }
+            Optional<Method> method = resolved.get(exceptionType);
+            if (method == null) {
+                method = resolved.computeIfAbsent(exceptionType, type -> Optional.ofNullable(closest(exceptionType)));
+            }
+            return method.orElse(null);
+        }
+
+        //ExceptionHandlerMethodResolver.getMappedMethod 와 같은 규칙
+        private Method closest(Class<? extends Throwable> exceptionType) {
+            List<Class<? extends Throwable>> matches = new ArrayList<>();
+            for (Class<? extends Throwable> mappedException : mappings.keySet()) {
+                if (mappedException.isAssignableFrom(exceptionType)) {
+                    matches.add(mappedException);
+                }
+            }
+            if (matches.isEmpty()) {
+                return null;
+            }
+            if (matches.size() > 1) {
+                matches.sort(new ExceptionDepthComparator(exceptionType));
+            }
+            return mappings.get(matches.get(0));
+        }
+    }
+}
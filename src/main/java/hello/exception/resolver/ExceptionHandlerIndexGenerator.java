@@ -0,0 +1,112 @@
+package hello.exception.resolver;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 컴파일된 클래스에서 @Controller, @ControllerAdvice 의 @ExceptionHandler 를 찾아 ExceptionHandlerIndex 파일로 쓰는, 스프링 안 띄움
+ * 빌드 중에 ./gradlew exceptionHandlerIndex 로 (classes 가 의존해서 따로 부를 일은 없음)
+ *
+ * java hello.exception.resolver.ExceptionHandlerIndexGenerator <출력 디렉터리> <패키지>
+ *
+ * 메서드 찾는 방법, 예외 타입 정하는 방법은 ExceptionHandlerMethodResolver 와 같음
+ * 같은 예외에 메서드가 둘이면 애플리케이션이 시작할 때 나는 오류가 빌드에서 남
+ * 줄 순서를 정렬해서 같은 코드면 같은 파일
+ */
+public class ExceptionHandlerIndexGenerator {
+
+    private static final MethodIntrospector.MetadataLookup<ExceptionHandler> EXCEPTION_HANDLER_METHODS =
+            method -> AnnotatedElementUtils.findMergedAnnotation(method, ExceptionHandler.class);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ExceptionHandlerIndexGenerator <output-dir> <base-package>");
+            System.exit(2);
+        }
+
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Controller.class));
+        scanner.addIncludeFilter(new AnnotationTypeFilter(ControllerAdvice.class));
+
+        ClassLoader classLoader = ExceptionHandlerIndexGenerator.class.getClassLoader();
+        Map<String, String> entries = new TreeMap<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(args[1])) {
+            Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+            entries.put(type.getName(), entry(type));
+        }
+
+        Path file = Paths.get(args[0]).resolve(ExceptionHandlerIndex.LOCATION);
+        Files.createDirectories(file.getParent());
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# ExceptionHandlerIndexGenerator, 직접 고치지 말 것\n");
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                out.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+        System.out.println("exception handler index types=" + entries.size() + " -> " + file);
+    }
+
+    private static String entry(Class<?> type) {
+        Map<Method, ExceptionHandler> methods = MethodIntrospector.selectMethods(type, EXCEPTION_HANDLER_METHODS);
+
+        Map<String, String> mappings = new TreeMap<>();
+        for (Map.Entry<Method, ExceptionHandler> handler : methods.entrySet()) {
+            Method method = handler.getKey();
+            for (Class<? extends Throwable> exceptionType : exceptionTypes(method, handler.getValue())) {
+                String previous = mappings.put(exceptionType.getName(), signature(method));
+                if (previous != null && !previous.equals(signature(method))) {
+                    throw new IllegalStateException("Ambiguous @ExceptionHandler method mapped for [" + exceptionType
+                            + "] in " + type.getName() + ": {" + previous + ", " + signature(method) + "}");
+                }
+            }
+        }
+        return mappings.entrySet().stream()
+                .map(mapping -> mapping.getKey() + ExceptionHandlerIndex.EXCEPTION_SEPARATOR + mapping.getValue())
+                .collect(Collectors.joining(String.valueOf(ExceptionHandlerIndex.MAPPING_SEPARATOR)));
+    }
+
+    //애노테이션에 적은 예외, 없으면 Throwable 파라미터 타입
+    @SuppressWarnings("unchecked")
+    private static List<Class<? extends Throwable>> exceptionTypes(Method method, ExceptionHandler annotation) {
+        List<Class<? extends Throwable>> exceptionTypes = new ArrayList<>(Arrays.asList(annotation.value()));
+        if (exceptionTypes.isEmpty()) {
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (Throwable.class.isAssignableFrom(parameterType)) {
+                    exceptionTypes.add((Class<? extends Throwable>) parameterType);
+                }
+            }
+        }
+        if (exceptionTypes.isEmpty()) {
+            throw new IllegalStateException("No exception types mapped to " + method);
+        }
+        exceptionTypes.sort(Comparator.comparing(Class::getName));
+        return exceptionTypes;
+    }
+
+    private static String signature(Method method) {
+        return method.getDeclaringClass().getName() + ExceptionHandlerIndex.METHOD_SEPARATOR + method.getName()
+                + Arrays.stream(method.getParameterTypes()).map(Class::getTypeName).collect(Collectors.joining(",", "(", ")"));
+    }
+}
@@ -0,0 +1,77 @@
+package hello.exception.resolver;
+
+import org.springframework.web.method.ControllerAdviceBean;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 컨트롤러 안의 @ExceptionHandler 를 ExceptionHandlerIndex(빌드할 때 만든 색인)로 찾는 ExceptionHandlerExceptionResolver
+ * exception-handler.index.enabled=true 일 때 WebConfig 의 WebMvcRegistrations 가 기본 리졸버 대신 넘겨줌
+ *
+ * 원래는 컨트롤러 타입마다 첫 예외에서 ExceptionHandlerMethodResolver 를 만든다 (모든 메서드 + 애노테이션 조회)
+ * 색인에 있는 컨트롤러는 그걸 안 하니까 뜬 직후 첫 오류 응답이 빨라짐
+ * 색인에 없는 타입, JDK 프록시는 부모 방식 그대로
+ *
+ * @ControllerAdvice 쪽은 부모가 afterPropertiesSet 에서 이미 만들어 둔 캐시를 그대로 쓴다 (같은 순서, 같은 적용 범위 검사)
+ */
+public class IndexedExceptionHandlerExceptionResolver extends ExceptionHandlerExceptionResolver {
+
+    private final ExceptionHandlerIndex index;
+
+    //DispatchTableHandlerExceptionResolver 가 색인에 없는 타입을 물어볼 때
+    private final ConcurrentMap<Class<?>, ExceptionHandlerMethodResolver> unindexed = new ConcurrentHashMap<>();
+
+    public IndexedExceptionHandlerExceptionResolver(ExceptionHandlerIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * 컨트롤러 안에 이 예외를 받는 @ExceptionHandler 가 있는지 (@ControllerAdvice 는 빼고)
+     */
+    public boolean hasLocalExceptionHandler(Class<?> handlerType, Class<? extends Throwable> exceptionType) {
+        if (index.contains(handlerType)) {
+            return index.resolveMethodByExceptionType(handlerType, exceptionType) != null;
+        }
+        return unindexed.computeIfAbsent(handlerType, ExceptionHandlerMethodResolver::new)
+                .resolveMethodByExceptionType(exceptionType) != null;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod getExceptionHandlerMethod(HandlerMethod handlerMethod, Exception exception) {
+        if (handlerMethod == null) {
+            return super.getExceptionHandlerMethod(null, exception);
+        }
+        Class<?> handlerType = handlerMethod.getBeanType();
+        if (Proxy.isProxyClass(handlerType) || !index.contains(handlerType)) {
+            return super.getExceptionHandlerMethod(handlerMethod, exception);
+        }
+
+        Method method = index.resolveMethodByThrowable(handlerType, exception);
+        if (method != null) {
+            return new ServletInvocableHandlerMethod(handlerMethod.getBean(), method);
+        }
+        return adviceHandlerMethod(handlerType, exception);
+    }
+
+    //부모의 @ControllerAdvice 부분과 같음
+    private ServletInvocableHandlerMethod adviceHandlerMethod(Class<?> handlerType, Exception exception) {
+        for (Map.Entry<ControllerAdviceBean, ExceptionHandlerMethodResolver> entry : getExceptionHandlerAdviceCache().entrySet()) {
+            ControllerAdviceBean advice = entry.getKey();
+            if (advice.isApplicableToBeanType(handlerType)) {
+                Method method = entry.getValue().resolveMethod(exception);
+                if (method != null) {
+                    return new ServletInvocableHandlerMethod(advice.resolveBean(), method);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package hello.exception.resolver;
+
+import hello.exception.servlet.ErrorPageRenderer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * 다른 리졸버가 처리하지 못한 RuntimeException 을 WAS 까지 보내지 않고 여기서 500 오류 화면으로
+ * WebServerCustomizer 의 ErrorPage(RuntimeException.class, "/error-page/500") 와 같은 결과를
+ * ERROR 디스패치 없이 원래 요청 안에서 만든다
+ *
+ * error.inline-rendering.enabled=true 일 때만 WebConfig 에서 맨 뒤에 등록
+ */
+@Slf4j
+public class InlineErrorPageResolver implements TypedHandlerExceptionResolver {
+
+    private final ErrorPageRenderer errorPageRenderer;
+
+    public InlineErrorPageResolver(ErrorPageRenderer errorPageRenderer) {
+        this.errorPageRenderer = errorPageRenderer;
+    }
+
+    @Override
+    public List<Class<? extends Exception>> exceptionTypes() {
+        return List.of(RuntimeException.class);
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+
+        if (!(ex instanceof RuntimeException) || response.isCommitted()) {
+            return null;
+        }
+
+        try {
+            errorPageRenderer.render(request, response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ex.getMessage(), ex);
+            //이미 응답을 다 썼으니 빈 ModelAndView
+            return new ModelAndView();
+        } catch (Exception e) {
+            //여기서 실패하면 원래 예외를 WAS 로, WAS 오류 페이지가 처리
+            log.error("inline error page ex", e);
+            return null;
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package hello.exception.resolver;
 
+import hello.exception.errorlog.ErrorLog;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * ExceptionResolver을 적용 전에는 prehandle을 거치고 컨트롤러에서 예외가 터지면 posthandle을 가지않고 was에 예외 전달했지만
@@ -38,13 +39,26 @@ import java.io.IOException;
  * 예외 먹고 HTTP 상태 코드 설정해서
  * */
 @Slf4j
-public class MyHandlerExceptionResolver implements HandlerExceptionResolver {
+public class MyHandlerExceptionResolver implements TypedHandlerExceptionResolver {
+
+    //같은 예외가 쏟아지면 스택 트레이스는 한번만
+    private final ErrorLog errorLog;
+
+    public MyHandlerExceptionResolver(ErrorLog errorLog) {
+        this.errorLog = errorLog;
+    }
+
+    //IllegalArgumentException 만 처리
+    @Override
+    public List<Class<? extends Exception>> exceptionTypes() {
+        return List.of(IllegalArgumentException.class);
+    }
 
     //Exception ex 예외가 오면 정상적인 ModelAndView를 반환
     @Override
     public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
 
-        log.info("call resolver", ex);
+        errorLog.info(log, "call resolver", ex);
 
         try {
             //넘어온 오류가 IllegalArgumentException이면 400으로 내보내는
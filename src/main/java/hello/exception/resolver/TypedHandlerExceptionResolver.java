@@ -0,0 +1,25 @@
+package hello.exception.resolver;
+
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.util.List;
+
+/**
+ * 처리할 수 있는 예외 타입을 미리 알려주는 ExceptionResolver
+ * DispatchTableHandlerExceptionResolver 가 이걸 보고 처리 못하는 예외면 아예 호출하지 않는다
+ * 던져진 예외 자체의 타입만 본다 (cause 는 안 봄), 구현도 그렇게 instanceof 로만 처리해야 함
+ */
+public interface TypedHandlerExceptionResolver extends HandlerExceptionResolver {
+
+    //이 타입들과 하위 타입만 처리, 뜰 때 디스패치 테이블 만들 때도 씀
+    List<Class<? extends Exception>> exceptionTypes();
+
+    default boolean supports(Class<? extends Exception> exceptionType) {
+        for (Class<? extends Exception> supported : exceptionTypes()) {
+            if (supported.isAssignableFrom(exceptionType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,25 +1,39 @@
 package hello.exception.resolver;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import hello.exception.exception.UserException;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.negotiation.ErrorFormat;
+import hello.exception.problem.ProblemWriter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.support.RequestContextUtils;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 //WebConfig에 추가
 //사실 이런 ExceptionResolver 직접 구현할 필요없이 스프링에서 제공함
 //UserException 처리하는
 @Slf4j
-public class UserHandlerExceptionResolver implements HandlerExceptionResolver {
+public class UserHandlerExceptionResolver implements TypedHandlerExceptionResolver {
 
-    //errorResult객체를 문자로 바꿔주는
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    //다른 오류 경로와 같은 application/problem+json 바디
+    private final ProblemWriter problemWriter;
+
+    //Accept 헤더 해석, 다른 리졸버와 ErrorPageController 가 같이 쓰는
+    private final AcceptHeaderNegotiator negotiator;
+
+    public UserHandlerExceptionResolver(ProblemWriter problemWriter, AcceptHeaderNegotiator negotiator) {
+        this.problemWriter = problemWriter;
+        this.negotiator = negotiator;
+    }
+
+    @Override
+    public List<Class<? extends Exception>> exceptionTypes() {
+        return List.of(UserException.class);
+    }
 
     @Override
     public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
@@ -36,31 +50,20 @@ public class UserHandlerExceptionResolver implements HandlerExceptionResolver {
                 log.info("UserException resolver to 400");
 
 
-                String acceptHeader = request.getHeader("accept");
+                //accept 가 정확히 "application/json" 인지만 보지 않고 q 값까지 보고 고름
+                ErrorFormat format = negotiator.negotiate(request);
                 //나갈 응답상태를 세팅
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
 
-                //acceptHeader가 json이면
-                if ("application/json".equals(acceptHeader)) {
-
-                    Map<String, Object> errorResult = new HashMap<>();
+                //json 이나 problem+json 을 원하면
+                if (format.isJson()) {
 
-                    //예외정보는 예외 클래스와 메시지만
-                    errorResult.put("ex", ex.getClass());
-                    errorResult.put("message", ex.getMessage());
+                    //예전에는 {"ex": 예외 클래스, "message": 메시지} 였는데 다른 경로와 맞춰서 problem+json
+                    //{"type":"/problems/user-error","title":"사용자 오류","status":400,"detail":"사용자 오류","code":"USER-EX"}
+                    //Map 만들지 않고 ProblemWriter 의 ObjectWriter 로 바이트 만들어서 출력 스트림에 바로
+                    problemWriter.write(response, ex, RequestContextUtils.getLocale(request));
 
-                    //예외 데이터를 response에 넣어줘야함
-                    //에리데이터 errorResult 객체를 문자열로 바꿈
-                    String result = objectMapper.writeValueAsString(errorResult);
-
-                    //response 세팅
-                    response.setContentType("application/json");
-                    response.setCharacterEncoding("utf-8");
-                    //변환된 데이터 json을 http응답바디에 적음
                     //ModelAndView() 로 반환해야 되서 다 세팅해야함
-                    //json을 문자로 바꿈
-                    response.getWriter().write(result);
-
                     return new ModelAndView();
 
                 } else {//그 외의 케이스, json 이 아니면 json으로 응답안하는
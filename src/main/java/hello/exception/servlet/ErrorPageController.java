@@ -1,22 +1,27 @@
 package hello.exception.servlet;
 
+import hello.exception.errorstats.ErrorStats;
+import hello.exception.metrics.RequestMetrics;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.problem.ProblemWriter;
+import hello.exception.resolver.DispatchTableHandlerExceptionResolver;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.support.RequestContextUtils;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 
 //이쁜 오류 페이지를 보여주기 위한 컨트롤러
 //WebServerCustomizer를 @component로 등록해줘야 동작
 @Slf4j
 @Controller
+@RequiredArgsConstructor
 public class ErrorPageController {
 
     //was가 예외를 받으면 requestgetattribute로 밑에 정보들을 담아 다시 보냄. 출력해 볼 수 있음
@@ -28,18 +33,29 @@ public class ErrorPageController {
     public static final String ERROR_SERVLET_NAME = "javax.servlet.error.servlet_name";
     public static final String ERROR_STATUS_CODE = "javax.servlet.error.status_code";
 
+    private final ErrorStats errorStats;
+    private final ProblemWriter problemWriter;
+    //리졸버들과 같은 Accept 헤더 해석
+    private final AcceptHeaderNegotiator negotiator;
+
     @RequestMapping("/error-page/404")
     public String errorPage404(HttpServletRequest request, HttpServletResponse response) {
         log.info("errorPage 404");
-        printErrorInfo(request);
-        return "error-page/404";
+        printErrorInfo(request, errorStats);
+        return errorPageView(HttpServletResponse.SC_NOT_FOUND);
     }
 
+    //accept 가 json 이면 problem+json (errorPage500Api), 아니면 오류 화면
+    //ModelAndView 를 null 로 돌려주면 응답을 이미 다 쓴 걸로 보고 뷰를 안 찾음
     @RequestMapping("/error-page/500")
-    public String errorPage500(HttpServletRequest request, HttpServletResponse response) {
+    public ModelAndView errorPage500(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (negotiator.negotiate(request).isJson()) {
+            errorPage500Api(request, response);
+            return null;
+        }
         log.info("errorPage 500");
-        printErrorInfo(request);
-        return "error-page/500";
+        printErrorInfo(request, errorStats);
+        return new ModelAndView(errorPageView(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
     }
 
     /**
@@ -55,35 +71,55 @@ public class ErrorPageController {
      * 쌉중요!!! 근데 사실 BasicErrorController 에는 이 로직도 들어있음
      * 즉 요청 헤더 accept 가 json 이면 같은 url 이더라도 html 파일을 반환하는게 아닌 json 형식으로 반환
      * 스프링부트는  BasicErrorController가 제공하는 기본정보들 활용해 API 만듬
+     *
+     * 예전에는 produces 매핑으로 나눴는데 그러려면 AcceptHeaderNegotiator 를 스프링 MVC 전체 콘텐츠 협상에 넣어야 했음
+     * 지금은 errorPage500 에서 AcceptHeaderNegotiator 로 직접 나눔, 리졸버들과 같은 결과
+     * "application/json, text/plain" 처럼 여러 개 보내도 q 값 보고 json 이 먼저면 여기로
+     *
+     * 예전에는 Map 에 status, message 를 담아서 컨버터로 보냈는데 다른 오류 경로와 맞춰서 problem+json
      * */
-    @RequestMapping(value = "/error-page/500", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Map<String, Object>> errorPage500Api(
-            HttpServletRequest request, HttpServletResponse response) {
+    private void errorPage500Api(HttpServletRequest request, HttpServletResponse response) throws IOException {
 
         log.info("API errorPage 500");
+        recordError(request, errorStats);
 
-        //result에 값 넣으면 json으로 변환됨
-        //HashMap은 순서 보장안해서 출력순서 바뀔 수 있음
-        Map<String, Object> result = new HashMap<>();
-        //위에 정의해놓은 코드 넣는
-        Exception ex = (Exception) request.getAttribute(ERROR_EXCEPTION);
-        result.put("status", request.getAttribute(ERROR_STATUS_CODE));
-        /** 에러 메시지, ApiExceptionController 에서 잘못된 사용자 라는 메시지 넣어줌 */
-        result.put("message", ex.getMessage());
-
-        //오류상태코드
+        //오류상태코드, /error-page/500 을 바로 부르면 없음
         Integer statusCode = (Integer) request.getAttribute(RequestDispatcher.ERROR_STATUS_CODE);
 
-        return new ResponseEntity<>(result, HttpStatus.valueOf(statusCode));
+        writeApiError(request, response, statusCode != null ? statusCode : HttpServletResponse.SC_INTERNAL_SERVER_ERROR, problemWriter);
     }
     //결과
     //{
-    //  "message": "잘못된 사용자",
-    //  "status": 500
+    //  "type": "/problems/internal-error",
+    //  "title": "서버 오류",
+    //  "status": 500,
+    //  "detail": "내부 오류",
+    //  "code": "EX"
     //}
     //HTTP Header에 Accept 가 application/json 이 아니면, 기존 오류 응답인 HTML 응답이 출력되는 것을 확인
 
-    private void printErrorInfo(HttpServletRequest request) {
+    /**
+     * 오류 api 응답(problem+json), ErrorPageRenderer 도 같은 모양으로 응답하려고 같이 씀
+     * 예외가 없으면(sendError) 리졸버가 처리한 예외, 그것도 없으면 상태 코드와 sendError 메시지로
+     */
+    public static void writeApiError(HttpServletRequest request, HttpServletResponse response, int status,
+                                     ProblemWriter problemWriter) throws IOException {
+        Throwable ex = (Throwable) request.getAttribute(ERROR_EXCEPTION);
+        if (ex == null) {
+            ex = (Throwable) request.getAttribute(DispatchTableHandlerExceptionResolver.RESOLVED_EXCEPTION);
+        }
+        problemWriter.write(response, status, ex, (String) request.getAttribute(ERROR_MESSAGE), RequestContextUtils.getLocale(request));
+    }
+
+    /**
+     * WebServerCustomizer 에 등록한 오류 페이지와 같은 규칙, 404 는 404 화면 나머지는 500 화면
+     */
+    public static String errorPageView(int status) {
+        return status == HttpServletResponse.SC_NOT_FOUND ? "error-page/404" : "error-page/500";
+    }
+
+    //오류 정보 출력 + ErrorStats 에 기록
+    public static void printErrorInfo(HttpServletRequest request, ErrorStats errorStats) {
         log.info("ERROR_EXCEPTION: {}", request.getAttribute(ERROR_EXCEPTION));
         log.info("ERROR_EXCEPTION_TYPE: {}", request.getAttribute(ERROR_EXCEPTION_TYPE));
         log.info("ERROR_MESSAGE: {}", request.getAttribute(ERROR_MESSAGE));
@@ -91,5 +127,20 @@ public class ErrorPageController {
         log.info("ERROR_SERVLET_NAME: {}", request.getAttribute(ERROR_SERVLET_NAME));
         log.info("ERROR_STATUS_CODE: {}", request.getAttribute(ERROR_STATUS_CODE));
         log.info("dispatchType={}", request.getDispatcherType());
+        recordError(request, errorStats);
+    }
+
+    /**
+     * 리졸버를 이미 지나간 예외는 DispatchTableHandlerExceptionResolver 가 기록했으니 건너뜀
+     * 여기서 기록하는 건 핸들러 없는 404, 필터에서 보낸 sendError 처럼 리졸버를 안 거친 오류
+     * 원래 요청의 매핑 패턴은 오류 페이지 매핑으로 덮여서 경로는 UNMAPPED 로 (URI 그대로 쓰면 id 마다 쌓임)
+     * ErrorPageRenderer 도 같이 씀
+     */
+    public static void recordError(HttpServletRequest request, ErrorStats errorStats) {
+        if (request.getAttribute(DispatchTableHandlerExceptionResolver.RESOLVED_EXCEPTION) == null) {
+            Integer status = (Integer) request.getAttribute(ERROR_STATUS_CODE);
+            errorStats.record((Throwable) request.getAttribute(ERROR_EXCEPTION), RequestMetrics.UNMAPPED,
+                    status != null ? status : HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package hello.exception.servlet;
+
+import hello.exception.errorstats.ErrorStats;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.problem.ProblemWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.Locale;
+
+import static hello.exception.servlet.ErrorPageController.*;
+
+/**
+ * 오류 화면을 원래 요청 안에서 바로 그리는
+ *
+ * WebServerCustomizer 방식은 예외나 sendError 가 WAS 까지 올라간 다음
+ * WAS 가 /error-page/500 을 DispatcherType.ERROR 로 다시 요청한다
+ * 핸들러 매핑, 인터셉터, 뷰 리졸버를 한번 더 타는
+ *
+ * 여기서는 WAS 가 오류 페이지 요청할 때 넣어주는 request attribute 를 똑같이 넣고
+ * ErrorPageController 와 같은 뷰(error-page/404, error-page/500), 같은 api 응답으로 바로 응답
+ * InlineErrorPageResolver(예외), InlineErrorPageFilter(sendError) 에서 사용
+ */
+@Slf4j
+@Component
+public class ErrorPageRenderer {
+
+    //미리 그려둔 오류 화면, 없으면 타임리프
+    private final PrecompiledErrorViewResolver precompiledViewResolver;
+    private final ViewResolver viewResolver;
+    private final AcceptHeaderNegotiator negotiator;
+    private final ProblemWriter problemWriter;
+    private final ErrorStats errorStats;
+
+    public ErrorPageRenderer(PrecompiledErrorViewResolver precompiledViewResolver,
+                             @Qualifier("thymeleafViewResolver") ViewResolver viewResolver,
+                             AcceptHeaderNegotiator negotiator, ProblemWriter problemWriter, ErrorStats errorStats) {
+        this.precompiledViewResolver = precompiledViewResolver;
+        this.viewResolver = viewResolver;
+        this.negotiator = negotiator;
+        this.problemWriter = problemWriter;
+        this.errorStats = errorStats;
+    }
+
+    public void render(HttpServletRequest request, HttpServletResponse response, int status, String message, Exception ex) throws Exception {
+
+        //WAS 가 오류 페이지를 다시 요청할 때 넣어주는 정보
+        request.setAttribute(ERROR_STATUS_CODE, status);
+        request.setAttribute(ERROR_MESSAGE, message != null ? message : "");
+        request.setAttribute(ERROR_REQUEST_URI, request.getRequestURI());
+        if (ex != null) {
+            request.setAttribute(ERROR_EXCEPTION, ex);
+            request.setAttribute(ERROR_EXCEPTION_TYPE, ex.getClass());
+        }
+
+        //ErrorPageController.printErrorInfo 처럼 오류마다 INFO 일곱 줄은 찍지 않음, 필요하면 debug 로
+        if (log.isDebugEnabled()) {
+            log.debug("inline errorPage {} uri={} exception={} message={}", status, request.getRequestURI(),
+                    ex != null ? ex.getClass().getName() : null, message);
+        }
+        recordError(request, errorStats);
+
+        response.resetBuffer();
+        response.setStatus(status);
+
+        //ErrorPageController 에 produces json 매핑이 있는 건 500 뿐
+        if (status == HttpServletResponse.SC_INTERNAL_SERVER_ERROR && negotiator.negotiate(request).isJson()) {
+            writeApiError(request, response, status, problemWriter);
+            return;
+        }
+
+        Locale locale = RequestContextUtils.getLocale(request);
+        View view = precompiledViewResolver.resolveViewName(errorPageView(status), locale);
+        if (view == null) {
+            view = viewResolver.resolveViewName(errorPageView(status), locale);
+        }
+        if (view == null) {
+            throw new IllegalStateException("오류 화면을 찾을 수 없음: " + errorPageView(status));
+        }
+        view.render(Collections.emptyMap(), request, response);
+    }
+}
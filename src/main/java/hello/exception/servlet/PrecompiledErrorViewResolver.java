@@ -0,0 +1,315 @@
+package hello.exception.servlet;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 오류 화면 템플릿을 시작할 때 한번 그려서 바이트 배열로 들고 있는 ViewResolver
+ *
+ * 외부 장애로 오류가 몰리면 오류가 날 때마다 타임리프가 같은 템플릿을 다시 그린다
+ * error/404, error/4xx, error-page/404, error-page/500 은 동적인 부분이 아예 없고
+ * error/500 도 th:text 로 status, message 같은 값만 끼워 넣는다
+ *
+ * 그래서 BasicErrorController 가 모델에 넣는 값 자리에 표시를 해서 한번 그려두고
+ * 그 위치(오프셋)로 템플릿을 고정 바이트 조각과 값 자리로 나눠 둔다
+ * 응답할 때는 고정 조각은 그대로, 값 자리에는 html 이스케이프한 값만 끼워서 쓴다
+ *
+ * 모델 값이 문자열, 숫자, 날짜가 아니거나(errors 목록 같은) th:text 말고 다른 th: 속성이 있는 템플릿이면
+ * 그대로 타임리프로 그린다
+ *
+ * 이름이 error/, error-page/ 로 시작하는 뷰만 맡고 나머지는 null 을 돌려 다음 ViewResolver(타임리프)로
+ * ContentNegotiatingViewResolver 가 순서대로 물어보니까 타임리프보다 앞에 오게 순서를 준다
+ */
+@Slf4j
+@Component
+public class PrecompiledErrorViewResolver implements ViewResolver, Ordered {
+
+    private static final String CONTENT_TYPE = "text/html;charset=UTF-8";
+
+    private static final List<String> TEMPLATES = List.of("error/404", "error/4xx", "error/500", "error-page/404", "error-page/500");
+
+    //BasicErrorController(DefaultErrorAttributes)가 모델에 넣는 값
+    private static final List<String> MODEL_KEYS = List.of("timestamp", "status", "error", "exception", "message", "errors", "trace", "path");
+
+    //Accept-Language 가 다양해도 로케일별로 무한정 만들어두지 않게
+    private static final int MAX_LOCALES = 16;
+
+    private static final Pattern TH_ATTRIBUTE = Pattern.compile("\\sth:([\\w-]+)=");
+
+    private final ITemplateEngine templateEngine;
+    private final ResourceLoader resourceLoader;
+    private final ViewResolver thymeleafViewResolver;
+
+    //th:text 만 쓰는 템플릿 -> 로케일 -> 미리 그린 화면
+    private final Map<String, ConcurrentMap<Locale, Precompiled>> precompiled = new HashMap<>();
+
+    public PrecompiledErrorViewResolver(ITemplateEngine templateEngine, ResourceLoader resourceLoader,
+                                        @Qualifier("thymeleafViewResolver") ViewResolver thymeleafViewResolver) {
+        this.templateEngine = templateEngine;
+        this.resourceLoader = resourceLoader;
+        this.thymeleafViewResolver = thymeleafViewResolver;
+    }
+
+    @PostConstruct
+    public void precompile() throws IOException {
+        for (String template : TEMPLATES) {
+            if (!isPrecompilable(template)) {
+                log.info("error page [{}] rendered by thymeleaf", template);
+                continue;
+            }
+            ConcurrentMap<Locale, Precompiled> byLocale = new ConcurrentHashMap<>();
+            byLocale.put(Locale.getDefault(), compile(template, Locale.getDefault()));
+            precompiled.put(template, byLocale);
+        }
+        log.info("precompiled error pages {}", precompiled.keySet());
+    }
+
+    @Override
+    public View resolveViewName(String viewName, Locale locale) {
+        ConcurrentMap<Locale, Precompiled> byLocale = precompiled.get(viewName);
+        if (byLocale == null) {
+            return null;
+        }
+
+        Precompiled page = byLocale.get(locale);
+        if (page == null) {
+            if (byLocale.size() >= MAX_LOCALES) {
+                return null;
+            }
+            page = byLocale.computeIfAbsent(locale, key -> compile(viewName, key));
+        }
+        return new PrecompiledErrorView(viewName, locale, page);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 20;
+    }
+
+    //th:text 외의 속성(th:if, th:each ...)이 있으면 값에 따라 모양이 바뀌니 미리 그릴 수 없음
+    private boolean isPrecompilable(String template) throws IOException {
+        Resource resource = resourceLoader.getResource("classpath:/templates/" + template + ".html");
+        if (!resource.exists()) {
+            return false;
+        }
+        String source;
+        try (InputStream in = resource.getInputStream()) {
+            source = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+
+        Matcher matcher = TH_ATTRIBUTE.matcher(source);
+        while (matcher.find()) {
+            if (!"text".equals(matcher.group(1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Precompiled compile(String template, Locale locale) {
+        Map<String, Object> markers = new HashMap<>();
+        for (String key : MODEL_KEYS) {
+            markers.put(key, marker(key));
+        }
+        String html = templateEngine.process(template, new Context(locale, markers));
+
+        //표시 위치를 찾아서 고정 조각과 값 자리로 나눔
+        List<byte[]> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int offset = 0;
+        while (true) {
+            int next = -1;
+            String nextKey = null;
+            for (String key : MODEL_KEYS) {
+                int index = html.indexOf(marker(key), offset);
+                if (index >= 0 && (next < 0 || index < next)) {
+                    next = index;
+                    nextKey = key;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            literals.add(html.substring(offset, next).getBytes(StandardCharsets.UTF_8));
+            keys.add(nextKey);
+            offset = next + marker(nextKey).length();
+        }
+        literals.add(html.substring(offset).getBytes(StandardCharsets.UTF_8));
+
+        //값이 null 일 때 타임리프가 그 자리에 뭘 쓰는지, 한 번씩 그려보고 비교
+        Map<String, String> nullTexts = new HashMap<>();
+        for (String key : keys) {
+            nullTexts.put(key, nullText(template, locale, markers, html, key));
+        }
+
+        return new Precompiled(literals.toArray(new byte[0][]), keys.toArray(new String[0]), nullTexts);
+    }
+
+    private String nullText(String template, Locale locale, Map<String, Object> markers, String html, String key) {
+        String marker = marker(key);
+        int index = html.indexOf(marker);
+        if (index != html.lastIndexOf(marker)) {
+            return null;
+        }
+
+        Map<String, Object> withoutKey = new HashMap<>(markers);
+        withoutKey.remove(key);
+        String rendered = templateEngine.process(template, new Context(locale, withoutKey));
+
+        String prefix = html.substring(0, index);
+        String suffix = html.substring(index + marker.length());
+        if (!rendered.startsWith(prefix) || !rendered.endsWith(suffix) || rendered.length() < prefix.length() + suffix.length()) {
+            return null;
+        }
+        return rendered.substring(prefix.length(), rendered.length() - suffix.length());
+    }
+
+    private static String marker(String key) {
+        return "@@ERROR_" + key + "@@";
+    }
+
+    //th:text 와 같은 html 이스케이프
+    static String escapeHtml(String value) {
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '&': replacement = "&amp;"; break;
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '"': replacement = "&quot;"; break;
+                case '\'': replacement = "&#39;"; break;
+                default: replacement = null;
+            }
+            if (replacement == null) {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            sb.append(replacement);
+        }
+        return sb == null ? value : sb.toString();
+    }
+
+    /**
+     * 미리 그린 화면, literals[0] keys[0] literals[1] keys[1] ... literals[n] 순서로 이어 붙이면 완성
+     */
+    private static final class Precompiled {
+        private final byte[][] literals;
+        private final String[] keys;
+        private final Map<String, String> nullTexts;
+        private final int literalLength;
+
+        private Precompiled(byte[][] literals, String[] keys, Map<String, String> nullTexts) {
+            this.literals = literals;
+            this.keys = keys;
+            this.nullTexts = nullTexts;
+            int length = 0;
+            for (byte[] literal : literals) {
+                length += literal.length;
+            }
+            this.literalLength = length;
+        }
+    }
+
+    private final class PrecompiledErrorView implements View {
+
+        private final String viewName;
+        private final Locale locale;
+        private final Precompiled page;
+
+        private PrecompiledErrorView(String viewName, Locale locale, Precompiled page) {
+            this.viewName = viewName;
+            this.locale = locale;
+            this.page = page;
+        }
+
+        @Override
+        public String getContentType() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+            byte[][] values = spliceValues(model, request);
+            if (values == null) {
+                //모델에 미리 그릴 수 없는 값이 있으면 타임리프로
+                View view = thymeleafViewResolver.resolveViewName(viewName, locale);
+                if (view == null) {
+                    throw new IllegalStateException("오류 화면을 찾을 수 없음: " + viewName);
+                }
+                view.render(model, request, response);
+                return;
+            }
+
+            int length = page.literalLength;
+            for (byte[] value : values) {
+                length += value.length;
+            }
+
+            response.setContentType(CONTENT_TYPE);
+            response.setContentLength(length);
+            ServletOutputStream out = response.getOutputStream();
+            for (int i = 0; i < page.keys.length; i++) {
+                out.write(page.literals[i]);
+                out.write(values[i]);
+            }
+            out.write(page.literals[page.keys.length]);
+        }
+
+        private byte[][] spliceValues(Map<String, ?> model, HttpServletRequest request) {
+            byte[][] values = new byte[page.keys.length][];
+            for (int i = 0; i < page.keys.length; i++) {
+                String key = page.keys[i];
+                //타임리프처럼 모델에 없으면 request attribute 에서
+                Object value = model != null && model.containsKey(key) ? model.get(key) : request.getAttribute(key);
+
+                String text;
+                if (value == null) {
+                    text = page.nullTexts.get(key);
+                    if (text == null) {
+                        return null;
+                    }
+                } else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean || value instanceof Date) {
+                    text = escapeHtml(String.valueOf(value));
+                } else {
+                    return null;
+                }
+                values[i] = text.getBytes(StandardCharsets.UTF_8);
+            }
+            return values;
+        }
+    }
+}
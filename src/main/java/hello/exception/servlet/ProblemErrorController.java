@@ -0,0 +1,58 @@
+package hello.exception.servlet;
+
+import hello.exception.problem.Problem;
+import hello.exception.problem.ProblemWriter;
+import org.springframework.boot.autoconfigure.web.ErrorProperties;
+import org.springframework.boot.autoconfigure.web.servlet.error.BasicErrorController;
+import org.springframework.boot.autoconfigure.web.servlet.error.ErrorViewResolver;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.Map;
+
+import static hello.exception.servlet.ErrorPageController.ERROR_MESSAGE;
+
+/**
+ * 스프링 부트 기본 /error (BasicErrorController) 의 json 응답만 problem+json 으로
+ * WebServerCustomizer 가 꺼져 있으면 sendError(MyHandlerExceptionResolver 의 400), 404, 처리 못한 예외가 다 여기로 온다
+ *
+ * html 응답(errorHtml)은 그대로, 오류 화면
+ * 예전 바디 {"timestamp","status","error","exception","message","path"} 대신 다른 오류 경로와 같은 Problem
+ * 부모 메서드가 Map 을 돌려주게 되어 있어서 Problem.toMap(), 예전 DefaultErrorAttributes Map 과 비용은 같다
+ * WebConfig 에서 빈으로 등록하면 ErrorMvcAutoConfiguration 의 BasicErrorController 는 안 만들어짐
+ */
+public class ProblemErrorController extends BasicErrorController {
+
+    private final ErrorAttributes errorAttributes;
+    private final ProblemWriter problemWriter;
+
+    public ProblemErrorController(ErrorAttributes errorAttributes, ErrorProperties errorProperties,
+                                  List<ErrorViewResolver> errorViewResolvers, ProblemWriter problemWriter) {
+        super(errorAttributes, errorProperties, errorViewResolvers);
+        this.errorAttributes = errorAttributes;
+        this.problemWriter = problemWriter;
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> error(HttpServletRequest request) {
+        HttpStatus status = getStatus(request);
+        if (status == HttpStatus.NO_CONTENT) {
+            return new ResponseEntity<>(status);
+        }
+
+        //WAS 가 넣어준 예외, 없으면 리졸버까지 갔던 예외(DefaultErrorAttributes 가 기억해둠)
+        Throwable ex = errorAttributes.getError(new ServletWebRequest(request));
+        Problem problem = problemWriter.problem(status.value(), ex, (String) request.getAttribute(ERROR_MESSAGE),
+                RequestContextUtils.getLocale(request));
+
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(problem.toMap());
+    }
+}
@@ -0,0 +1,97 @@
+package hello.exception.validation;
+
+import org.springframework.context.i18n.LocaleContextHolder;
+
+import javax.validation.MessageInterpolator;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 제약 메시지 템플릿({javax.validation.constraints.Size.message} -> "크기가 {min}에서 {max} 사이여야 합니다" -> 숫자 채우기)
+ * 해석 결과를 (제약, 템플릿, 로케일) 별로 기억
+ *
+ * 제약(ConstraintDescriptor)은 하이버네이트 밸리데이터가 클래스별 메타데이터로 들고 있는 같은 객체라 == 로 비교
+ * ${validatedValue} 같은 EL 이 들어간 템플릿은 값마다 결과가 달라서 기억하지 않고 매번 원래 방식대로
+ * 로케일은 LocalValidatorFactoryBean 처럼 요청 로케일(LocaleContextHolder)
+ */
+public class CachingMessageInterpolator implements MessageInterpolator {
+
+    private static final int MAX_ENTRIES = 1024;
+
+    private final MessageInterpolator delegate;
+
+    private final ConcurrentMap<Key, String> messages = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingMessageInterpolator(MessageInterpolator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String interpolate(String messageTemplate, Context context) {
+        return interpolate(messageTemplate, context, LocaleContextHolder.getLocale());
+    }
+
+    @Override
+    public String interpolate(String messageTemplate, Context context, Locale locale) {
+        if (messageTemplate.indexOf('$') >= 0) {
+            return delegate.interpolate(messageTemplate, context, locale);
+        }
+
+        Key key = new Key(context.getConstraintDescriptor(), messageTemplate, locale);
+        String message = messages.get(key);
+        if (message != null) {
+            hits.increment();
+            return message;
+        }
+
+        misses.increment();
+        message = delegate.interpolate(messageTemplate, context, locale);
+        if (messages.size() < MAX_ENTRIES) {
+            messages.putIfAbsent(key, message);
+        }
+        return message;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    private static final class Key {
+        private final ConstraintDescriptor<?> descriptor;
+        private final String template;
+        private final Locale locale;
+
+        private Key(ConstraintDescriptor<?> descriptor, String template, Locale locale) {
+            this.descriptor = descriptor;
+            this.template = template;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return descriptor == key.descriptor && template.equals(key.template) && Objects.equals(locale, key.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(descriptor) + template.hashCode()) * 31 + Objects.hashCode(locale);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package hello.exception.validation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.core.Conventions;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DefaultMessageCodesResolver;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.MessageCodesResolver;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.support.ConfigurableWebBindingInitializer;
+import org.springframework.web.bind.support.WebBindingInitializer;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.annotation.PreDestroy;
+import javax.validation.Configuration;
+import javax.validation.ConstraintViolation;
+import javax.validation.MessageInterpolator;
+import javax.validation.Path;
+import javax.validation.Valid;
+import javax.validation.Validation;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Valid @RequestBody 검증, 스프링 MVC 의 Validator 자리 (WebConfig.getValidator)
+ *
+ * 스프링 부트 기본(LocalValidatorFactoryBean -> SpringValidatorAdapter)은 실패한 제약마다
+ * 메시지 템플릿 해석, BeanWrapper 로 필드 값 다시 읽기(리플렉션), 메시지 코드 목록 만들기(필드 타입 조회), 제약 속성 정렬을 새로 함
+ * 여기서는
+ * - 메시지는 CachingMessageInterpolator 가 (제약, 로케일) 별로 기억
+ * - 필드 값은 하이버네이트 밸리데이터가 이미 읽은 violation.getInvalidValue()
+ * - 메시지 코드(NotBlank.memberDto.memberId ...), 인자는 (DTO 클래스, 제약) 별로 처음 한번만 만들어 둠
+ * 그래서 워밍업 뒤 검증 실패는 하이버네이트 밸리데이터 검증 + Map 조회 + FieldError 생성뿐
+ *
+ * 제약이 하나도 없는 클래스는 ClassValue 로 기억해서 바로 통과
+ * 시작할 때(컨텍스트 리프레시) @Valid/@Validated @RequestBody 파라미터 타입마다 필드 제약의 메시지 코드, 인자를 만들고
+ * 기본 로케일 메시지를 CachingMessageInterpolator 에 채워 둠, 그래서 첫 검증 실패 요청도 만드는 비용을 안 냄
+ * 중첩 경로, 클래스 제약, 다른 로케일은 처음 나올 때 만듦 (stats 의 lateCompiles)
+ * 만들어지는 FieldError 는 SpringValidatorAdapter 와 같은 모양이라 MethodArgumentNotValidException 을 보는 쪽은 그대로
+ */
+@Slf4j
+@Component
+public class CompiledValidator implements SmartValidator {
+
+    //SpringValidatorAdapter 처럼 메시지 인자로 안 넘기는 제약 속성
+    private static final Set<String> INTERNAL_ATTRIBUTES = Set.of("message", "groups", "payload");
+
+    private final ValidatorFactory validatorFactory;
+    private final Validator validator;
+    private final CachingMessageInterpolator messageInterpolator;
+
+    private final ClassValue<BeanPlan> plans = new ClassValue<>() {
+        @Override
+        protected BeanPlan computeValue(Class<?> type) {
+            return new BeanPlan(validator.getConstraintsForClass(type).isBeanConstrained());
+        }
+    };
+
+    private final LongAdder validations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder lateCompiles = new LongAdder();
+
+    public CompiledValidator() {
+        Configuration<?> configuration = Validation.byDefaultProvider().configure();
+        this.messageInterpolator = new CachingMessageInterpolator(configuration.getDefaultMessageInterpolator());
+        this.validatorFactory = configuration.messageInterpolator(messageInterpolator).buildValidatorFactory();
+        this.validator = validatorFactory.getValidator();
+    }
+
+    @PreDestroy
+    public void close() {
+        validatorFactory.close();
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void precompile(ContextRefreshedEvent event) {
+        //자식 컨텍스트(actuator 관리 포트 등)는 건너뜀
+        ApplicationContext context = event.getApplicationContext();
+        if (context.getParent() != null) {
+            return;
+        }
+        MessageCodesResolver codesResolver = messageCodesResolver(context);
+        Locale locale = Locale.getDefault();
+        int parameters = 0;
+        int constraints = 0;
+        for (RequestMappingHandlerMapping mapping : context.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+                    if (parameter.hasParameterAnnotation(RequestBody.class)
+                            && (parameter.hasParameterAnnotation(Valid.class) || parameter.hasParameterAnnotation(Validated.class))
+                            && plans.get(parameter.getParameterType()).constrained) {
+                        //@RequestBody 의 BindingResult 이름과 같게 (MemberDto -> memberDto)
+                        String objectName = Conventions.getVariableNameForParameter(parameter);
+                        constraints += precompile(parameter.getParameterType(), objectName, codesResolver, locale);
+                        parameters++;
+                    }
+                }
+            }
+        }
+        log.info("validation precompiled request body parameters={} constraints={}", parameters, constraints);
+    }
+
+    //DTO 하나의 최상위 필드 제약마다 메시지 코드, 인자를 만들고 그 로케일 메시지를 미리 해석, 만든 제약 수
+    int precompile(Class<?> type, String objectName, MessageCodesResolver codesResolver, Locale locale) {
+        BeanPlan plan = plans.get(type);
+        if (!plan.constrained) {
+            return 0;
+        }
+        int count = 0;
+        for (PropertyDescriptor property : validator.getConstraintsForClass(type).getConstrainedProperties()) {
+            String field = property.getPropertyName();
+            //BindingResult.resolveMessageCodes 와 같은 필드 타입 (BeanWrapper 프로퍼티 타입)
+            java.beans.PropertyDescriptor beanProperty = BeanUtils.getPropertyDescriptor(type, field);
+            Class<?> fieldType = beanProperty != null ? beanProperty.getPropertyType() : property.getElementClass();
+            for (ConstraintDescriptor<?> descriptor : property.getConstraintDescriptors()) {
+                String[] codes = codesResolver.resolveMessageCodes(errorCode(descriptor), objectName, field, fieldType);
+                plan.put(field, descriptor, compile(objectName, field, descriptor, codes));
+                warmMessage(descriptor, locale);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    //EL(${...}) 템플릿은 CachingMessageInterpolator 가 기억하지 않아서 건너뜀
+    private void warmMessage(ConstraintDescriptor<?> descriptor, Locale locale) {
+        String template = descriptor.getMessageTemplate();
+        if (template.indexOf('$') >= 0) {
+            return;
+        }
+        try {
+            messageInterpolator.interpolate(template, new PrecompileContext(descriptor), locale);
+        } catch (RuntimeException e) {
+            //못 채우면 첫 실패 때 원래대로 해석, 뜨는 걸 막을 일은 아님
+            log.debug("validation message warm-up failed template={}", template, e);
+        }
+    }
+
+    //MVC 가 @RequestBody BindingResult 에 넣는 것과 같은 MessageCodesResolver, 설정이 없으면 기본
+    private static MessageCodesResolver messageCodesResolver(ApplicationContext context) {
+        for (RequestMappingHandlerAdapter adapter : context.getBeansOfType(RequestMappingHandlerAdapter.class).values()) {
+            WebBindingInitializer initializer = adapter.getWebBindingInitializer();
+            if (initializer instanceof ConfigurableWebBindingInitializer
+                    && ((ConfigurableWebBindingInitializer) initializer).getMessageCodesResolver() != null) {
+                return ((ConfigurableWebBindingInitializer) initializer).getMessageCodesResolver();
+            }
+        }
+        return new DefaultMessageCodesResolver();
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        validate(target, errors, (Object[]) null);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        validations.increment();
+        BeanPlan plan = plans.get(target.getClass());
+        if (!plan.constrained) {
+            return;
+        }
+
+        Set<ConstraintViolation<Object>> violations = validator.validate(target, groups(validationHints));
+        if (violations.isEmpty()) {
+            return;
+        }
+
+        failures.increment();
+        for (ConstraintViolation<Object> violation : violations) {
+            reject(plan, violation, errors);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long hit = messageInterpolator.hits();
+        long miss = messageInterpolator.misses();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("validations", validations.sum());
+        stats.put("failures", failures.sum());
+        stats.put("lateCompiles", lateCompiles.sum());
+        stats.put("cachedMessages", messageInterpolator.size());
+        stats.put("messageHitRatio", hit + miss == 0 ? 0.0 : (double) hit / (hit + miss));
+        return stats;
+    }
+
+    private void reject(BeanPlan plan, ConstraintViolation<Object> violation, Errors errors) {
+        ConstraintDescriptor<?> descriptor = violation.getConstraintDescriptor();
+        String topLevelField = topLevelField(violation.getPropertyPath());
+        String objectName = errors.getObjectName();
+
+        //최상위 필드만 기억, 중첩(a.b, list[0].c)은 같은 제약이라도 경로가 달라서 매번 만든다
+        ConstraintPlan constraint = topLevelField != null ? plan.get(topLevelField, descriptor) : null;
+        if (constraint == null || !constraint.objectName.equals(objectName)) {
+            String field = topLevelField != null ? topLevelField : violation.getPropertyPath().toString();
+            String errorCode = errorCode(descriptor);
+            String[] codes = errors instanceof BindingResult
+                    ? ((BindingResult) errors).resolveMessageCodes(errorCode, field)
+                    : new String[]{errorCode};
+            constraint = compile(objectName, field, descriptor, codes);
+            if (topLevelField != null) {
+                plan.put(topLevelField, descriptor, constraint);
+                lateCompiles.increment();
+            }
+        }
+
+        if (!(errors instanceof BindingResult)) {
+            errors.rejectValue(constraint.field, constraint.errorCode, constraint.arguments, violation.getMessage());
+            return;
+        }
+        BindingResult bindingResult = (BindingResult) errors;
+        if (constraint.field.isEmpty()) {
+            //클래스에 붙은 제약
+            bindingResult.addError(new ObjectError(objectName, constraint.codes, constraint.arguments, violation.getMessage()));
+        } else {
+            bindingResult.addError(new FieldError(objectName, constraint.field, violation.getInvalidValue(), false,
+                    constraint.codes, constraint.arguments, violation.getMessage()));
+        }
+    }
+
+    private static String errorCode(ConstraintDescriptor<?> descriptor) {
+        return descriptor.getAnnotation().annotationType().getSimpleName();
+    }
+
+    //SpringValidatorAdapter.getArgumentsForConstraint, 메시지 코드는 MessageCodesResolver 로 만든 걸 받음 (거기서 필드 타입 조회)
+    private static ConstraintPlan compile(String objectName, String field, ConstraintDescriptor<?> descriptor, String[] codes) {
+        String errorCode = errorCode(descriptor);
+
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(new DefaultMessageSourceResolvable(new String[]{objectName + Errors.NESTED_PATH_SEPARATOR + field, field}, field));
+        Map<String, Object> attributes = new TreeMap<>();
+        descriptor.getAttributes().forEach((name, value) -> {
+            if (!INTERNAL_ATTRIBUTES.contains(name)) {
+                attributes.put(name, value);
+            }
+        });
+        arguments.addAll(attributes.values());
+        return new ConstraintPlan(objectName, field, errorCode, codes, arguments.toArray());
+    }
+
+    //이름 하나짜리 경로(memberId)면 그 이름, 클래스 제약이면 "", 중첩이면 null
+    private static String topLevelField(Path path) {
+        Iterator<Path.Node> nodes = path.iterator();
+        if (!nodes.hasNext()) {
+            return "";
+        }
+        Path.Node node = nodes.next();
+        if (nodes.hasNext() || node.isInIterable()) {
+            return null;
+        }
+        return node.getName() == null ? "" : node.getName();
+    }
+
+    //@Validated(그룹) 으로 온 힌트만 그룹으로, SpringValidatorAdapter 와 같게
+    private static Class<?>[] groups(Object[] validationHints) {
+        if (validationHints == null || validationHints.length == 0) {
+            return new Class<?>[0];
+        }
+        List<Class<?>> groups = new ArrayList<>();
+        for (Object hint : validationHints) {
+            if (hint instanceof Class) {
+                groups.add((Class<?>) hint);
+            }
+        }
+        return groups.toArray(new Class<?>[0]);
+    }
+
+    //미리 해석할 때 쓰는 컨텍스트, 검증 값이 없어서 값이 들어가는 템플릿(${validatedValue})은 위에서 걸러냄
+    private static final class PrecompileContext implements MessageInterpolator.Context {
+        private final ConstraintDescriptor<?> descriptor;
+
+        private PrecompileContext(ConstraintDescriptor<?> descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public ConstraintDescriptor<?> getConstraintDescriptor() {
+            return descriptor;
+        }
+
+        @Override
+        public Object getValidatedValue() {
+            return null;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            throw new ValidationException("unwrap 지원 안 함: " + type.getName());
+        }
+    }
+
+    private static final class BeanPlan {
+        private final boolean constrained;
+        //필드 -> 제약, 하이버네이트 밸리데이터의 ConstraintDescriptor.equals 는 애노테이션, 속성만 봐서
+        //다른 필드의 같은 제약(memberId, name 의 @NotBlank)이 같은 키가 되니까 필드로 먼저 나눔
+        private final ConcurrentMap<String, ConcurrentMap<ConstraintDescriptor<?>, ConstraintPlan>> constraints = new ConcurrentHashMap<>();
+
+        private BeanPlan(boolean constrained) {
+            this.constrained = constrained;
+        }
+
+        private ConstraintPlan get(String field, ConstraintDescriptor<?> descriptor) {
+            ConcurrentMap<ConstraintDescriptor<?>, ConstraintPlan> byDescriptor = constraints.get(field);
+            return byDescriptor != null ? byDescriptor.get(descriptor) : null;
+        }
+
+        private void put(String field, ConstraintDescriptor<?> descriptor, ConstraintPlan plan) {
+            constraints.computeIfAbsent(field, key -> new ConcurrentHashMap<>()).put(descriptor, plan);
+        }
+    }
+
+    private static final class ConstraintPlan {
+        private final String objectName;
+        private final String field;
+        private final String errorCode;
+        private final String[] codes;
+        private final Object[] arguments;
+
+        private ConstraintPlan(String objectName, String field, String errorCode, String[] codes, Object[] arguments) {
+            this.objectName = objectName;
+            this.field = field;
+            this.errorCode = errorCode;
+            this.codes = codes;
+            this.arguments = arguments;
+        }
+    }
+}
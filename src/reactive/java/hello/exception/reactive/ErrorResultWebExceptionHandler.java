@@ -0,0 +1,57 @@
+package hello.exception.reactive;
+
+import hello.exception.problem.ProblemWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * ExControllerAdvice(ApiExceptionV2Controller 의 @ExceptionHandler 도 같은 규칙) 를 WebFlux 로
+ * /api2, /api3 경로에만 적용, 응답 바디는 서블릿과 같은 problem+json (ProblemWriter)
+ *
+ * IllegalArgumentException -> 400 {"type":"/problems/bad-request",...,"code":"BAD"}
+ * UserException            -> 400 {"type":"/problems/user-error",...,"code":"USER-EX"}
+ * 나머지                    -> 500 {"type":"/problems/internal-error",...,"detail":"내부 오류","code":"EX"}
+ *
+ * ResponseStatusException(라우트 없음 404 같은 프레임워크 예외) 은 컨트롤러에서 터진 게 아니라서 넘김
+ */
+@Slf4j
+@Order(-5)
+public class ErrorResultWebExceptionHandler implements WebExceptionHandler {
+
+    private final ProblemWriter problemWriter;
+
+    public ErrorResultWebExceptionHandler(ProblemWriter problemWriter) {
+        this.problemWriter = problemWriter;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        String path = exchange.getRequest().getPath().value();
+        if (!(path.startsWith("/api2/") || path.startsWith("/api3/")) || ex instanceof ResponseStatusException) {
+            return Mono.error(ex);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+
+        log.error("[exceptionHandler] ex", ex);
+
+        Locale locale = exchange.getLocaleContext().getLocale();
+        byte[] body = problemWriter.bytes(ex, locale != null ? locale : Locale.getDefault());
+
+        response.setRawStatusCode(problemWriter.registry().forException(ex).getStatus());
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
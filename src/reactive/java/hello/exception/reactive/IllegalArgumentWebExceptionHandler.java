@@ -0,0 +1,29 @@
+package hello.exception.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+/**
+ * MyHandlerExceptionResolver 를 WebFlux 로
+ * 서블릿은 sendError(400) 하고 /error 가 오류 응답을 만드는데
+ * 여기서는 ResponseStatusException(400) 으로 바꿔서 ProblemWebExceptionHandler 가 같은 모양으로 만든다
+ */
+@Slf4j
+@Order(-4)
+public class IllegalArgumentWebExceptionHandler implements WebExceptionHandler {
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        if (!(ex instanceof IllegalArgumentException)) {
+            return Mono.error(ex);
+        }
+
+        log.info("IllegalArgumentException handler to 400");
+        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex));
+    }
+}
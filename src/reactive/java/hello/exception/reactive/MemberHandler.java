@@ -0,0 +1,77 @@
+package hello.exception.reactive;
+
+import hello.exception.exception.BusinessExceptions;
+import hello.exception.member.MemberLookup;
+import hello.exception.precheck.ParamFormat;
+import hello.exception.problem.ProblemRegistry;
+import hello.exception.problem.ProblemType;
+import hello.exception.problem.ProblemWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.NumberUtils;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * api 패키지 컨트롤러들과 같은 동작, 함수형 라우팅(ReactiveConfig.memberRoutes) 용
+ * 예외는 던지지 않고 Mono.error 로, WebExceptionHandler 체인이 응답으로 바꾼다
+ */
+@RequiredArgsConstructor
+public class MemberHandler {
+
+    private final BusinessExceptions businessExceptions;
+    private final MemberLookup memberLookup;
+    private final ProblemWriter problemWriter;
+
+    //MemberLookup 이 던진 예외는 fromCallable 이 Mono.error 로
+    public Mono<ServerResponse> getMember(ServerRequest request) {
+        String id = request.pathVariable("id");
+
+        return Mono.fromCallable(() -> memberLookup.findMember(id))
+                .flatMap(member -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(member));
+    }
+
+    public Mono<ServerResponse> responseStatusEx1(ServerRequest request) {
+        return Mono.error(businessExceptions.badRequest());
+    }
+
+    public Mono<ServerResponse> responseStatusEx2(ServerRequest request) {
+        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "error.bad", new IllegalArgumentException()));
+    }
+
+    //@RequestParam Integer data 와 같게, 없거나 숫자가 아니면 400 (DefaultHandlerExceptionResolver 역할)
+    //확실히 틀린 값은 ParameterPrecheckInterceptor 처럼 예외 없이 바로 invalid-parameter
+    //나머지는 바인딩과 같은 NumberUtils.parseNumber 로 (0x1F, 공백 들어간 값도 받음)
+    public Mono<ServerResponse> defaultException(ServerRequest request) {
+        Optional<String> data = request.queryParam("data");
+        if (data.isEmpty()) {
+            return Mono.error(new ServerWebInputException("Required Integer parameter 'data' is not present"));
+        }
+        if (ParamFormat.INT.check(data.get()) == ParamFormat.Verdict.INVALID) {
+            return invalidParameter(request);
+        }
+        try {
+            NumberUtils.parseNumber(data.get(), Integer.class);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ServerWebInputException("Type mismatch for parameter 'data'", null, e));
+        }
+        return ServerResponse.ok().contentType(MediaType.TEXT_PLAIN).bodyValue("ok");
+    }
+
+    private Mono<ServerResponse> invalidParameter(ServerRequest request) {
+        ProblemType type = problemWriter.registry().byName(ProblemRegistry.INVALID_PARAMETER);
+        Locale locale = request.exchange().getLocaleContext().getLocale();
+        return ServerResponse.status(type.getStatus())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .bodyValue(problemWriter.bytes(type, null, locale != null ? locale : Locale.getDefault()));
+    }
+}
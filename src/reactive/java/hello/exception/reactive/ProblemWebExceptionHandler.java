@@ -0,0 +1,73 @@
+package hello.exception.reactive;
+
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.negotiation.ErrorFormat;
+import hello.exception.problem.ProblemWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * ErrorPageController.errorPage500Api(/error-page/500 의 JSON 응답) 를 WebFlux 로
+ * 앞 핸들러들이 못 끝낸 예외를 JSON 을 원하면 서블릿과 같은 problem+json 으로 (ErrorPageController.writeApiError 와 같은 규칙)
+ *
+ * ResponseStatusException 이면 그 상태 코드 + 원래 예외(cause) + reason,  서블릿에서 리졸버가 sendError(status, reason) 한 것과 같음
+ * IllegalArgumentException -> 400 bad-request, BadRequestException -> 400 about:blank (detail 은 해석한 reason)
+ * 나머지 예외는 ProblemRegistry 가 정한 상태 코드 (보통 500 internal-error)
+ *
+ * JSON 이 아니면 넘겨서 스프링 부트 기본 핸들러가 error/4xx, 5xx 화면으로
+ */
+@Slf4j
+@Order(-2)
+public class ProblemWebExceptionHandler implements WebExceptionHandler {
+
+    private final ProblemWriter problemWriter;
+    private final AcceptHeaderNegotiator negotiator;
+
+    public ProblemWebExceptionHandler(ProblemWriter problemWriter, AcceptHeaderNegotiator negotiator) {
+        this.problemWriter = problemWriter;
+        this.negotiator = negotiator;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        ErrorFormat format = negotiator.negotiate(exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT));
+        ServerHttpResponse response = exchange.getResponse();
+        if (!format.isJson() || response.isCommitted()) {
+            return Mono.error(ex);
+        }
+
+        int status;
+        Throwable cause;
+        String message;
+        if (ex instanceof ResponseStatusException) {
+            ResponseStatusException statusException = (ResponseStatusException) ex;
+            status = statusException.getRawStatusCode();
+            cause = statusException.getCause() != null ? statusException.getCause() : statusException;
+            message = statusException.getReason();
+        } else {
+            status = problemWriter.registry().forException(ex).getStatus();
+            cause = ex;
+            message = null;
+        }
+        if (status >= 500) {
+            log.error("[problem] ex", ex);
+        }
+
+        Locale locale = exchange.getLocaleContext().getLocale();
+        byte[] body = problemWriter.bytes(status, cause, message, locale != null ? locale : Locale.getDefault());
+
+        response.setRawStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,88 @@
+package hello.exception.reactive;
+
+import hello.exception.exception.BusinessExceptions;
+import hello.exception.member.MemberLookup;
+import hello.exception.message.ErrorMessageCatalog;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.problem.ProblemWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * WebFlux 로 띄울 때 쓰는 빈들
+ *
+ * 예외 -> 응답 규칙은 서블릿 쪽과 같게, WebExceptionHandler 를 순서대로 (숫자가 작을수록 먼저)
+ * -5 ErrorResultWebExceptionHandler           ExControllerAdvice (/api2, /api3), problem+json
+ * -4 UserExceptionWebExceptionHandler         UserHandlerExceptionResolver, problem+json
+ * -4 IllegalArgumentWebExceptionHandler       MyHandlerExceptionResolver, sendError(400) 대신 ResponseStatusException(400)
+ * -3 ResponseStatusReasonWebExceptionHandler  ResponseStatusExceptionResolver 의 reason 메시지 코드 해석 (BadRequestException)
+ * -2 ProblemWebExceptionHandler               ErrorPageController 의 JSON 오류 응답, problem+json
+ * -1 DefaultErrorWebExceptionHandler          스프링 부트 기본, JSON 이 아닐 때 error/4xx, 5xx 화면
+ *
+ * 처리 못한 예외는 Mono.error 로 다음 핸들러에 넘긴다
+ *
+ * 서블릿 API 에 묶이지 않은 공통 컴포넌트(예외 생성, 메시지 카탈로그, problem+json, Accept 해석, 회원 조회)는
+ * 손으로 다시 선언하지 않고 서블릿 쪽과 같은 @Component 를 패키지 단위로 스캔해서 같이 씀
+ * 서블릿 전용 패키지(servlet, resolver, filter, interceptor ...)는 스캔 대상이 아님
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ComponentScan(basePackageClasses = {BusinessExceptions.class, ErrorMessageCatalog.class, ProblemWriter.class,
+        AcceptHeaderNegotiator.class, MemberLookup.class})
+public class ReactiveConfig {
+
+    //톰캣도 클래스패스에 있어서 그냥 두면 톰캣 위에서 WebFlux 가 돈다, Netty 로 고정
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public MemberHandler memberHandler(BusinessExceptions businessExceptions, MemberLookup memberLookup, ProblemWriter problemWriter) {
+        return new MemberHandler(businessExceptions, memberLookup, problemWriter);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> memberRoutes(MemberHandler memberHandler) {
+        return RouterFunctions.route()
+                .GET("/api/members/{id}", memberHandler::getMember)
+                .GET("/api2/members/{id}", memberHandler::getMember)
+                .GET("/api3/members/{id}", memberHandler::getMember)
+                .GET("/api/response-status-ex1", memberHandler::responseStatusEx1)
+                .GET("/api/response-status-ex2", memberHandler::responseStatusEx2)
+                .GET("/api/default-handler-ex", memberHandler::defaultException)
+                .build();
+    }
+
+    @Bean
+    public ErrorResultWebExceptionHandler errorResultWebExceptionHandler(ProblemWriter problemWriter) {
+        return new ErrorResultWebExceptionHandler(problemWriter);
+    }
+
+    @Bean
+    public UserExceptionWebExceptionHandler userExceptionWebExceptionHandler(ProblemWriter problemWriter, AcceptHeaderNegotiator acceptHeaderNegotiator) {
+        return new UserExceptionWebExceptionHandler(problemWriter, acceptHeaderNegotiator);
+    }
+
+    @Bean
+    public IllegalArgumentWebExceptionHandler illegalArgumentWebExceptionHandler() {
+        return new IllegalArgumentWebExceptionHandler();
+    }
+
+    @Bean
+    public ResponseStatusReasonWebExceptionHandler responseStatusReasonWebExceptionHandler(MessageSource messageSource) {
+        return new ResponseStatusReasonWebExceptionHandler(messageSource);
+    }
+
+    @Bean
+    public ProblemWebExceptionHandler problemWebExceptionHandler(ProblemWriter problemWriter, AcceptHeaderNegotiator acceptHeaderNegotiator) {
+        return new ProblemWebExceptionHandler(problemWriter, acceptHeaderNegotiator);
+    }
+}
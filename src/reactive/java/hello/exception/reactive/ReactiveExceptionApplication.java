@@ -0,0 +1,33 @@
+package hello.exception.reactive;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 같은 API(/api, /api2, /api3 의 members/{id}, response-status-ex1/2, default-handler-ex)를
+ * 서블릿(톰캣) 대신 WebFlux(Netty) 로 띄우는 두 번째 실행 진입점
+ *
+ * 서블릿 쪽 컴포넌트(ErrorPageController, ErrorPageRenderer ...)는 서블릿 API 에 묶여 있어서
+ * hello.exception 전체를 스캔하지 않고 ReactiveConfig 만 가져온다 (공통 컴포넌트는 ReactiveConfig 가 패키지 단위로 스캔)
+ *
+ * 이 패키지는 reactive 소스셋(src/reactive/java)에 따로 있고 webflux 도 그 소스셋에만 붙음
+ * 서블릿 애플리케이션(main) 클래스패스와 bootJar 에는 안 들어감, ./gradlew bootRunReactive 로 띄움
+ *
+ * 예외 처리는 @ExceptionHandler / HandlerExceptionResolver 대신 WebExceptionHandler 체인 (ReactiveConfig 참고)
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@Import(ReactiveConfig.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveExceptionApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+}
@@ -0,0 +1,64 @@
+package hello.exception.reactive;
+
+import org.springframework.context.MessageSource;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * ResponseStatusExceptionResolver 처럼 reason 을 MessageSource 에서 찾아서
+ * BadRequestException(@ResponseStatus reason = "error.bad"), ResponseStatusException("error.bad")
+ * -> "잘못된 요청 오류입니다. 메시지 사용"
+ *
+ * WebFlux 기본 핸들러는 @ResponseStatus 상태 코드는 보지만 reason 을 메시지 코드로 해석하지 않아서
+ * 해석한 메시지로 ResponseStatusException 을 다시 만들어 넘긴다, 원래 예외는 cause 로
+ */
+@Order(-3)
+public class ResponseStatusReasonWebExceptionHandler implements WebExceptionHandler {
+
+    private final MessageSource messageSource;
+
+    public ResponseStatusReasonWebExceptionHandler(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        Locale locale = exchange.getLocaleContext().getLocale();
+
+        if (ex instanceof ResponseStatusException) {
+            ResponseStatusException statusException = (ResponseStatusException) ex;
+            String resolved = resolve(statusException.getReason(), locale);
+            if (resolved == null) {
+                return Mono.error(ex);
+            }
+            return Mono.error(new ResponseStatusException(statusException.getStatus(), resolved, statusException.getCause()));
+        }
+
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(ex.getClass(), ResponseStatus.class);
+        if (responseStatus == null) {
+            return Mono.error(ex);
+        }
+        String resolved = resolve(responseStatus.reason(), locale);
+        if (resolved == null) {
+            return Mono.error(ex);
+        }
+        return Mono.error(new ResponseStatusException(responseStatus.code(), resolved, ex));
+    }
+
+    //메시지 코드가 아니면 null, 그대로 넘김
+    private String resolve(String reason, Locale locale) {
+        if (!StringUtils.hasText(reason)) {
+            return null;
+        }
+        String resolved = messageSource.getMessage(reason, null, reason, locale != null ? locale : Locale.getDefault());
+        return reason.equals(resolved) ? null : resolved;
+    }
+}
@@ -0,0 +1,62 @@
+package hello.exception.reactive;
+
+import hello.exception.exception.UserException;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.negotiation.ErrorFormat;
+import hello.exception.problem.ProblemWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * UserHandlerExceptionResolver 를 WebFlux 로
+ * UserException -> 400, JSON 을 원하면 서블릿과 같은 problem+json (user-error, code USER-EX)
+ *
+ * 서블릿 쪽은 JSON 이 아니면 error/500 뷰를 400 으로 그리는데
+ * WebExceptionHandler 에서는 뷰를 직접 못 그려서 ResponseStatusException(400) 으로 바꿔
+ * 스프링 부트 기본 핸들러(error/4xx 화면)에 넘긴다
+ */
+@Slf4j
+@Order(-4)
+public class UserExceptionWebExceptionHandler implements WebExceptionHandler {
+
+    private final ProblemWriter problemWriter;
+    private final AcceptHeaderNegotiator negotiator;
+
+    public UserExceptionWebExceptionHandler(ProblemWriter problemWriter, AcceptHeaderNegotiator negotiator) {
+        this.problemWriter = problemWriter;
+        this.negotiator = negotiator;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        if (!(ex instanceof UserException)) {
+            return Mono.error(ex);
+        }
+
+        log.info("UserException handler to 400");
+
+        ErrorFormat format = negotiator.negotiate(exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT));
+        ServerHttpResponse response = exchange.getResponse();
+        if (!format.isJson() || response.isCommitted()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex));
+        }
+
+        Locale locale = exchange.getLocaleContext().getLocale();
+        byte[] body = problemWriter.bytes(ex, locale != null ? locale : Locale.getDefault());
+
+        response.setStatusCode(HttpStatus.BAD_REQUEST);
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
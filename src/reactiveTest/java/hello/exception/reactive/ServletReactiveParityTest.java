@@ -0,0 +1,97 @@
+package hello.exception.reactive;
+
+import hello.exception.ExceptionApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 요청을 서블릿(톰캣)과 WebFlux(Netty) 로 띄운 애플리케이션에 보내서 상태 코드, Content-Type, problem 바디가 같은지
+ * ServletVsReactiveBenchmark 가 두 스택을 비교하는 전제
+ */
+class ServletReactiveParityTest {
+
+	private static ConfigurableApplicationContext servlet;
+	private static ConfigurableApplicationContext reactive;
+
+	private static WebTestClient servletClient;
+	private static WebTestClient reactiveClient;
+
+	@BeforeAll
+	static void start() {
+		servlet = new SpringApplicationBuilder(ExceptionApplication.class)
+				.properties("server.port=0", "spring.main.banner-mode=off")
+				.run();
+		reactive = new SpringApplicationBuilder(ReactiveExceptionApplication.class)
+				.web(WebApplicationType.REACTIVE)
+				.properties("server.port=0", "spring.main.banner-mode=off")
+				.run();
+		servletClient = client(servlet);
+		reactiveClient = client(reactive);
+	}
+
+	@AfterAll
+	static void stop() {
+		servlet.close();
+		reactive.close();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"/api/members/bad", "/api/members/user-ex", "/api/members/ex",
+			"/api2/members/bad", "/api2/members/user-ex", "/api2/members/ex",
+			"/api/response-status-ex1", "/api/response-status-ex2",
+			"/api/default-handler-ex?data=x"})
+	void errorResponsesAreTheSame(String path) {
+		EntityExchangeResult<byte[]> servletResult = exchange(servletClient, path);
+		EntityExchangeResult<byte[]> reactiveResult = exchange(reactiveClient, path);
+
+		assertThat(servletResult.getRawStatusCode()).isGreaterThanOrEqualTo(400);
+		assertThat(servletResult.getResponseHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON);
+
+		assertThat(reactiveResult.getRawStatusCode()).isEqualTo(servletResult.getRawStatusCode());
+		assertThat(reactiveResult.getResponseHeaders().getContentType()).isEqualTo(servletResult.getResponseHeaders().getContentType());
+		assertThat(body(reactiveResult)).isEqualTo(body(servletResult));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"/api/members/spring", "/api2/members/spring", "/api/default-handler-ex?data=10"})
+	void successResponsesAreTheSame(String path) {
+		EntityExchangeResult<byte[]> servletResult = exchange(servletClient, path);
+		EntityExchangeResult<byte[]> reactiveResult = exchange(reactiveClient, path);
+
+		assertThat(servletResult.getRawStatusCode()).isEqualTo(200);
+		assertThat(reactiveResult.getRawStatusCode()).isEqualTo(200);
+		assertThat(body(reactiveResult)).isEqualTo(body(servletResult));
+	}
+
+	private static WebTestClient client(ConfigurableApplicationContext context) {
+		return WebTestClient.bindToServer()
+				.baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+				.build();
+	}
+
+	private static EntityExchangeResult<byte[]> exchange(WebTestClient client, String path) {
+		return client.get().uri(path)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectBody()
+				.returnResult();
+	}
+
+	private static String body(EntityExchangeResult<byte[]> result) {
+		byte[] body = result.getResponseBody();
+		return body == null ? "" : new String(body, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,118 @@
+package hello.exception.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.DispatcherType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogRingBufferTest {
+
+	@Test
+	void capacityIsRoundedUpToPowerOfTwo() {
+		assertThat(new AccessLogRingBuffer(5).capacity()).isEqualTo(8);
+		assertThat(new AccessLogRingBuffer(8).capacity()).isEqualTo(8);
+		assertThat(new AccessLogRingBuffer(9).capacity()).isEqualTo(16);
+	}
+
+	@Test
+	void wrapsAroundInOrder() {
+		AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+		int next = 0;
+		int expected = 0;
+
+		//한 바퀴 넘게 여러 번, 넣는 양을 바꿔 가며 칸 위치가 계속 밀리게
+		for (int round = 0; round < 10; round++) {
+			while (buffer.offer(record(0, next))) {
+				next++;
+			}
+			assertThat(buffer.size()).isEqualTo(4);
+
+			int take = round % 2 == 0 ? 3 : 4;
+			for (int i = 0; i < take; i++) {
+				assertThat(sequence(buffer.poll())).isEqualTo(expected++);
+			}
+			assertThat(buffer.size()).isEqualTo(4 - take);
+		}
+		while (buffer.size() > 0) {
+			assertThat(sequence(buffer.poll())).isEqualTo(expected++);
+		}
+		assertThat(buffer.poll()).isNull();
+		assertThat(expected).isEqualTo(next);
+	}
+
+	@Test
+	void concurrentProducersLoseNothingAndKeepPerProducerOrder() throws Exception {
+		int producers = 4;
+		int perProducer = 50_000;
+		AccessLogRingBuffer buffer = new AccessLogRingBuffer(64);
+		CountDownLatch start = new CountDownLatch(1);
+
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int producer = p;
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int i = 0; i < perProducer; i++) {
+					AccessLogRecord record = record(producer, i);
+					//가득 차면 꺼내는 쪽이 비울 때까지
+					while (!buffer.offer(record)) {
+						Thread.yield();
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+
+		int[] nextExpected = new int[producers];
+		int received = 0;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		start.countDown();
+		while (received < producers * perProducer) {
+			assertThat(System.nanoTime()).as("timeout, received=%d", received).isLessThan(deadline);
+			AccessLogRecord record = buffer.poll();
+			if (record == null) {
+				Thread.yield();
+				continue;
+			}
+			String[] fields = fields(record);
+			int producer = Integer.parseInt(fields[1]);
+			//생산자별로 빠짐, 중복 없이 넣은 순서대로
+			assertThat(Integer.parseInt(fields[3])).isEqualTo(nextExpected[producer]++);
+			received++;
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(nextExpected).containsOnly(perProducer);
+		assertThat(buffer.poll()).isNull();
+		assertThat(buffer.size()).isZero();
+	}
+
+	//logId 에 생산자, status 에 순번
+	static AccessLogRecord record(int producer, int sequence) {
+		return new AccessLogRecord(0L, String.valueOf(producer), DispatcherType.REQUEST, "/test", null, sequence, 0L);
+	}
+
+	private static int sequence(AccessLogRecord record) {
+		return Integer.parseInt(fields(record)[3]);
+	}
+
+	//timestamp  logId  dispatcherType  status  ...
+	private static String[] fields(AccessLogRecord record) {
+		StringBuilder sb = new StringBuilder();
+		record.appendTo(sb);
+		return sb.toString().split("\t");
+	}
+}
@@ -0,0 +1,96 @@
+package hello.exception.accesslog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.servlet.DispatcherType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void dropCountsEverythingPastCapacity() {
+		//writer 를 안 띄워서 아무도 안 꺼냄
+		AccessLog accessLog = accessLog(OverflowPolicy.DROP, 8, 10);
+
+		append(accessLog, 20);
+
+		assertThat(accessLog.stats())
+				.containsEntry("queueDepth", 8)
+				.containsEntry("enqueued", 8L)
+				.containsEntry("dropped", 12L)
+				.containsEntry("sampledOut", 0L);
+	}
+
+	@Test
+	void sampleKeepsOneInNAboveThreeQuarters() {
+		AccessLog accessLog = accessLog(OverflowPolicy.SAMPLE, 8, 4);
+
+		append(accessLog, 30);
+
+		//6 개(3/4)까지는 다 들어감, 그 뒤 24 개 중 4 개마다 하나(6 개)만 넣어 보고 2 개 들어가서 가득 참, 나머지 4 개는 버림
+		assertThat(accessLog.stats())
+				.containsEntry("queueDepth", 8)
+				.containsEntry("enqueued", 8L)
+				.containsEntry("sampledOut", 18L)
+				.containsEntry("dropped", 4L);
+	}
+
+	@Test
+	void blockWithoutWriterDoesNotWait() {
+		AccessLog accessLog = accessLog(OverflowPolicy.BLOCK, 8, 10);
+
+		append(accessLog, 10);
+
+		//writer 가 안 돌면 기다려도 자리가 안 나서 버림
+		assertThat(accessLog.stats())
+				.containsEntry("queueDepth", 8)
+				.containsEntry("enqueued", 8L)
+				.containsEntry("dropped", 2L);
+	}
+
+	@Test
+	void blockWaitsForWriterAndLosesNothing() throws Exception {
+		AccessLog accessLog = accessLog(OverflowPolicy.BLOCK, 8, 10);
+		accessLog.start();
+
+		int threads = 4;
+		int perThread = 2_000;
+		List<Thread> producers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread thread = new Thread(() -> append(accessLog, perThread));
+			thread.start();
+			producers.add(thread);
+		}
+		for (Thread thread : producers) {
+			thread.join();
+		}
+		accessLog.stop();
+
+		assertThat(accessLog.stats())
+				.containsEntry("queueDepth", 0)
+				.containsEntry("enqueued", (long) threads * perThread)
+				.containsEntry("written", (long) threads * perThread)
+				.containsEntry("dropped", 0L);
+		assertThat(Files.readAllLines(dir.resolve("access.log"), StandardCharsets.UTF_8)).hasSize(threads * perThread);
+	}
+
+	private AccessLog accessLog(OverflowPolicy policy, int capacity, int sampleRate) {
+		return new AccessLog(true, dir.resolve("access.log").toString(), capacity, 4, policy, sampleRate);
+	}
+
+	private static void append(AccessLog accessLog, int count) {
+		for (int i = 0; i < count; i++) {
+			accessLog.append("log-" + i, DispatcherType.REQUEST, "/test", null, 200, 1_000);
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package hello.exception.api;
+
+import hello.exception.validation.CompiledValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ApiExceptionControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	CompiledValidator compiledValidator;
+
+	@Test
+	void validMemberIsReturned() throws Exception {
+		mockMvc.perform(post("/api/members")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"memberId\":\"spring-1\",\"name\":\"spring\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.memberId").value("spring-1"));
+	}
+
+	@Test
+	void invalidMemberIsValidationProblemFromControllerHandler() throws Exception {
+		mockMvc.perform(post("/api/members")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"memberId\":\"Bad Id!\",\"name\":\"\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+				.andExpect(jsonPath("$.code").value("VALIDATION"))
+				.andExpect(jsonPath("$.errors.length()").value(2));
+
+		//MemberDto 제약은 뜰 때 다 만들어져 있어서 요청 중에 만든 게 없음
+		assertThat(compiledValidator.stats().get("lateCompiles")).isEqualTo(0L);
+	}
+}
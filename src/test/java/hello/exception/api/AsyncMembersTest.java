@@ -0,0 +1,183 @@
+package hello.exception.api;
+
+import hello.exception.async.OffloadExecutor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * members.async.enabled=true 여도 /api, /api2, /api3 members/{id} 오류 응답이 동기와 같은지
+ * 동기, 비동기 컨텍스트에서 각각 본 결과를 모아뒀다가 마지막에 통째로 비교
+ */
+class AsyncMembersTest {
+
+	private static final String[] PATHS = {
+			"/api/members/ex", "/api/members/bad", "/api/members/user-ex",
+			"/api2/members/ex", "/api2/members/bad", "/api2/members/user-ex",
+			"/api3/members/ex", "/api3/members/bad", "/api3/members/user-ex"
+	};
+
+	private static final Map<String, String> syncOutcomes = new LinkedHashMap<>();
+	private static final Map<String, String> asyncOutcomes = new LinkedHashMap<>();
+
+	@AfterAll
+	static void asyncOutcomesEqualSync() {
+		//한쪽만 골라 돌렸으면 비교할 게 없음
+		if (syncOutcomes.size() == PATHS.length && asyncOutcomes.size() == PATHS.length) {
+			assertThat(asyncOutcomes).isEqualTo(syncOutcomes);
+		}
+	}
+
+	@Nested
+	@SpringBootTest
+	@AutoConfigureMockMvc
+	class Sync {
+
+		@Autowired
+		MockMvc mockMvc;
+
+		@Test
+		void errorResponses() throws Exception {
+			for (String path : PATHS) {
+				syncOutcomes.put(path, outcome(() -> mockMvc.perform(get(path).accept(MediaType.APPLICATION_JSON))
+						.andExpect(request().asyncNotStarted())
+						.andReturn()));
+			}
+			assertExpected(syncOutcomes);
+		}
+	}
+
+	@Nested
+	@SpringBootTest(properties = "members.async.enabled=true")
+	@AutoConfigureMockMvc
+	class Async {
+
+		@Autowired
+		MockMvc mockMvc;
+
+		@Test
+		void errorResponses() throws Exception {
+			for (String path : PATHS) {
+				asyncOutcomes.put(path, outcome(() -> {
+					MvcResult started = mockMvc.perform(get(path).accept(MediaType.APPLICATION_JSON))
+							.andExpect(request().asyncStarted())
+							.andReturn();
+					return mockMvc.perform(asyncDispatch(started)).andReturn();
+				}));
+			}
+			assertExpected(asyncOutcomes);
+		}
+
+		@Test
+		void successIsReturnedAfterAsyncDispatch() throws Exception {
+			MvcResult started = mockMvc.perform(get("/api2/members/spring").accept(MediaType.APPLICATION_JSON))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(started))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.memberId").value("spring"));
+		}
+	}
+
+	@Nested
+	@SpringBootTest(properties = {
+			"members.async.enabled=true",
+			"members.async.executor=pool",
+			"members.async.pool-size=1",
+			"members.async.queue-capacity=1"})
+	@AutoConfigureMockMvc
+	class QueueFull {
+
+		@Autowired
+		MockMvc mockMvc;
+
+		@Autowired
+		OffloadExecutor offloadExecutor;
+
+		@Test
+		void fullQueueIsServiceUnavailable() throws Exception {
+			CountDownLatch release = new CountDownLatch(1);
+			//스레드 하나는 돌고 있고 큐 한 칸도 참
+			CompletableFuture<Boolean> running = offloadExecutor.supply(() -> await(release));
+			CompletableFuture<Boolean> queued = offloadExecutor.supply(() -> await(release));
+			try {
+				MvcResult started = mockMvc.perform(get("/api2/members/spring").accept(MediaType.APPLICATION_JSON))
+						.andExpect(request().asyncStarted())
+						.andReturn();
+
+				MvcResult result = mockMvc.perform(asyncDispatch(started))
+						.andExpect(status().isServiceUnavailable())
+						.andReturn();
+				assertThat(result.getResolvedException()).isInstanceOf(ResponseStatusException.class);
+			} finally {
+				release.countDown();
+			}
+			assertThat(running.get(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(queued.get(10, TimeUnit.SECONDS)).isTrue();
+		}
+
+		private boolean await(CountDownLatch latch) {
+			try {
+				return latch.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+	}
+
+	//api, api3 의 ex 는 리졸버가 처리 안 하고 컨테이너(오류 페이지)로 올라감, MockMvc 에선 예외로 나옴
+	private static void assertExpected(Map<String, String> outcomes) {
+		assertThat(outcomes.get("/api/members/ex")).isEqualTo("thrown RuntimeException");
+		assertThat(outcomes.get("/api3/members/ex")).isEqualTo("thrown RuntimeException");
+		assertThat(outcomes.get("/api2/members/ex")).startsWith("500 application/problem+json").contains("\"code\":\"EX\"");
+		//api, api3 의 bad 는 sendError(400), 바디는 컨테이너가 /error 로
+		assertThat(outcomes.get("/api/members/bad")).isEqualTo("400 null ");
+		assertThat(outcomes.get("/api3/members/bad")).isEqualTo("400 null ");
+		assertThat(outcomes.get("/api2/members/bad")).startsWith("400 application/problem+json").contains("\"code\":\"BAD\"");
+		for (String prefix : new String[]{"/api", "/api2", "/api3"}) {
+			assertThat(outcomes.get(prefix + "/members/user-ex")).startsWith("400 application/problem+json")
+					.contains("\"type\":\"/problems/user-error\"").contains("\"code\":\"USER-EX\"");
+		}
+	}
+
+	//상태 코드, Content-Type, 바디 (컨테이너까지 올라간 예외는 그 예외 타입)
+	private static String outcome(Perform perform) throws Exception {
+		try {
+			MvcResult result = perform.perform();
+			return result.getResponse().getStatus() + " " + result.getResponse().getContentType() + " "
+					+ result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+		} catch (Exception e) {
+			assertThat(e.getCause()).isNotNull();
+			return "thrown " + e.getCause().getClass().getSimpleName();
+		}
+	}
+
+	@FunctionalInterface
+	private interface Perform {
+		MvcResult perform() throws Exception;
+	}
+}
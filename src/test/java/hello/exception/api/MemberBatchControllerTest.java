@@ -0,0 +1,46 @@
+package hello.exception.api;
+
+import hello.exception.async.OffloadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "members.batch.parallelism=2")
+@AutoConfigureMockMvc
+class MemberBatchControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@SpyBean
+	OffloadExecutor offloadExecutor;
+
+	@Test
+	void batchIsSplitIntoParallelismTasksAndKeepsOrder() throws Exception {
+		mockMvc.perform(post("/api/members:batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[\"a\",\"bad\",\"b\",\"user-ex\",\"c\",\"a\",\"d\",\"e\"]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(8))
+				.andExpect(jsonPath("$[0].memberId").value("a"))
+				.andExpect(jsonPath("$[1].code").value("BAD"))
+				.andExpect(jsonPath("$[2].memberId").value("b"))
+				.andExpect(jsonPath("$[3].code").value("USER-EX"))
+				.andExpect(jsonPath("$[5].memberId").value("a"))
+				.andExpect(jsonPath("$[7].memberId").value("e"));
+
+		//id 7 개(중복 빼고)를 작업 2 개로
+		verify(offloadExecutor, times(2)).supply(any());
+	}
+}
@@ -0,0 +1,100 @@
+package hello.exception.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.member.Member;
+import hello.exception.member.MemberBackend;
+import hello.exception.problem.ProblemRegistry;
+import hello.exception.problem.ProblemWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberStreamControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Test
+	void streamIsNdjsonWhateverTheAcceptHeader() throws Exception {
+		for (String accept : new String[]{"application/x-ndjson", "application/json", "*/*"}) {
+			MvcResult result = mockMvc.perform(get("/api/members/stream").param("limit", "2").header("Accept", accept))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+
+			mockMvc.perform(asyncDispatch(result))
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+			assertThat(result.getResponse().getContentAsString().split("\n")).as(accept).hasSize(2);
+		}
+	}
+
+	@Test
+	void backendFailureMidStreamEndsWithProblemLine() throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper();
+		//3 명 내보내고 저장소가 끊김
+		MemberBackend failingBackend = new MemberBackend() {
+			@Override
+			public Member findMember(String id) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public Stream<Member> streamAll() {
+				return Stream.iterate(0, i -> i + 1).map(i -> {
+					if (i == 3) {
+						throw new IllegalStateException("저장소 연결 끊김");
+					}
+					return new Member("member-" + i, "hello member-" + i);
+				});
+			}
+		};
+		MemberStreamController controller = new MemberStreamController(failingBackend, objectMapper,
+				new ProblemWriter(objectMapper, new ProblemRegistry(new StaticMessageSource(), "/problems/")),
+				new ErrorLog(true, 60, 10, 5, 100), 2);
+		MockMvc standalone = MockMvcBuilders.standaloneSetup(controller).build();
+
+		MvcResult result = standalone.perform(get("/api/members/stream"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		standalone.perform(asyncDispatch(result))
+				.andExpect(status().isOk());
+
+		String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+		assertThat(lines).hasSize(4);
+		for (int i = 0; i < 3; i++) {
+			assertThat(objectMapper.readTree(lines[i]).get("memberId").asText()).isEqualTo("member-" + i);
+		}
+		//마지막 줄이 problem, 상태 코드는 이미 200 이 나가서 바디로만
+		JsonNode problem = objectMapper.readTree(lines[3]);
+		assertThat(problem.get("status").asInt()).isEqualTo(500);
+		assertThat(problem.get("code").asText()).isEqualTo("EX");
+		assertThat(problem.get("type").asText()).isEqualTo("/problems/internal-error");
+	}
+
+	@Test
+	void flushEveryMustBePositive() {
+		assertThatThrownBy(() -> new MemberStreamController(null, null, null, null, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,120 @@
+package hello.exception.errorlog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ErrorLogTest {
+
+	private static final String MESSAGE = "[test] failed";
+	private static final long WINDOW = TimeUnit.SECONDS.toMillis(60);
+
+	private final Logger logger = mock(Logger.class);
+	//같은 자리에서 만든 예외라 지문이 같음
+	private final IllegalStateException ex = new IllegalStateException("boom");
+	private final long now = TimeUnit.DAYS.toMillis(100);
+
+	@BeforeEach
+	void setUp() {
+		when(logger.isErrorEnabled()).thenReturn(true);
+		when(logger.isInfoEnabled()).thenReturn(true);
+	}
+
+	@Test
+	void stackTraceIsPrintedOncePerWindow() {
+		ErrorLog errorLog = new ErrorLog(true, 60, 10, 5, 100);
+
+		errorLog.error(logger, MESSAGE, ex, now);
+		errorLog.error(logger, MESSAGE, ex, now + 1_000);
+		errorLog.error(logger, MESSAGE, ex, now + WINDOW - 1);
+		verify(logger, times(1)).error(MESSAGE, ex);
+		assertThat(errorLog.stats()).containsEntry("fingerprints", 1).containsEntry("suppressed", 2L);
+
+		//window 가 지나면 다시 전체
+		errorLog.error(logger, MESSAGE, ex, now + WINDOW);
+		verify(logger, times(2)).error(MESSAGE, ex);
+	}
+
+	@Test
+	void suppressedOccurrencesAreSummarizedOnce() {
+		ErrorLog errorLog = new ErrorLog(true, 60, 10, 5, 100);
+
+		for (int i = 0; i < 4; i++) {
+			errorLog.error(logger, MESSAGE, ex, now + i);
+		}
+		errorLog.summarize(now + 10_000);
+		verify(logger).error("{} ({} more occurrences of {})", MESSAGE, 3L, "java.lang.IllegalStateException: boom");
+
+		//그 사이 새로 안 나왔으면 요약도 없음
+		clearInvocations(logger);
+		errorLog.summarize(now + 20_000);
+		verify(logger, never()).error(eq("{} ({} more occurrences of {})"), any(), any(), any());
+	}
+
+	@Test
+	void infoLevelIsSummarizedAtInfo() {
+		ErrorLog errorLog = new ErrorLog(true, 60, 10, 5, 100);
+
+		errorLog.info(logger, MESSAGE, ex, now);
+		errorLog.info(logger, MESSAGE, ex, now + 1);
+		errorLog.summarize(now + 10_000);
+
+		verify(logger).info(MESSAGE, ex);
+		verify(logger).info("{} ({} more occurrences of {})", MESSAGE, 1L, "java.lang.IllegalStateException: boom");
+	}
+
+	@Test
+	void newFingerprintsBeyondMaxAreAlwaysPrinted() {
+		ErrorLog errorLog = new ErrorLog(true, 60, 10, 5, 1);
+		IllegalArgumentException other = new IllegalArgumentException("other");
+
+		errorLog.error(logger, MESSAGE, ex, now);
+		for (int i = 0; i < 3; i++) {
+			errorLog.error(logger, MESSAGE, other, now + i);
+		}
+
+		//맵이 차서 other 는 기억하지 않고 매번 그대로
+		verify(logger, times(3)).error(MESSAGE, other);
+		assertThat(errorLog.stats()).containsEntry("fingerprints", 1).containsEntry("suppressed", 0L);
+	}
+
+	@Test
+	void quietFingerprintsAreEvictedAfterTwoWindows() {
+		ErrorLog errorLog = new ErrorLog(true, 60, 10, 5, 100);
+
+		errorLog.error(logger, MESSAGE, ex, now);
+		errorLog.summarize(now + 2 * WINDOW - 1);
+		assertThat(errorLog.stats()).containsEntry("fingerprints", 1);
+
+		errorLog.summarize(now + 2 * WINDOW);
+		assertThat(errorLog.stats()).containsEntry("fingerprints", 0);
+
+		//지워진 뒤 다시 나오면 window 와 상관없이 전체
+		errorLog.error(logger, MESSAGE, ex, now + 2 * WINDOW + 1);
+		verify(logger, times(2)).error(MESSAGE, ex);
+	}
+
+	@Test
+	void disabledPrintsEveryTime() {
+		ErrorLog errorLog = new ErrorLog(false, 60, 10, 5, 100);
+
+		for (int i = 0; i < 3; i++) {
+			errorLog.error(logger, MESSAGE, ex, now + i);
+		}
+
+		verify(logger, times(3)).error(MESSAGE, ex);
+		assertThat(errorLog.stats()).containsEntry("fingerprints", 0);
+	}
+}
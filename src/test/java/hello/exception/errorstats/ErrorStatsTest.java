@@ -0,0 +1,54 @@
+package hello.exception.errorstats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorStatsTest {
+
+	@Test
+	void seriesIdsAreRecycledWhenSilentForTheWholeHourRing() {
+		//OTHER + 시리즈 2 개
+		ErrorStats stats = new ErrorStats(true, 3, 16, 5);
+		long now = TimeUnit.DAYS.toMillis(100);
+
+		stats.record(new IllegalArgumentException(), "/a", 400, now);
+		stats.record(new IllegalStateException(), "/b", 500, now);
+		//다 찼고 둘 다 최근에 나와서 회수할 게 없음
+		stats.record(new UnsupportedOperationException(), "/c", 500, now);
+		assertThat(stats.stats()).containsEntry("series", 3).containsEntry("overflow", 1L).containsEntry("recycled", 0L);
+
+		//하루 넘게 안 나온 시리즈 번호를 회수해서 새 시리즈에
+		long later = now + TimeUnit.HOURS.toMillis(25);
+		stats.record(new UnsupportedOperationException(), "/c", 500, later);
+		stats.record(new IllegalArgumentException(), "/a", 400, later);
+		assertThat(stats.stats()).containsEntry("series", 3).containsEntry("overflow", 1L).containsEntry("recycled", 2L);
+	}
+
+	@Test
+	void recentSeriesAreNotRecycled() {
+		ErrorStats stats = new ErrorStats(true, 2, 16, 5);
+		long now = TimeUnit.DAYS.toMillis(100);
+
+		stats.record(new IllegalArgumentException(), "/a", 400, now);
+		long later = now + TimeUnit.HOURS.toMillis(23);
+		stats.record(new IllegalStateException(), "/b", 500, later);
+
+		assertThat(stats.stats()).containsEntry("overflow", 1L).containsEntry("recycled", 0L);
+	}
+
+	@Test
+	void dimensionIgnoresDefaultLocale() {
+		Locale previous = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			assertThat(ErrorStats.Dimension.from("fingerprint")).isEqualTo(ErrorStats.Dimension.FINGERPRINT);
+			assertThat(ErrorStats.Dimension.from("series")).isEqualTo(ErrorStats.Dimension.SERIES);
+		} finally {
+			Locale.setDefault(previous);
+		}
+	}
+}
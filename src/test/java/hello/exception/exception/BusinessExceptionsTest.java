@@ -0,0 +1,48 @@
+package hello.exception.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BusinessExceptionsTest {
+
+	@Test
+	void stacklessOffCreatesNewExceptionsWithStackTrace() {
+		BusinessExceptions exceptions = new BusinessExceptions(false, false);
+
+		UserException first = exceptions.user("사용자 오류");
+		assertThat(first).isNotSameAs(exceptions.user("사용자 오류"));
+		assertThat(first.getStackTrace()).isNotEmpty();
+
+		BadRequestException badRequest = exceptions.badRequest();
+		assertThat(badRequest).isNotSameAs(BadRequestException.STACKLESS);
+		assertThat(badRequest.getStackTrace()).isNotEmpty();
+	}
+
+	@Test
+	void stacklessUserExceptionIsCachedPerMessage() {
+		BusinessExceptions exceptions = new BusinessExceptions(true, false);
+
+		UserException first = exceptions.user("사용자 오류");
+		assertThat(exceptions.user("사용자 오류")).isSameAs(first);
+		assertThat(exceptions.user("다른 오류")).isNotSameAs(first);
+		assertThat(first.getMessage()).isEqualTo("사용자 오류");
+		assertThat(first.getStackTrace()).isEmpty();
+
+		//suppressed 가 막혀 있어서 여러 번 던져도 쌓이지 않음
+		first.addSuppressed(new IllegalStateException());
+		assertThat(first.getSuppressed()).isEmpty();
+
+		//스위치는 타입별
+		assertThat(exceptions.badRequest()).isNotSameAs(BadRequestException.STACKLESS);
+	}
+
+	@Test
+	void stacklessBadRequestReusesSingleton() {
+		BusinessExceptions exceptions = new BusinessExceptions(false, true);
+
+		assertThat(exceptions.badRequest()).isSameAs(BadRequestException.STACKLESS);
+		assertThat(BadRequestException.STACKLESS.getStackTrace()).isEmpty();
+		assertThat(exceptions.user("사용자 오류").getStackTrace()).isNotEmpty();
+	}
+}
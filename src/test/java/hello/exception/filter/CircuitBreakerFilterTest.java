@@ -0,0 +1,64 @@
+package hello.exception.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.problem.ProblemRegistry;
+import hello.exception.problem.ProblemWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerFilterTest {
+
+	private static final long OPEN_MILLIS = 100;
+
+	private final RouteCircuitBreakers breakers = new RouteCircuitBreakers(10, 0.5, 1, OPEN_MILLIS, 1);
+	private final CircuitBreakerFilter filter = new CircuitBreakerFilter(breakers,
+			new ProblemWriter(new ObjectMapper(), new ProblemRegistry(new StaticMessageSource(), "/problems/")), OPEN_MILLIS);
+
+	@Test
+	void openRouteIsRejectedByDecodedPath() throws Exception {
+		open("/api/members/stream");
+
+		MockHttpServletResponse response = perform("/api/%6Dembers/stream", new MockFilterChain());
+
+		assertThat(response.getStatus()).isEqualTo(503);
+		assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+	}
+
+	@Test
+	void probeEndingWithErrorReopens() throws Exception {
+		RouteCircuitBreaker breaker = open("/api/members/{id}");
+		Thread.sleep(OPEN_MILLIS);
+
+		FilterChain failing = (request, response) -> {
+			throw new StackOverflowError();
+		};
+		assertThatThrownBy(() -> perform("/api/members/spring", failing)).isInstanceOf(StackOverflowError.class);
+
+		//probe 결과가 기록돼서 HALF_OPEN 에 남지 않음
+		assertThat(breaker.snapshot(System.currentTimeMillis()))
+				.containsEntry("state", RouteCircuitBreaker.State.OPEN)
+				.containsEntry("opened", 2L);
+	}
+
+	private RouteCircuitBreaker open(String route) {
+		RouteCircuitBreaker breaker = breakers.breaker(route);
+		breaker.onResult(RouteCircuitBreaker.Permit.PASS, true, System.currentTimeMillis());
+		assertThat(breaker.isClosed()).isFalse();
+		return breaker;
+	}
+
+	private MockHttpServletResponse perform(String uri, FilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+}
@@ -0,0 +1,83 @@
+package hello.exception.filter;
+
+import hello.exception.accesslog.AccessLog;
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.interceptor.LogInterceptor;
+import hello.exception.journal.ErrorJournal;
+import hello.exception.logid.LogIdGenerator;
+import hello.exception.metrics.RequestMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.MDC;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.servlet.DispatcherType;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * LogFilter 와 LogInterceptor 가 한 요청에 같은 로그 id 를 쓰는지
+ */
+class LogFilterTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void filterAndInterceptorShareOneLogId() throws Exception {
+		LogIdGenerator logIdGenerator = new LogIdGenerator();
+		//접근 로그로 둘 다 id 를 넘기니까 그걸 잡아서 비교
+		AccessLog accessLog = mock(AccessLog.class);
+		when(accessLog.isEnabled()).thenReturn(true);
+		ErrorJournal errorJournal = new ErrorJournal(false, dir.toString(), 16, 1024, 1, 64, 1000);
+
+		MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new LogIdController())
+				.addFilters(new LogFilter(logIdGenerator, accessLog))
+				.addInterceptors(new LogInterceptor(logIdGenerator, accessLog, new RequestMetrics(),
+						new ErrorLog(true, 60, 10, 5, 100), errorJournal))
+				.build();
+
+		MvcResult result = mockMvc.perform(get("/log-id")).andExpect(status().isOk()).andReturn();
+
+		String logId = (String) result.getRequest().getAttribute(LogIdGenerator.LOG_ID);
+		assertThat(logId).hasSize(26);
+		assertThat(result.getResponse().getHeader(LogIdGenerator.RESPONSE_HEADER)).isEqualTo(logId);
+		//핸들러 안에서 본 MDC 값도 같은 id
+		assertThat(result.getResponse().getContentAsString()).isEqualTo(logId);
+
+		ArgumentCaptor<String> logIds = ArgumentCaptor.forClass(String.class);
+		verify(accessLog, times(2)).append(logIds.capture(), eq(DispatcherType.REQUEST), eq("/log-id"), any(), anyInt(), anyLong());
+		assertThat(logIds.getAllValues()).containsExactly(logId, logId);
+
+		//요청 끝나면 MDC 비움
+		assertThat(MDC.get(LogIdGenerator.MDC_KEY)).isNull();
+	}
+
+	//@RestController 를 붙이면 다른 테스트 컨텍스트의 컴포넌트 스캔에 걸려서, 타입에는 @RequestMapping 만
+	@RequestMapping
+	@ResponseBody
+	static class LogIdController {
+
+		@GetMapping("/log-id")
+		public String logId() {
+			return MDC.get(LogIdGenerator.MDC_KEY);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package hello.exception.filter;
+
+import hello.exception.filter.RouteCircuitBreaker.Permit;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteCircuitBreakerTest {
+
+	private static final long OPEN_MILLIS = 5000;
+
+	//window 10초, 실패율 0.5, 최소 4 요청, probe 2 개
+	private final RouteCircuitBreaker breaker = new RouteCircuitBreaker("/api/members/{id}", 10, 0.5, 4, OPEN_MILLIS, 2);
+
+	@Test
+	void opensWhenFailureRateReachesThreshold() {
+		long now = 1_000_000;
+		breaker.onResult(Permit.PASS, false, now);
+		breaker.onResult(Permit.PASS, false, now);
+		breaker.onResult(Permit.PASS, true, now);
+		assertThat(breaker.isClosed()).isTrue();
+
+		breaker.onResult(Permit.PASS, true, now);
+		assertThat(breaker.isClosed()).isFalse();
+		assertThat(breaker.acquire(now + OPEN_MILLIS - 1)).isEqualTo(Permit.REJECT);
+	}
+
+	@Test
+	void successfulProbeCloses() {
+		long now = open(1_000_000);
+
+		long later = now + OPEN_MILLIS;
+		assertThat(breaker.acquire(later)).isEqualTo(Permit.PROBE);
+		assertThat(breaker.acquire(later)).isEqualTo(Permit.PROBE);
+		//probe 는 2 개 까지
+		assertThat(breaker.acquire(later)).isEqualTo(Permit.REJECT);
+
+		breaker.onResult(Permit.PROBE, false, later);
+		assertThat(breaker.isClosed()).isTrue();
+		assertThat(breaker.acquire(later)).isEqualTo(Permit.PASS);
+	}
+
+	@Test
+	void failedProbeReopens() {
+		long now = open(1_000_000);
+
+		long later = now + OPEN_MILLIS;
+		assertThat(breaker.acquire(later)).isEqualTo(Permit.PROBE);
+		breaker.onResult(Permit.PROBE, true, later);
+
+		assertThat(breaker.snapshot(later)).containsEntry("state", RouteCircuitBreaker.State.OPEN).containsEntry("opened", 2L);
+		assertThat(breaker.acquire(later + OPEN_MILLIS - 1)).isEqualTo(Permit.REJECT);
+		assertThat(breaker.acquire(later + OPEN_MILLIS)).isEqualTo(Permit.PROBE);
+	}
+
+	@Test
+	void lostProbesAreHandedOutAgainAfterOpenMillis() {
+		long now = open(1_000_000);
+
+		long halfOpen = now + OPEN_MILLIS;
+		assertThat(breaker.acquire(halfOpen)).isEqualTo(Permit.PROBE);
+		assertThat(breaker.acquire(halfOpen)).isEqualTo(Permit.PROBE);
+		//결과가 안 돌아옴
+		assertThat(breaker.acquire(halfOpen + OPEN_MILLIS - 1)).isEqualTo(Permit.REJECT);
+
+		assertThat(breaker.acquire(halfOpen + OPEN_MILLIS)).isEqualTo(Permit.PROBE);
+		assertThat(breaker.acquire(halfOpen + OPEN_MILLIS)).isEqualTo(Permit.PROBE);
+		assertThat(breaker.acquire(halfOpen + OPEN_MILLIS)).isEqualTo(Permit.REJECT);
+	}
+
+	private long open(long now) {
+		for (int i = 0; i < 4; i++) {
+			breaker.onResult(Permit.PASS, true, now);
+		}
+		assertThat(breaker.isClosed()).isFalse();
+		return now;
+	}
+}
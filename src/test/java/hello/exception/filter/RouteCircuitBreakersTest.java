@@ -0,0 +1,37 @@
+package hello.exception.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteCircuitBreakersTest {
+
+	private final RouteCircuitBreakers breakers = new RouteCircuitBreakers(10, 0.5, 1, 5000, 1);
+
+	@Test
+	void allClosedFindsNothing() {
+		breakers.breaker("/api/members/{id}");
+
+		assertThat(breakers.findNotClosed("/api/members/spring")).isNull();
+	}
+
+	@Test
+	void mostSpecificPatternDecides() {
+		RouteCircuitBreaker byId = breakers.breaker("/api/members/{id}");
+		breakers.breaker("/api/members/stream");
+		open(byId);
+
+		assertThat(breakers.findNotClosed("/api/members/spring")).isSameAs(byId);
+		//stream 은 자기 패턴이 닫혀 있어서 통과
+		assertThat(breakers.findNotClosed("/api/members/stream")).isNull();
+
+		RouteCircuitBreaker stream = breakers.breaker("/api/members/stream");
+		open(stream);
+		assertThat(breakers.findNotClosed("/api/members/stream")).isSameAs(stream);
+	}
+
+	private static void open(RouteCircuitBreaker breaker) {
+		breaker.onResult(RouteCircuitBreaker.Permit.PASS, true, System.currentTimeMillis());
+		assertThat(breaker.isClosed()).isFalse();
+	}
+}
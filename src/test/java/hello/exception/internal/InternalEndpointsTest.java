@@ -0,0 +1,63 @@
+package hello.exception.internal;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /internal/** 는 기본으로 없고, 켜도 허용한 주소(루프백)에서만
+ */
+class InternalEndpointsTest {
+
+	@Nested
+	@SpringBootTest
+	@AutoConfigureMockMvc
+	class Disabled {
+
+		@Autowired
+		MockMvc mockMvc;
+
+		@Test
+		void internalEndpointsAreNotMapped() throws Exception {
+			mockMvc.perform(get("/internal/metrics/routes")).andExpect(status().isNotFound());
+			mockMvc.perform(get("/internal/errors/journal")).andExpect(status().isNotFound());
+			mockMvc.perform(post("/internal/messages/reload")).andExpect(status().isNotFound());
+		}
+	}
+
+	@Nested
+	@SpringBootTest(properties = "internal.endpoints.enabled=true")
+	@AutoConfigureMockMvc
+	class Enabled {
+
+		@Autowired
+		MockMvc mockMvc;
+
+		@Test
+		void loopbackIsAllowed() throws Exception {
+			mockMvc.perform(get("/internal/metrics/routes").with(remoteAddr("127.0.0.1"))).andExpect(status().isOk());
+			mockMvc.perform(get("/internal/errors").with(remoteAddr("0:0:0:0:0:0:0:1"))).andExpect(status().isOk());
+		}
+
+		@Test
+		void otherAddressesGetNotFound() throws Exception {
+			mockMvc.perform(get("/internal/metrics/routes").with(remoteAddr("10.0.0.7"))).andExpect(status().isNotFound());
+			mockMvc.perform(post("/internal/messages/reload").with(remoteAddr("192.168.0.3"))).andExpect(status().isNotFound());
+		}
+	}
+
+	private static RequestPostProcessor remoteAddr(String address) {
+		return request -> {
+			request.setRemoteAddr(address);
+			return request;
+		};
+	}
+}
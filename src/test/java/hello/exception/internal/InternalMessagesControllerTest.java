@@ -0,0 +1,45 @@
+package hello.exception.internal;
+
+import hello.exception.message.ErrorMessageCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InternalMessagesControllerTest {
+
+	@Test
+	void reloadsWithinMinimumIntervalAreThrottled() {
+		ErrorMessageCatalog catalog = mock(ErrorMessageCatalog.class);
+		when(catalog.reload()).thenReturn(true);
+		when(catalog.stats()).thenReturn(Map.of("generation", 1L));
+		InternalMessagesController controller = new InternalMessagesController(catalog, 60_000);
+
+		assertThat(controller.reload().getBody()).containsEntry("reloaded", true);
+
+		ResponseEntity<Map<String, Object>> throttled = controller.reload();
+		assertThat(throttled.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(throttled.getHeaders().getFirst("Retry-After")).isEqualTo("60");
+		assertThat(throttled.getBody()).containsEntry("reloaded", false).containsEntry("throttled", true);
+		verify(catalog, times(1)).reload();
+	}
+
+	@Test
+	void zeroIntervalDoesNotThrottle() {
+		ErrorMessageCatalog catalog = mock(ErrorMessageCatalog.class);
+		when(catalog.reload()).thenReturn(true);
+		InternalMessagesController controller = new InternalMessagesController(catalog, 0);
+
+		controller.reload();
+		controller.reload();
+
+		verify(catalog, times(2)).reload();
+	}
+}
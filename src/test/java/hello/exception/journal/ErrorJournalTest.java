@@ -0,0 +1,106 @@
+package hello.exception.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorJournalTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void appendedEventsReadBackInOrder() throws Exception {
+		ErrorJournal journal = journal(16, 3);
+		journal.start();
+		try {
+			journal.append("log-1", "/api/members/{id}", new IllegalArgumentException("잘못된 입력 값"), 400);
+			journal.append("log-2", "/error-ex", null, 500);
+
+			List<ErrorEvent> events = journal.recent(0, 10);
+			assertThat(events).hasSize(2);
+			assertThat(events.get(0)).extracting(ErrorEvent::getLogId, ErrorEvent::getRoute, ErrorEvent::getException,
+							ErrorEvent::getStatus, ErrorEvent::getMessage)
+					.containsExactly("log-1", "/api/members/{id}", IllegalArgumentException.class.getName(), 400, "잘못된 입력 값");
+			//예외 없이 sendError 로만 끝난 요청
+			assertThat(events.get(1)).extracting(ErrorEvent::getException, ErrorEvent::getMessage, ErrorEvent::getStatus)
+					.containsExactly(null, null, 500);
+		} finally {
+			journal.stop();
+		}
+	}
+
+	@Test
+	void longMessagesAreCutOnCharacterBoundary() throws Exception {
+		ErrorJournal journal = new ErrorJournal(true, directory.toString(), 16, 4096, 3, 16, 60_000);
+		journal.start();
+		try {
+			//한글은 3 바이트, 16 바이트면 다섯 글자
+			journal.append("log-1", "/a", new RuntimeException("가나다라마바사아자차"), 500);
+
+			String message = journal.recent(0, 1).get(0).getMessage();
+			assertThat(message).isEqualTo("가나다라마");
+			assertThat(message.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(16);
+		} finally {
+			journal.stop();
+		}
+	}
+
+	@Test
+	void rollsSegmentsAndKeepsOnlyMaxSegments() throws Exception {
+		//세그먼트 하나에 4 건, 3 개까지 보관 -> 마지막 12 건
+		ErrorJournal journal = journal(4, 3);
+		journal.start();
+		try {
+			for (int i = 0; i < 20; i++) {
+				journal.append("log-" + i, "/a", new IllegalStateException("e" + i), 500);
+			}
+
+			assertThat(JournalReader.segments(directory)).hasSize(3);
+			assertThat(journal.stats()).containsEntry("appended", 20L).containsEntry("dropped", 0L);
+			assertThat(logIds(journal.recent(0, 100))).first().isEqualTo("log-8");
+			assertThat(logIds(journal.recent(0, 3))).containsExactly("log-17", "log-18", "log-19");
+		} finally {
+			journal.stop();
+		}
+	}
+
+	@Test
+	void previousRunIsReadAfterRestart() throws Exception {
+		ErrorJournal first = journal(16, 3);
+		first.start();
+		first.append("before", "/a", new IllegalStateException("before"), 500);
+		first.stop();
+
+		ErrorJournal second = journal(16, 3);
+		second.start();
+		try {
+			second.append("after", "/a", new IllegalStateException("after"), 500);
+
+			assertThat(logIds(second.recent(0, 10))).containsExactly("before", "after");
+			//since 이후만
+			long since = second.recent(0, 10).get(1).getTimestamp();
+			assertThat(logIds(second.recent(since, 10))).contains("after");
+		} finally {
+			second.stop();
+		}
+	}
+
+	private ErrorJournal journal(int recordsPerSegment, int maxSegments) {
+		return new ErrorJournal(true, directory.toString(), recordsPerSegment, 4096, maxSegments, 256, 60_000);
+	}
+
+	private static List<String> logIds(List<ErrorEvent> events) {
+		List<String> logIds = new ArrayList<>();
+		for (ErrorEvent event : events) {
+			logIds.add(event.getLogId());
+		}
+		return logIds;
+	}
+}
@@ -0,0 +1,108 @@
+package hello.exception.logid;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogIdGeneratorTest {
+
+	private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+	private final LogIdGenerator logIdGenerator = new LogIdGenerator();
+
+	@Test
+	void idsIncreasePerThread() {
+		String previous = logIdGenerator.nextId();
+		for (int i = 0; i < 100_000; i++) {
+			String next = logIdGenerator.nextId();
+			assertThat(next).hasSize(26).isGreaterThan(previous);
+			previous = next;
+		}
+	}
+
+	@Test
+	void leadingCharactersAreTheMillisecondTimestamp() {
+		long before = System.currentTimeMillis();
+		String id = logIdGenerator.nextId();
+		long after = System.currentTimeMillis();
+
+		assertThat(timestamp(id)).isBetween(before, after);
+	}
+
+	@Test
+	void idsAreTimeOrderedAcrossThreads() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			String first = executor.submit(logIdGenerator::nextId).get();
+			Thread.sleep(2);
+			//다른 스레드라 카운터 시작값이 달라도 시간이 앞이라 나중에 만든 게 더 큼
+			String second = executor.submit(logIdGenerator::nextId).get();
+			String third = executor.submit(logIdGenerator::nextId).get();
+
+			assertThat(second).isGreaterThan(first);
+			assertThat(timestamp(third)).isGreaterThanOrEqualTo(timestamp(second));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void idsAreUniqueAcrossThreads() throws Exception {
+		int threads = 4;
+		int perThread = 20_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<List<String>>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					List<String> ids = new ArrayList<>(perThread);
+					for (int i = 0; i < perThread; i++) {
+						ids.add(logIdGenerator.nextId());
+					}
+					return ids;
+				}));
+			}
+
+			Set<String> all = new HashSet<>();
+			for (Future<List<String>> future : futures) {
+				all.addAll(future.get());
+			}
+			assertThat(all).hasSize(threads * perThread);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void obtainReusesTheRequestAttribute() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		String first = logIdGenerator.obtain(request, response);
+		String second = logIdGenerator.obtain(request, response);
+
+		assertThat(second).isEqualTo(first);
+		assertThat(request.getAttribute(LogIdGenerator.LOG_ID)).isEqualTo(first);
+		assertThat(response.getHeaderValues(LogIdGenerator.RESPONSE_HEADER)).containsExactly(first);
+		logIdGenerator.clear();
+	}
+
+	//앞 10글자(50비트) = 0 두 비트 + 밀리초 48비트
+	private static long timestamp(String id) {
+		long value = 0;
+		for (int i = 0; i < 10; i++) {
+			value = (value << 5) | ALPHABET.indexOf(id.charAt(i));
+		}
+		return value;
+	}
+}
@@ -0,0 +1,42 @@
+package hello.exception.member;
+
+import hello.exception.exception.BusinessExceptions;
+import hello.exception.exception.UserException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberLookupTest {
+
+	@Test
+	void negativeHitsCountOnlyFailuresServedFromCache() {
+		AtomicInteger backendCalls = new AtomicInteger();
+		MemberLookup lookup = new MemberLookup(id -> {
+			backendCalls.incrementAndGet();
+			throw new UserException("사용자 오류");
+		}, new BusinessExceptions(false, false), 100, 60, 10);
+
+		//처음은 저장소까지 가서 실패, 부정 캐시 적중 아님
+		assertThatThrownBy(() -> lookup.findMember("user-ex")).isInstanceOf(UserException.class);
+		assertThat(lookup.stats()).containsEntry("negativeHits", 0L);
+
+		assertThatThrownBy(() -> lookup.findMember("user-ex")).isInstanceOf(UserException.class);
+		assertThatThrownBy(() -> lookup.findMember("user-ex")).isInstanceOf(UserException.class);
+		assertThat(lookup.stats()).containsEntry("negativeHits", 2L);
+		assertThat(backendCalls).hasValue(1);
+	}
+
+	@Test
+	void foundMembersAreNotNegativeHits() {
+		MemberLookup lookup = new MemberLookup(id -> new Member(id, "hello " + id),
+				new BusinessExceptions(false, false), 100, 60, 10);
+
+		lookup.findMember("spring");
+		lookup.findMember("spring");
+
+		assertThat(lookup.stats()).containsEntry("negativeHits", 0L).containsEntry("hits", 1L);
+	}
+}
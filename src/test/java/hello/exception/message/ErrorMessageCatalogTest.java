@@ -0,0 +1,114 @@
+package hello.exception.message;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 번들 파일은 임시 디렉터리에 쓰고 그 디렉터리를 컨텍스트 클래스로더에 붙여서 classpath*: 로 찾게
+ */
+class ErrorMessageCatalogTest {
+
+	@TempDir
+	Path directory;
+
+	private ClassLoader previous;
+	private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+
+	@BeforeEach
+	void classpath() throws Exception {
+		previous = Thread.currentThread().getContextClassLoader();
+		Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[]{directory.toUri().toURL()}, previous));
+	}
+
+	@AfterEach
+	void restore() {
+		Thread.currentThread().setContextClassLoader(previous);
+	}
+
+	@Test
+	void startsWithCompleteBundles() throws Exception {
+		write("catalogtest.properties", "error.bad=잘못된 요청\nerror.size=최대 {0} 개\n");
+		write("catalogtest_en.properties", "error.bad=bad request\n");
+
+		ErrorMessageCatalog catalog = catalog();
+		catalog.start();
+
+		assertThat(catalog.getMessage("error.bad", null, Locale.KOREAN)).isEqualTo("잘못된 요청");
+		assertThat(catalog.getMessage("error.bad", null, Locale.US)).isEqualTo("bad request");
+		//en 에 없는 건 기본 번들
+		assertThat(catalog.getMessage("error.size", new Object[]{3}, Locale.ENGLISH)).isEqualTo("최대 3 개");
+	}
+
+	@Test
+	void missingRequiredCodeFailsStartup() throws Exception {
+		write("catalogtest.properties", "error.other=다른 오류\n");
+
+		assertThatThrownBy(() -> catalog().start())
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("missing error.bad");
+	}
+
+	@Test
+	void brokenFormatFailsStartup() throws Exception {
+		write("catalogtest.properties", "error.bad=잘못된 요청\n");
+		write("catalogtest_en.properties", "error.size=at most {0 items\n");
+
+		assertThatThrownBy(() -> catalog().start())
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("invalid format error.size [en]");
+	}
+
+	@Test
+	void reloadSwapsInNewMessages() throws Exception {
+		write("catalogtest.properties", "error.bad=잘못된 요청\n");
+		ErrorMessageCatalog catalog = catalog();
+		catalog.start();
+
+		write("catalogtest.properties", "error.bad=요청이 잘못되었습니다\n");
+		assertThat(catalog.reload()).isTrue();
+
+		assertThat(catalog.getMessage("error.bad", null, Locale.KOREAN)).isEqualTo("요청이 잘못되었습니다");
+		assertThat(catalog.stats()).containsEntry("generation", 1L).containsEntry("reloads", 1L);
+		verify(publisher, times(1)).publishEvent(any(ErrorMessagesReloaded.class));
+	}
+
+	@Test
+	void failedReloadKeepsPreviousGeneration() throws Exception {
+		write("catalogtest.properties", "error.bad=잘못된 요청\n");
+		ErrorMessageCatalog catalog = catalog();
+		catalog.start();
+
+		write("catalogtest.properties", "error.other=다른 오류\n");
+		assertThat(catalog.reload()).isFalse();
+
+		assertThat(catalog.getMessage("error.bad", null, Locale.KOREAN)).isEqualTo("잘못된 요청");
+		assertThat(catalog.stats()).containsEntry("generation", 0L).containsEntry("reloadFailures", 1L);
+		verify(publisher, never()).publishEvent(any(ErrorMessagesReloaded.class));
+	}
+
+	private ErrorMessageCatalog catalog() {
+		return new ErrorMessageCatalog(publisher, "catalogtest", "UTF-8", "error.bad", "hello.exception.message", 0);
+	}
+
+	private void write(String name, String content) throws Exception {
+		Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,111 @@
+package hello.exception.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+	@Test
+	void belowThirtyTwoIsOneMicroPerBucket() {
+		for (long micros = 0; micros < 32; micros++) {
+			int index = LatencyHistogram.bucketIndex(micros);
+			assertThat(index).isEqualTo((int) micros);
+			assertThat(LatencyHistogram.lowerBound(index)).isEqualTo(micros);
+			assertThat(LatencyHistogram.upperBound(index)).isEqualTo(micros);
+		}
+		//음수(시계가 거꾸로 간 경우)는 첫 칸
+		assertThat(LatencyHistogram.bucketIndex(-5)).isZero();
+	}
+
+	@Test
+	void eachPowerOfTwoIsSplitIntoSixteenBuckets() {
+		//32~63 은 2us 단위, 64~127 은 4us 단위
+		assertThat(LatencyHistogram.bucketIndex(32)).isEqualTo(32);
+		assertThat(LatencyHistogram.bucketIndex(33)).isEqualTo(32);
+		assertThat(LatencyHistogram.bucketIndex(34)).isEqualTo(33);
+		assertThat(LatencyHistogram.bucketIndex(63)).isEqualTo(47);
+		assertThat(LatencyHistogram.bucketIndex(64)).isEqualTo(48);
+		assertThat(LatencyHistogram.bucketIndex(67)).isEqualTo(48);
+		assertThat(LatencyHistogram.bucketIndex(68)).isEqualTo(49);
+		assertThat(LatencyHistogram.lowerBound(47)).isEqualTo(62);
+		assertThat(LatencyHistogram.upperBound(47)).isEqualTo(63);
+		assertThat(LatencyHistogram.lowerBound(48)).isEqualTo(64);
+		assertThat(LatencyHistogram.upperBound(48)).isEqualTo(67);
+	}
+
+	@Test
+	void bucketBoundsAreContiguousAndWithinSixPercent() {
+		int last = LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+		for (int index = 0; index < last; index++) {
+			long lower = LatencyHistogram.lowerBound(index);
+			long upper = LatencyHistogram.upperBound(index);
+			//양 끝 값이 모두 자기 칸으로
+			assertThat(LatencyHistogram.bucketIndex(lower)).isEqualTo(index);
+			assertThat(LatencyHistogram.bucketIndex(upper)).isEqualTo(index);
+			assertThat(LatencyHistogram.lowerBound(index + 1)).isEqualTo(upper + 1);
+			assertThat((double) (upper - lower)).isLessThanOrEqualTo(lower / 16.0);
+		}
+		//2^40us 넘으면 마지막 칸
+		assertThat(LatencyHistogram.bucketIndex(1L << 41)).isEqualTo(last);
+		assertThat(LatencyHistogram.upperBound(last)).isEqualTo(Long.MAX_VALUE);
+	}
+
+	@Test
+	void percentilesOfUniformDistribution() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long micros = 1; micros <= 1_000; micros++) {
+			histogram.record(micros);
+		}
+
+		assertThat(histogram.count()).isEqualTo(1_000);
+		assertThat(histogram.meanMicros()).isEqualTo(500.5);
+		//500 은 496~511 칸, 990 은 960~991 칸, 999 는 992~1023 칸 -> 각 칸의 상한
+		assertThat(histogram.percentileMicros(0.5)).isEqualTo(511);
+		assertThat(histogram.percentileMicros(0.99)).isEqualTo(991);
+		assertThat(histogram.percentileMicros(0.999)).isEqualTo(1023);
+	}
+
+	@Test
+	void percentilesOfLongTail() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 9_980; i++) {
+			histogram.record(10);
+		}
+		for (int i = 0; i < 15; i++) {
+			histogram.record(1_000);
+		}
+		for (int i = 0; i < 5; i++) {
+			histogram.record(100_000);
+		}
+
+		//9980 번째까지 10us, 9990 번째는 1000us 칸(992~1023), 9999 번째는 100000us 칸(98304~102399)
+		assertThat(histogram.percentileMicros(0.5)).isEqualTo(10);
+		assertThat(histogram.percentileMicros(0.99)).isEqualTo(10);
+		assertThat(histogram.percentileMicros(0.999)).isEqualTo(1_023);
+		assertThat(histogram.percentileMicros(0.9999)).isEqualTo(102_399);
+		assertThat(histogram.percentileMicros(1.0)).isEqualTo(102_399);
+	}
+
+	@Test
+	void valuesOnBucketBoundaries() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		//64 와 67 은 같은 칸, 68 은 다음 칸
+		histogram.record(64);
+		histogram.record(67);
+		histogram.record(68);
+		histogram.record(71);
+
+		assertThat(histogram.percentileMicros(0.5)).isEqualTo(67);
+		assertThat(histogram.percentileMicros(0.51)).isEqualTo(71);
+	}
+
+	@Test
+	void emptyHistogramIsZero() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		assertThat(histogram.count()).isZero();
+		assertThat(histogram.meanMicros()).isZero();
+		assertThat(histogram.percentileMicros(0.99)).isZero();
+	}
+}
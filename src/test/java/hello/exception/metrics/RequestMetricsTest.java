@@ -0,0 +1,69 @@
+package hello.exception.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RequestMetricsTest {
+
+	private static final String ROUTE = "/api/members/{id}";
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	RequestMetrics requestMetrics;
+
+	@Test
+	void routesAreKeyedByPatternAndErrorsByTypeAndStatus() throws Exception {
+		//같은 컨텍스트를 다른 테스트도 쓰니까 전후 차이로 본다
+		long countBefore = count();
+		Map<String, Long> errorsBefore = errors();
+
+		perform("/api/members/spring");
+		perform("/api/members/jpa");
+		perform("/api/members/bad");
+		perform("/api/members/bad");
+		perform("/api/members/user-ex");
+
+		assertThat(count() - countBefore).isEqualTo(5);
+		//id 마다 따로 안 생김
+		assertThat(requestMetrics.snapshot()).doesNotContainKeys("/api/members/spring", "/api/members/jpa", "/api/members/bad");
+
+		Map<String, Long> errors = errors();
+		assertThat(delta(errors, errorsBefore, "IllegalArgumentException:400")).isEqualTo(2);
+		assertThat(delta(errors, errorsBefore, "UserException:400")).isEqualTo(1);
+	}
+
+	private void perform(String uri) throws Exception {
+		mockMvc.perform(get(uri).accept(MediaType.APPLICATION_JSON));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> route() {
+		return (Map<String, Object>) requestMetrics.snapshot().getOrDefault(ROUTE, Map.of("count", 0L, "errors", Map.of()));
+	}
+
+	private long count() {
+		return (Long) route().get("count");
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Long> errors() {
+		return (Map<String, Long>) route().get("errors");
+	}
+
+	private static long delta(Map<String, Long> after, Map<String, Long> before, String key) {
+		return after.getOrDefault(key, 0L) - before.getOrDefault(key, 0L);
+	}
+}
@@ -0,0 +1,61 @@
+package hello.exception.negotiation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptHeaderNegotiatorTest {
+
+	private final AcceptHeaderNegotiator negotiator = new AcceptHeaderNegotiator();
+
+	@Test
+	void picksHighestQualityFormat() {
+		assertThat(negotiate("application/json")).isEqualTo(ErrorFormat.JSON);
+		assertThat(negotiate("application/json, text/plain, */*;q=0.8")).isEqualTo(ErrorFormat.JSON);
+		assertThat(negotiate("text/html;q=0.5, application/json;q=0.9")).isEqualTo(ErrorFormat.JSON);
+		assertThat(negotiate("application/json;q=0.5, text/html")).isEqualTo(ErrorFormat.HTML);
+		assertThat(negotiate("application/problem+json")).isEqualTo(ErrorFormat.PROBLEM_JSON);
+		assertThat(negotiate("application/vnd.hello+json")).isEqualTo(ErrorFormat.JSON);
+	}
+
+	@Test
+	void fallsBackToHtml() {
+		//헤더 없음, 와일드카드만, q=0, 해석 안되는 헤더
+		assertThat(negotiate(null)).isEqualTo(ErrorFormat.HTML);
+		assertThat(negotiate("*/*")).isEqualTo(ErrorFormat.HTML);
+		assertThat(negotiate("application/json;q=0")).isEqualTo(ErrorFormat.HTML);
+		assertThat(negotiate("not a media type")).isEqualTo(ErrorFormat.HTML);
+		assertThat(negotiator.negotiate(List.of())).isEqualTo(ErrorFormat.HTML);
+	}
+
+	@Test
+	void joinsMultipleAcceptHeaders() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept", "text/plain;q=0.9");
+		request.addHeader("Accept", "application/problem+json");
+		assertThat(negotiator.negotiate(request)).isEqualTo(ErrorFormat.PROBLEM_JSON);
+
+		assertThat(negotiator.negotiate(List.of("text/plain;q=0.9", "application/json"))).isEqualTo(ErrorFormat.JSON);
+	}
+
+	@Test
+	void cacheIsBounded() {
+		for (int i = 0; i < 5000; i++) {
+			negotiate("application/json;v=" + i);
+		}
+		//크기 제한은 비동기로 정리됨, 조금 넘칠 수는 있어도 계속 늘지는 않음
+		assertThat(negotiator.cachedHeaderCount()).isLessThanOrEqualTo(2048);
+		assertThat(negotiate("application/json;v=1")).isEqualTo(ErrorFormat.JSON);
+	}
+
+	private ErrorFormat negotiate(String accept) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		if (accept != null) {
+			request.addHeader("Accept", accept);
+		}
+		return negotiator.negotiate(request);
+	}
+}
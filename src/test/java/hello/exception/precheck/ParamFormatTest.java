@@ -0,0 +1,111 @@
+package hello.exception.precheck;
+
+import hello.exception.precheck.ParamFormat.Verdict;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 경계값, 그리고 VALID/INVALID 가 실제 바인딩(DefaultConversionService) 결과와 같은지
+ */
+class ParamFormatTest {
+
+	private static final Map<ParamFormat, Class<?>> TYPES = Map.of(
+			ParamFormat.BYTE, Byte.class,
+			ParamFormat.SHORT, Short.class,
+			ParamFormat.INT, Integer.class,
+			ParamFormat.LONG, Long.class,
+			ParamFormat.BOOLEAN, Boolean.class);
+
+	private static final List<String> VALUES = List.of(
+			"", "+", "-", "--1", "+-1", "0", "-0", "+5", "007", "12a", "1.0", "1_000", "1e3",
+			"127", "128", "-128", "-129",
+			"32767", "32768", "-32768", "-32769",
+			"2147483647", "2147483648", "-2147483648", "-2147483649",
+			"9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+			"99999999999999999999999",
+			" 12", "1 2", "12\t", "0x1F", "0X1f", "#1F", "-0x10", "١٢",
+			"true", "TRUE", "Yes", "on", "OFF", "no", "1", "2", "truee", " true", "false ", "t");
+
+	@Test
+	void integralBoundaries() {
+		assertThat(ParamFormat.BYTE.check("127")).isEqualTo(Verdict.VALID);
+		assertThat(ParamFormat.BYTE.check("128")).isEqualTo(Verdict.INVALID);
+		assertThat(ParamFormat.BYTE.check("-128")).isEqualTo(Verdict.VALID);
+		assertThat(ParamFormat.BYTE.check("-129")).isEqualTo(Verdict.INVALID);
+		assertThat(ParamFormat.INT.check("2147483647")).isEqualTo(Verdict.VALID);
+		assertThat(ParamFormat.INT.check("2147483648")).isEqualTo(Verdict.INVALID);
+		assertThat(ParamFormat.INT.check("-2147483648")).isEqualTo(Verdict.VALID);
+		assertThat(ParamFormat.LONG.check("-9223372036854775808")).isEqualTo(Verdict.VALID);
+		assertThat(ParamFormat.LONG.check("9223372036854775808")).isEqualTo(Verdict.INVALID);
+		assertThat(ParamFormat.LONG.check("-9223372036854775809")).isEqualTo(Verdict.INVALID);
+		assertThat(ParamFormat.LONG.check("99999999999999999999999")).isEqualTo(Verdict.INVALID);
+	}
+
+	@Test
+	void signsAndJunk() {
+		assertThat(ParamFormat.INT.check("+")).isEqualTo(Verdict.INVALID);
+		assertThat(ParamFormat.INT.check("-")).isEqualTo(Verdict.INVALID);
+		assertThat(ParamFormat.INT.check("--1")).isEqualTo(Verdict.INVALID);
+		assertThat(ParamFormat.INT.check("+5")).isEqualTo(Verdict.VALID);
+		assertThat(ParamFormat.INT.check("-0")).isEqualTo(Verdict.VALID);
+		assertThat(ParamFormat.INT.check("12a")).isEqualTo(Verdict.INVALID);
+		assertThat(ParamFormat.INT.check("1.0")).isEqualTo(Verdict.INVALID);
+	}
+
+	@Test
+	void bindingSpecificFormsAreDeferred() {
+		assertThat(ParamFormat.INT.check("")).isEqualTo(Verdict.DEFER);
+		assertThat(ParamFormat.INT.check(" 12")).isEqualTo(Verdict.DEFER);
+		assertThat(ParamFormat.INT.check("1 2")).isEqualTo(Verdict.DEFER);
+		assertThat(ParamFormat.INT.check("0x1F")).isEqualTo(Verdict.DEFER);
+		assertThat(ParamFormat.INT.check("#1F")).isEqualTo(Verdict.DEFER);
+		assertThat(ParamFormat.INT.check("-0x10")).isEqualTo(Verdict.DEFER);
+		//아랍-인도 숫자 ١٢
+		assertThat(ParamFormat.INT.check("١٢")).isEqualTo(Verdict.DEFER);
+		assertThat(ParamFormat.BOOLEAN.check(" true")).isEqualTo(Verdict.DEFER);
+		assertThat(ParamFormat.BOOLEAN.check("")).isEqualTo(Verdict.DEFER);
+	}
+
+	@Test
+	void booleans() {
+		for (String value : List.of("true", "TRUE", "Yes", "on", "OFF", "no", "1", "0")) {
+			assertThat(ParamFormat.BOOLEAN.check(value)).as(value).isEqualTo(Verdict.VALID);
+		}
+		for (String value : List.of("2", "truee", "t", "y")) {
+			assertThat(ParamFormat.BOOLEAN.check(value)).as(value).isEqualTo(Verdict.INVALID);
+		}
+	}
+
+	@Test
+	void unsupportedTypesAreNotChecked() {
+		assertThat(ParamFormat.of(double.class)).isNull();
+		assertThat(ParamFormat.of(String.class)).isNull();
+		assertThat(ParamFormat.of(int.class)).isEqualTo(ParamFormat.INT);
+		assertThat(ParamFormat.of(Boolean.class)).isEqualTo(ParamFormat.BOOLEAN);
+	}
+
+	@Test
+	void verdictMatchesBinding() {
+		DefaultConversionService conversionService = new DefaultConversionService();
+		for (Map.Entry<ParamFormat, Class<?>> entry : TYPES.entrySet()) {
+			for (String value : VALUES) {
+				Verdict verdict = entry.getKey().check(value);
+				String description = entry.getKey() + " " + value;
+				if (verdict == Verdict.VALID) {
+					assertThat(conversionService.convert(value, entry.getValue())).as(description).isNotNull();
+				} else if (verdict == Verdict.INVALID) {
+					assertThatThrownBy(() -> conversionService.convert(value, entry.getValue()))
+							.as(description)
+							.isInstanceOf(ConversionFailedException.class);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package hello.exception.precheck;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import java.beans.PropertyEditorSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ParameterPrecheckInterceptorTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ParameterPrecheck parameterPrecheck;
+
+	@Test
+	void malformedNumberIsRejectedBeforeBinding() throws Exception {
+		long rejectedBefore = rejected();
+
+		MvcResult result = mockMvc.perform(get("/api/default-handler-ex").param("data", "abc").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+				.andExpect(jsonPath("$.type").value(endsWith("/invalid-parameter")))
+				.andExpect(jsonPath("$.status").value(400))
+				.andExpect(jsonPath("$.code").value("BAD"))
+				.andReturn();
+
+		//핸들러, 바인딩까지 안 가서 리졸버가 받을 예외도 없음
+		assertThat(result.getResolvedException()).isNull();
+		assertThat(result.getResponse().getForwardedUrl()).isNull();
+		assertThat(rejected() - rejectedBefore).isEqualTo(1);
+	}
+
+	@Test
+	void validNumberPasses() throws Exception {
+		mockMvc.perform(get("/api/default-handler-ex").param("data", "10"))
+				.andExpect(status().isOk())
+				.andExpect(content().string("ok"));
+	}
+
+	@Test
+	void valuesTheBinderRewritesAreDeferred() throws Exception {
+		long rejectedBefore = rejected();
+
+		//16진수, 앞 공백은 바인딩이 받아줌
+		mockMvc.perform(get("/api/default-handler-ex").param("data", "0x1F"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/default-handler-ex").param("data", " 5"))
+				.andExpect(status().isOk());
+
+		assertThat(rejected()).isEqualTo(rejectedBefore);
+	}
+
+	@Test
+	void controllerWithInitBinderIsNotChecked() throws Exception {
+		long rejectedBefore = rejected();
+
+		//@InitBinder 가 "ten" 을 받아줌, 미리 보면 틀린 값으로 막혔을 것
+		mockMvc.perform(get("/test/init-binder").param("data", "ten"))
+				.andExpect(status().isOk())
+				.andExpect(content().string("10"));
+
+		//틀린 값도 원래 바인딩 -> 리졸버 길로
+		MvcResult result = mockMvc.perform(get("/test/init-binder").param("data", "abc"))
+				.andExpect(status().isBadRequest())
+				.andReturn();
+		assertThat(result.getResolvedException()).isInstanceOf(MethodArgumentTypeMismatchException.class);
+		assertThat(rejected()).isEqualTo(rejectedBefore);
+	}
+
+	private long rejected() {
+		return (Long) parameterPrecheck.stats().get("rejected");
+	}
+
+	@TestConfiguration
+	static class InitBinderConfig {
+
+		@Bean
+		InitBinderController initBinderController() {
+			return new InitBinderController();
+		}
+	}
+
+	//@Controller 를 안 붙여서 다른 테스트 컨텍스트의 컴포넌트 스캔에는 안 걸림
+	@RequestMapping("/test")
+	@ResponseBody
+	static class InitBinderController {
+
+		@InitBinder
+		void initBinder(WebDataBinder binder) {
+			binder.registerCustomEditor(Integer.class, new PropertyEditorSupport() {
+				@Override
+				public void setAsText(String text) {
+					setValue("ten".equals(text) ? 10 : Integer.valueOf(text));
+				}
+			});
+		}
+
+		@GetMapping("/init-binder")
+		public String data(@RequestParam Integer data) {
+			return String.valueOf(data);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package hello.exception.problem;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.exception.UserException;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProblemWriterTest {
+
+	private final ProblemWriter problemWriter = new ProblemWriter(new ObjectMapper(),
+			new ProblemRegistry(new StaticMessageSource(), "/problems/"));
+
+	@Test
+	void streamedBodyIsSameAsSerializedBytes() throws Exception {
+		UserException ex = new UserException("사용자 오류");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		problemWriter.write(response, ex, Locale.KOREA);
+
+		assertThat(response.getStatus()).isEqualTo(400);
+		assertThat(response.getContentType()).isEqualTo(ProblemWriter.CONTENT_TYPE);
+		assertThat(response.getContentAsByteArray()).isEqualTo(problemWriter.bytes(ex, Locale.KOREA));
+		//다 쓰고도 스트림은 안 닫힘, 컨테이너가 닫음
+		response.getOutputStream().write('x');
+	}
+
+	@Test
+	void validationErrorsAreStreamed() throws Exception {
+		BindException ex = new BindException(new BeanPropertyBindingResult(new Object(), "memberDto"));
+		ex.rejectValue(null, "NotBlank", "비어 있으면 안 됩니다");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		problemWriter.write(response, ex, Locale.KOREA);
+
+		assertThat(response.getStatus()).isEqualTo(400);
+		assertThat(response.getContentAsString(StandardCharsets.UTF_8)).contains("\"code\":\"VALIDATION\"", "비어 있으면 안 됩니다");
+		assertThat(problemWriter.stats().get("hits")).isEqualTo(0L);
+	}
+
+	@Test
+	void cachedBodyHitsCountBytesSaved() throws Exception {
+		RuntimeException ex = new RuntimeException("내부 사정");
+		int length = problemWriter.bytes(ex, Locale.KOREA).length;
+
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			problemWriter.write(response, ex, Locale.KOREA);
+			assertThat(response.getStatus()).isEqualTo(500);
+			assertThat(response.getContentLength()).isEqualTo(length);
+		}
+
+		//처음 한번만 직렬화, 나머지 세 번은 캐시
+		assertThat(problemWriter.stats())
+				.containsEntry("misses", 1L)
+				.containsEntry("hits", 3L)
+				.containsEntry("bytesSaved", 3L * length)
+				.containsEntry("serialized", 1L);
+	}
+
+	@Test
+	void errorPageBodyWithoutExceptionUsesStatus() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		problemWriter.write(response, 404, null, "없음", Locale.KOREA);
+
+		assertThat(response.getStatus()).isEqualTo(404);
+		assertThat(response.getContentAsByteArray()).isEqualTo(problemWriter.bytes(404, null, "없음", Locale.KOREA));
+	}
+}
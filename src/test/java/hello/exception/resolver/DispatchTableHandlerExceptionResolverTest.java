@@ -0,0 +1,234 @@
+package hello.exception.resolver;
+
+import hello.exception.errorlog.ErrorLog;
+import hello.exception.errorstats.ErrorStats;
+import hello.exception.exception.UserException;
+import hello.exception.negotiation.AcceptHeaderNegotiator;
+import hello.exception.problem.ProblemWriter;
+import hello.exception.servlet.ErrorPageRenderer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.HandlerExceptionResolverComposite;
+import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 디스패치 테이블을 거친 결과가 스프링 기본 HandlerExceptionResolverComposite 로 체인을 전부 물어본 결과와 같은지
+ * 같은 리졸버 목록(WebConfig 와 같은 순서)에 같은 (핸들러, 예외)를 넣고 ModelAndView, 상태 코드, 바디를 비교
+ */
+class DispatchTableHandlerExceptionResolverTest {
+
+	private List<HandlerExceptionResolver> chain;
+	private HandlerMethod localHandler;
+	private HandlerMethod plainHandler;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		StaticWebApplicationContext context = new StaticWebApplicationContext();
+		context.setServletContext(new MockServletContext());
+		context.registerSingleton("testAdvice", TestAdvice.class);
+		context.refresh();
+
+		ExceptionHandlerExceptionResolver exceptionHandlerResolver = new ExceptionHandlerExceptionResolver();
+		exceptionHandlerResolver.setApplicationContext(context);
+		exceptionHandlerResolver.afterPropertiesSet();
+
+		ErrorPageRenderer renderer = mock(ErrorPageRenderer.class);
+		doAnswer(invocation -> {
+			HttpServletResponse response = invocation.getArgument(1);
+			response.setStatus(invocation.getArgument(2));
+			response.getWriter().write("inline");
+			return null;
+		}).when(renderer).render(any(), any(), anyInt(), any(), any());
+
+		chain = List.of(
+				exceptionHandlerResolver,
+				new ResponseStatusExceptionResolver(),
+				new DefaultHandlerExceptionResolver(),
+				new MyHandlerExceptionResolver(new ErrorLog(false, 60, 10, 5, 100)),
+				new UserHandlerExceptionResolver(mock(ProblemWriter.class), new AcceptHeaderNegotiator()),
+				new InlineErrorPageResolver(renderer));
+
+		localHandler = new HandlerMethod(new LocalHandlerController(), "handle");
+		plainHandler = new HandlerMethod(new PlainController(), "handle");
+	}
+
+	@Test
+	void resolvesLikeStockChainWithStartupTable() {
+		DispatchTableHandlerExceptionResolver dispatch = new DispatchTableHandlerExceptionResolver(chain, stats());
+		dispatch.initialize(List.of(LocalHandlerController.class, PlainController.class));
+
+		assertSameAsStockChain(dispatch);
+		//두 번째도 같은 결과 (테이블에서 꺼낸 목록)
+		assertSameAsStockChain(dispatch);
+	}
+
+	@Test
+	void resolvesLikeStockChainWithoutStartupTable() {
+		DispatchTableHandlerExceptionResolver dispatch = new DispatchTableHandlerExceptionResolver(chain, stats());
+
+		assertSameAsStockChain(dispatch);
+		assertSameAsStockChain(dispatch);
+	}
+
+	@Test
+	void declaredExceptionTypesComeFromStartupTable() {
+		DispatchTableHandlerExceptionResolver dispatch = new DispatchTableHandlerExceptionResolver(chain, stats());
+		dispatch.initialize(List.of(LocalHandlerController.class, PlainController.class));
+
+		resolve(dispatch, localHandler, new IllegalStateException("local"));
+		resolve(dispatch, plainHandler, new AdviceException());
+		resolve(dispatch, plainHandler, new UserException("user"));
+		resolve(dispatch, null, new HttpRequestMethodNotSupportedException("DELETE"));
+		assertThat(dispatch.learnedSize()).isZero();
+
+		//하위 타입, cause 가 있는 예외는 처음 나올 때 배움
+		resolve(dispatch, plainHandler, new GoneException());
+		resolve(dispatch, plainHandler, new RuntimeException(new AdviceException()));
+		assertThat(dispatch.learnedSize()).isEqualTo(2);
+	}
+
+	@Test
+	void chainOrderWinsWhenSeveralResolversCouldHandle() {
+		DispatchTableHandlerExceptionResolver dispatch = new DispatchTableHandlerExceptionResolver(chain, stats());
+		dispatch.initialize(List.of(LocalHandlerController.class, PlainController.class));
+
+		//컨트롤러의 @ExceptionHandler 가 MyHandlerExceptionResolver 보다 먼저
+		assertThat(resolve(dispatch, localHandler, new IllegalArgumentException("local"))).contains("status=400", "body=local-iae");
+		assertThat(resolve(dispatch, plainHandler, new IllegalArgumentException("my"))).contains("status=400", "error=my");
+		//@ResponseStatus 가 InlineErrorPageResolver(RuntimeException) 보다 먼저
+		assertThat(resolve(dispatch, plainHandler, new GoneException())).contains("status=410");
+		//아무도 못 처리하는 checked 예외는 null
+		assertThat(resolve(dispatch, plainHandler, new Exception("checked"))).startsWith("null");
+	}
+
+	private void assertSameAsStockChain(DispatchTableHandlerExceptionResolver dispatch) {
+		HandlerExceptionResolverComposite stock = new HandlerExceptionResolverComposite();
+		stock.setExceptionResolvers(chain);
+
+		for (Object handler : handlers()) {
+			for (Supplier<Exception> exception : exceptions()) {
+				Exception ex = exception.get();
+				assertThat(resolve(dispatch, handler, ex))
+						.as("%s / %s", handler, ex)
+						.isEqualTo(resolve(stock, handler, exception.get()));
+			}
+		}
+	}
+
+	private List<Object> handlers() {
+		List<Object> handlers = new ArrayList<>();
+		handlers.add(localHandler);
+		handlers.add(plainHandler);
+		handlers.add(null);
+		//HandlerMethod 가 아닌 핸들러 (HttpRequestHandler 등)
+		handlers.add(new Object());
+		return handlers;
+	}
+
+	private static List<Supplier<Exception>> exceptions() {
+		return List.of(
+				() -> new IllegalStateException("local"),
+				() -> new IllegalArgumentException("iae"),
+				() -> new AdviceException(),
+				() -> new GoneException(),
+				() -> new ResponseStatusException(HttpStatus.CONFLICT, "conflict"),
+				() -> new UserException("user"),
+				() -> new HttpRequestMethodNotSupportedException("DELETE"),
+				() -> new MissingServletRequestParameterException("id", "Long"),
+				() -> new RuntimeException("plain"),
+				() -> new Exception("checked"),
+				//cause 로 매칭되는 경우
+				() -> new RuntimeException(new AdviceException()),
+				() -> new IllegalStateException(new GoneException()),
+				() -> new Exception(new IllegalStateException("local")),
+				() -> new Exception(new HttpRequestMethodNotSupportedException("DELETE")));
+	}
+
+	private static String resolve(HandlerExceptionResolver resolver, Object handler, Exception ex) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test");
+		request.addHeader("Accept", "text/html");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ModelAndView mav = resolver.resolveException(request, response, handler, ex);
+		try {
+			return (mav == null ? "null" : "view=" + mav.getViewName())
+					+ " status=" + response.getStatus()
+					+ " error=" + response.getErrorMessage()
+					+ " body=" + response.getContentAsString();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static ErrorStats stats() {
+		return new ErrorStats(true, 64, 16, 5);
+	}
+
+	@Controller
+	static class LocalHandlerController {
+
+		public void handle() {
+		}
+
+		@ExceptionHandler(IllegalStateException.class)
+		public ResponseEntity<String> localState(IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body("local-ise");
+		}
+
+		@ExceptionHandler
+		public ResponseEntity<String> localArgument(IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("local-iae");
+		}
+	}
+
+	@Controller
+	static class PlainController {
+
+		public void handle() {
+		}
+	}
+
+	@ControllerAdvice
+	static class TestAdvice {
+
+		@ExceptionHandler(AdviceException.class)
+		public ResponseEntity<String> advice(AdviceException e) {
+			return ResponseEntity.status(HttpStatus.I_AM_A_TEAPOT).body("advice");
+		}
+	}
+
+	static class AdviceException extends RuntimeException {
+	}
+
+	@ResponseStatus(HttpStatus.GONE)
+	static class GoneException extends RuntimeException {
+	}
+}
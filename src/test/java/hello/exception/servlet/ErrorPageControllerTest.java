@@ -0,0 +1,65 @@
+package hello.exception.servlet;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+
+import javax.servlet.RequestDispatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ErrorPageControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ContentNegotiationManager mvcContentNegotiationManager;
+
+	@Test
+	void jsonAcceptGetsProblemBody() throws Exception {
+		mockMvc.perform(get("/error-page/500")
+						.requestAttr(RequestDispatcher.ERROR_STATUS_CODE, 500)
+						.requestAttr(RequestDispatcher.ERROR_EXCEPTION, new RuntimeException("잘못된 사용자"))
+						.header("Accept", "application/json, text/plain, */*;q=0.8"))
+				.andExpect(status().isInternalServerError())
+				.andExpect(content().contentType("application/problem+json"))
+				.andExpect(jsonPath("$.status").value(500));
+	}
+
+	@Test
+	void directJsonGetWithoutErrorAttributesIs500() throws Exception {
+		//오류 디스패치가 아니라 바로 부르면 ERROR_STATUS_CODE 가 없음
+		mockMvc.perform(get("/error-page/500").header("Accept", "application/json"))
+				.andExpect(status().isInternalServerError())
+				.andExpect(content().contentType("application/problem+json"))
+				.andExpect(jsonPath("$.status").value(500));
+	}
+
+	@Test
+	void htmlAcceptGetsErrorView() throws Exception {
+		mockMvc.perform(get("/error-page/500")
+						.requestAttr(RequestDispatcher.ERROR_STATUS_CODE, 500)
+						.header("Accept", "text/html,application/xhtml+xml,*/*;q=0.8"))
+				.andExpect(view().name("error-page/500"));
+	}
+
+	@Test
+	void mvcContentNegotiationStaysDefault() {
+		//오류 경로의 AcceptHeaderNegotiator 는 스프링 MVC 전체 콘텐츠 협상에 안 들어감
+		assertThat(mvcContentNegotiationManager.getStrategies())
+				.singleElement()
+				.isInstanceOf(HeaderContentNegotiationStrategy.class);
+	}
+}
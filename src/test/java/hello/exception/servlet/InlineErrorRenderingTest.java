@@ -0,0 +1,84 @@
+package hello.exception.servlet;
+
+import hello.exception.ExceptionApplication;
+import hello.exception.WebServerCustomizer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * error.inline-rendering.enabled=true 로 바꿔도 WAS 오류 페이지(ERROR 디스패치)와 같은 응답인지, 실제 톰캣으로
+ * 지연 시간 비교는 ExceptionStrategyBenchmark 의 servletErrorPage* / inlineErrorPage*
+ */
+class InlineErrorRenderingTest {
+
+	private static final HttpClient CLIENT = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	private static ConfigurableApplicationContext servletErrorPage;
+	private static ConfigurableApplicationContext inline;
+
+	@BeforeAll
+	static void start() {
+		servletErrorPage = start(false);
+		inline = start(true);
+	}
+
+	@AfterAll
+	static void stop() {
+		servletErrorPage.close();
+		inline.close();
+	}
+
+	@Test
+	void exceptionRendersSameErrorPage() throws Exception {
+		assertSameResponse("/error-ex", "text/html", 500);
+	}
+
+	@Test
+	void sendError404RendersSameErrorPage() throws Exception {
+		assertSameResponse("/error-404", "text/html", 404);
+	}
+
+	@Test
+	void sendError500RendersSameErrorPage() throws Exception {
+		assertSameResponse("/error-500", "text/html", 500);
+	}
+
+	@Test
+	void sendError500RendersSameProblemJson() throws Exception {
+		assertSameResponse("/error-500", "application/json", 500);
+	}
+
+	private static void assertSameResponse(String path, String accept, int status) throws Exception {
+		HttpResponse<String> expected = get(servletErrorPage, path, accept);
+		HttpResponse<String> actual = get(inline, path, accept);
+
+		assertThat(expected.statusCode()).isEqualTo(status);
+		assertThat(actual.statusCode()).isEqualTo(status);
+		assertThat(actual.headers().firstValue("Content-Type")).isEqualTo(expected.headers().firstValue("Content-Type"));
+		assertThat(actual.body()).isEqualTo(expected.body());
+	}
+
+	private static HttpResponse<String> get(ConfigurableApplicationContext context, String path, String accept) throws Exception {
+		String port = context.getEnvironment().getProperty("local.server.port");
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Accept", accept)
+				.build();
+		return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static ConfigurableApplicationContext start(boolean inline) {
+		return new SpringApplicationBuilder(ExceptionApplication.class, WebServerCustomizer.class)
+				.properties("server.port=0", "spring.main.banner-mode=off", "error.inline-rendering.enabled=" + inline)
+				.run();
+	}
+}
@@ -0,0 +1,101 @@
+package hello.exception.validation;
+
+import hello.exception.member.MemberDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.DefaultMessageCodesResolver;
+import org.springframework.validation.FieldError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledValidatorTest {
+
+	private final CompiledValidator precompiled = new CompiledValidator();
+	private final CompiledValidator lazy = new CompiledValidator();
+
+	@AfterEach
+	void tearDown() {
+		precompiled.close();
+		lazy.close();
+	}
+
+	@Test
+	void precompiledDtoNeedsNoWorkOnFirstFailure() {
+		//memberId 3개(@NotBlank, @Size, @Pattern) + name 2개
+		assertThat(precompiled.precompile(MemberDto.class, "memberDto", new DefaultMessageCodesResolver(), Locale.getDefault()))
+				.isEqualTo(5);
+		Map<String, Object> before = precompiled.stats();
+
+		validate(precompiled, invalid());
+
+		Map<String, Object> after = precompiled.stats();
+		assertThat(after.get("lateCompiles")).isEqualTo(0L);
+		//메시지도 뜰 때 채운 캐시에서, 미리 채울 때 miss 5 + 검증 실패 2개는 둘 다 hit
+		assertThat(before.get("messageHitRatio")).isEqualTo(0.0);
+		assertThat(after.get("cachedMessages")).isEqualTo(before.get("cachedMessages"));
+		assertThat(after.get("messageHitRatio")).isEqualTo(2.0 / 7);
+	}
+
+	@Test
+	void precompiledErrorsMatchLazilyCompiledErrors() {
+		precompiled.precompile(MemberDto.class, "memberDto", new DefaultMessageCodesResolver(), Locale.getDefault());
+
+		assertThat(describe(validate(precompiled, invalid()))).isEqualTo(describe(validate(lazy, invalid())));
+		assertThat(lazy.stats().get("lateCompiles")).isEqualTo(2L);
+	}
+
+	@Test
+	void sameConstraintOnDifferentFieldsKeepsItsOwnField() {
+		MemberDto dto = new MemberDto();
+		dto.setMemberId("");
+		dto.setName("");
+
+		//둘 다 @NotBlank, 두 번째 검증(캐시된 계획)에서도 필드가 섞이면 안 됨
+		validate(lazy, dto);
+		List<FieldError> errors = validate(lazy, dto);
+		assertThat(errors).extracting(FieldError::getField).contains("memberId", "name");
+		assertThat(errors).filteredOn(error -> error.getCode().equals("NotBlank")).hasSize(2)
+				.allSatisfy(error -> assertThat(error.getCodes()[0]).isEqualTo("NotBlank.memberDto." + error.getField()));
+	}
+
+	@Test
+	void otherObjectNameIsCompiledLate() {
+		precompiled.precompile(MemberDto.class, "member", new DefaultMessageCodesResolver(), Locale.getDefault());
+
+		List<FieldError> errors = validate(precompiled, invalid());
+
+		//이름이 다르면 코드가 달라서 미리 만든 걸 못 씀
+		assertThat(errors).allSatisfy(error -> assertThat(error.getCodes()[0]).contains(".memberDto."));
+		assertThat(precompiled.stats().get("lateCompiles")).isEqualTo(2L);
+	}
+
+	private static MemberDto invalid() {
+		MemberDto dto = new MemberDto();
+		dto.setMemberId("Bad Id!");
+		dto.setName("");
+		return dto;
+	}
+
+	private static List<FieldError> validate(CompiledValidator validator, MemberDto dto) {
+		BeanPropertyBindingResult errors = new BeanPropertyBindingResult(dto, "memberDto");
+		validator.validate(dto, errors);
+		return errors.getFieldErrors();
+	}
+
+	//순서는 하이버네이트 밸리데이터 Set 이라 정렬해서 비교
+	private static List<String> describe(List<FieldError> errors) {
+		List<String> described = new ArrayList<>();
+		for (FieldError error : errors) {
+			described.add(error.getField() + " " + error.getRejectedValue() + " " + String.join(",", error.getCodes())
+					+ " " + error.getArguments().length + " " + error.getDefaultMessage());
+		}
+		described.sort(null);
+		return described;
+	}
+}